@@ -5,11 +5,14 @@
 
 package net.adeptropolis.frogspawn;
 
+import com.google.common.base.Preconditions;
 import net.adeptropolis.frogspawn.clustering.affiliation.RelativeWeightVertexAffiliationMetric;
 import net.adeptropolis.frogspawn.clustering.affiliation.VertexAffiliationMetric;
 import net.adeptropolis.frogspawn.graphs.Graph;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.ConstantSigTrailConvergence;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.EigenSolver;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.PartialConvergenceCriterion;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.PowerIteration;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
@@ -26,6 +29,11 @@ public class ClusteringSettings {
   private final double convergenceThreshold;
   private final int maxIterations;
   private final long randomSeed;
+  private final int parallelism;
+  private final long materializationBudget;
+  private final boolean warmStart;
+  private final EigenSolver eigenSolver;
+  private final int multilevelThreshold;
 
   /**
    * Constructor
@@ -37,11 +45,17 @@ public class ClusteringSettings {
    * @param convergenceThreshold    Fraction of converged vertices
    * @param maxIterations           Maximum number of iterations
    * @param randomSeed              Seed value for random initial value generation
+   * @param parallelism             Maximum number of protoclusters that may be processed concurrently
+   * @param materializationBudget   Maximum memory (in bytes) for materializing a single graph prior to bisection
+   * @param warmStart               Whether to start bisections from the restricted eigenvector of the parent partition
+   * @param eigenSolver             Solver for the bisection eigenvectors
+   * @param multilevelThreshold     Minimum graph order for multilevel bisection. 0 disables multilevel bisection
    */
 
   private ClusteringSettings(VertexAffiliationMetric vertexAffiliationMetric, double minVertexAffiliation,
                              int minClusterSize, int trailSize, double convergenceThreshold, int maxIterations,
-                             long randomSeed) {
+                             long randomSeed, int parallelism, long materializationBudget, boolean warmStart,
+                             EigenSolver eigenSolver, int multilevelThreshold) {
     this.vertexAffiliationMetric = vertexAffiliationMetric;
     this.minVertexAffiliation = minVertexAffiliation;
     this.minClusterSize = minClusterSize;
@@ -49,6 +63,11 @@ public class ClusteringSettings {
     this.convergenceThreshold = convergenceThreshold;
     this.maxIterations = maxIterations;
     this.randomSeed = randomSeed;
+    this.parallelism = parallelism;
+    this.materializationBudget = materializationBudget;
+    this.warmStart = warmStart;
+    this.eigenSolver = eigenSolver;
+    this.multilevelThreshold = multilevelThreshold;
   }
 
   /**
@@ -93,6 +112,46 @@ public class ClusteringSettings {
     return randomSeed;
   }
 
+  /**
+   * @return Maximum number of protoclusters that may be processed concurrently
+   */
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @return Maximum memory (in bytes) for materializing a single graph prior to bisection
+   */
+
+  public long getMaterializationBudget() {
+    return materializationBudget;
+  }
+
+  /**
+   * @return Whether bisections are being started from the restricted eigenvector of the parent partition
+   */
+
+  public boolean isWarmStart() {
+    return warmStart;
+  }
+
+  /**
+   * @return Solver for the bisection eigenvectors
+   */
+
+  public EigenSolver getEigenSolver() {
+    return eigenSolver;
+  }
+
+  /**
+   * @return Minimum graph order for multilevel bisection or 0 if disabled
+   */
+
+  public int getMultilevelThreshold() {
+    return multilevelThreshold;
+  }
+
   /**
    * Return a new instance of ConvergenceCriterion for a given graph.
    * Currently, this always returns an instance of <code>ConstantSigTrailConvergence</code>
@@ -127,6 +186,11 @@ public class ClusteringSettings {
             .append("convergenceThreshold", convergenceThreshold)
             .append("maxIterations", convergenceThreshold)
             .append("randomSeed", randomSeed)
+            .append("parallelism", parallelism)
+            .append("materializationBudget", materializationBudget)
+            .append("warmStart", warmStart)
+            .append("eigenSolver", eigenSolver)
+            .append("multilevelThreshold", multilevelThreshold)
             .build();
   }
 
@@ -138,6 +202,11 @@ public class ClusteringSettings {
     private int trailSize = 20;
     private double convergenceThreshold = 0.95; // Note that values <= ~0.75-0.8 actually degrade performance
     private long randomSeed = 42133742L;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long materializationBudget = 0;
+    private boolean warmStart = false;
+    private EigenSolver eigenSolver = PowerIteration.SOLVER;
+    private int multilevelThreshold = 0;
     private int maxIterations = 540; // Set as twice the 99.9% quantile of the required iterations on a large sample within a parameter range of 15-35 for trail size and 0.9-0.98 for convergence threshold
 
     /**
@@ -222,6 +291,78 @@ public class ClusteringSettings {
       return this;
     }
 
+    /**
+     * Set the maximum number of protoclusters that may be processed concurrently. Since independent protoclusters
+     * are bisected in parallel while all modifications of the cluster tree are applied in queue order, the result
+     * is identical for any value. The same limit applies to the threads used for graph traversals within bisections.
+     * Use 1 for strictly sequential processing. Default is the number of available processors
+     *
+     * @param parallelism Maximum number of concurrently processed protoclusters. Must be at least 1
+     * @return this
+     */
+    public Builder withParallelism(int parallelism) {
+      Preconditions.checkArgument(parallelism >= 1, "Parallelism must be at least 1, got %s", parallelism);
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Set the maximum memory (in bytes) for materializing a single graph prior to bisection. Subgraphs whose local
+     * CSR representation fits into this budget are copied once and then traversed by sequential scans throughout
+     * all power iterations. Note that the budget applies to every graph, and up to <code>parallelism</code> graphs
+     * may be materialized at the same time, so the total may reach <code>parallelism</code> times the budget.
+     * Use 0 to disable materialization. Default is 0 (disabled)
+     *
+     * @param materializationBudget Memory budget in bytes
+     * @return this
+     */
+    public Builder withMaterializationBudget(long materializationBudget) {
+      this.materializationBudget = materializationBudget;
+      return this;
+    }
+
+    /**
+     * Start every bisection from the eigenvector of its parent partition, restricted to the protocluster's vertices,
+     * instead of a random vector. This usually reduces the number of iterations required for deep levels of the
+     * cluster tree. Default is <code>false</code>
+     *
+     * @param warmStart Whether to enable warm starts
+     * @return this
+     */
+    public Builder withWarmStart(boolean warmStart) {
+      this.warmStart = warmStart;
+      return this;
+    }
+
+    /**
+     * Set the solver used for finding the eigenvector of every bisection. Default is the power method
+     * (<code>PowerIteration.SOLVER</code>). <code>LanczosIteration</code> usually requires far fewer operator
+     * applications on graphs with a small spectral gap at the expense of additional memory for its Krylov basis.
+     * <code>ChebyshevIteration</code> accelerates the power method, but keeps five vertex-indexed vectors instead of
+     * the power method's two.
+     *
+     * @param eigenSolver Eigenvector solver
+     * @return this
+     */
+    public Builder withEigenSolver(EigenSolver eigenSolver) {
+      this.eigenSolver = eigenSolver;
+      return this;
+    }
+
+    /**
+     * Bisect all graphs with at least the given number of vertices using a multilevel scheme: The graph is being
+     * coarsened by heavy-edge matching, the eigenvector is being computed on the coarsest graph and then prolonged
+     * back to the original graph, where it serves as initial vector for the final eigensolver run. This substantially
+     * reduces the number of full-graph iterations for the top levels of the cluster tree. Use 0 to disable. Default is 0
+     *
+     * @param multilevelThreshold Minimum graph order
+     * @return this
+     */
+    public Builder withMultilevelThreshold(int multilevelThreshold) {
+      this.multilevelThreshold = multilevelThreshold;
+      return this;
+    }
+
     /**
      * Build settings
      *
@@ -230,7 +371,8 @@ public class ClusteringSettings {
 
     public ClusteringSettings build() {
       return new ClusteringSettings(vertexAffiliationMetric, minVertexAffiliation, minClusterSize, trailSize, convergenceThreshold,
-              maxIterations, randomSeed);
+              maxIterations, randomSeed, parallelism, materializationBudget, warmStart, eigenSolver,
+              multilevelThreshold);
     }
 
   }
@@ -18,6 +18,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -134,6 +135,18 @@ public class Cluster implements Comparable<Cluster>, Serializable {
     return IntStream.range(0, remainder.size()).mapToObj(i -> labels[remainder.getInt(i)]);
   }
 
+  /**
+   * Map a cluster's remainder to a stream of label objects, resolving labels on demand
+   *
+   * @param labels Lookup function for graph labels
+   * @param <T>    Label Type
+   * @return Stream of labels
+   */
+
+  public <T> Stream<T> remainderLabels(IntFunction<T> labels) {
+    return IntStream.range(0, remainder.size()).mapToObj(i -> labels.apply(remainder.getInt(i)));
+  }
+
   /**
    * @return Child clusters
    */
@@ -0,0 +1,14 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.clustering;
+
+public class ClusteringException extends RuntimeException {
+
+  public ClusteringException(Throwable cause) {
+    super(cause);
+  }
+
+}
@@ -6,6 +6,7 @@
 package net.adeptropolis.frogspawn.clustering;
 
 import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.RandomInitialVectorsSource;
 
 /**
  * Protocluster: A cluster candidate
@@ -14,21 +15,29 @@ import net.adeptropolis.frogspawn.graphs.Graph;
 public class Protocluster {
 
   private final Graph graph;
+  private final RandomInitialVectorsSource ivSource;
+  private final double[] warmStartVector;
   private Cluster cluster;
   private GraphType graphType;
+  private int offspring;
 
   /**
    * Constructor
    *
-   * @param graph     A graph, i.e. the cluster candidate
-   * @param graphType Type of the graph. Either <code>ROOT</code>, <code>COMPONENT</code> or <code>SPECTRAL</code>
-   * @param cluster   Parent cluster
+   * @param graph           A graph, i.e. the cluster candidate
+   * @param graphType       Type of the graph. Either <code>ROOT</code>, <code>COMPONENT</code> or <code>SPECTRAL</code>
+   * @param cluster         Parent cluster
+   * @param ivSource        Source for the initial vectors of this protocluster's bisection
+   * @param warmStartVector Restriction of the parent partition's eigenvector to the graph or <code>null</code>
    */
 
-  Protocluster(Graph graph, GraphType graphType, Cluster cluster) {
+  Protocluster(Graph graph, GraphType graphType, Cluster cluster, RandomInitialVectorsSource ivSource, double[] warmStartVector) {
     this.graph = graph;
     this.graphType = graphType;
     this.cluster = cluster;
+    this.ivSource = ivSource;
+    this.warmStartVector = warmStartVector;
+    this.offspring = 0;
   }
 
   /**
@@ -55,6 +64,33 @@ public class Protocluster {
     this.graphType = GraphType.COMPONENT;
   }
 
+  /**
+   * @return Source for the initial vectors of this protocluster's bisection
+   */
+
+  RandomInitialVectorsSource getIvSource() {
+    return ivSource;
+  }
+
+  /**
+   * @return Restriction of the parent partition's eigenvector to the graph or <code>null</code> if not available
+   */
+
+  double[] getWarmStartVector() {
+    return warmStartVector;
+  }
+
+  /**
+   * Derive the initial vector source for the next protocluster emerging from this one. Since offspring is
+   * always created in the same order, the result only depends on the protocluster's position in the tree.
+   *
+   * @return A new initial vector source
+   */
+
+  RandomInitialVectorsSource deriveIvSource() {
+    return ivSource.derive(offspring++);
+  }
+
   /**
    * @return Parent cluster
    */
@@ -17,11 +17,20 @@ import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
 
 /**
  * <p>Recursive clustering</p>
  * <p>Take a given graph and return a hierarchy of clusters</p>
+ * <p>Protoclusters are processed in generations, i.e. all protoclusters that are currently queued are processed
+ * concurrently. Since every protocluster exclusively owns its cluster, this is safe for all operations that only
+ * affect that cluster's remainder. All other modifications of the cluster tree (i.e. creating new child clusters
+ * and enqueueing new protoclusters) are deferred and applied in queue order once the whole generation has been
+ * processed. Thus, the resulting cluster tree is identical to that of a strictly sequential run. Initial vectors
+ * are drawn from per-protocluster sources derived from the protocluster's position in the tree, such that bisections
+ * do not depend on the order of their execution either.</p>
  */
 
 public class RecursiveClustering {
@@ -32,12 +41,13 @@ public class RecursiveClustering {
   private final ClusteringSettings settings;
   private final SpectralBisector bisector;
   private final VertexAffiliationGuard vertexAffiliationGuard;
-  private final RandomInitialVectorsSource ivSource;
 
   // NOTE: By construction, this type of queue induces the top-town ordering required for determinism
   // and ensures the correct behaviour of vertex affiliation guards
   private final ConcurrentLinkedQueue<Protocluster> queue;
 
+  private ExecutorService executor;
+
   /**
    * Constructor
    *
@@ -52,7 +62,6 @@ public class RecursiveClustering {
     this.queue = new ConcurrentLinkedQueue<>();
     this.vertexAffiliationGuard = new VertexAffiliationGuard(settings.getVertexAffiliationMetric(),
             graph, settings.getMinClusterSize(), settings.getMinVertexAffiliation());
-    this.ivSource = new RandomInitialVectorsSource(settings.getRandomSeed());
   }
 
   public static Cluster run(Graph graph, ClusteringSettings settings) {
@@ -70,48 +79,156 @@ public class RecursiveClustering {
     StopWatch stopWatch = new StopWatch();
     stopWatch.start();
     Cluster root = new Cluster(graph);
-    Protocluster initialProtocluster = new Protocluster(graph, Protocluster.GraphType.ROOT, root);
+    RandomInitialVectorsSource ivSource = new RandomInitialVectorsSource(settings.getRandomSeed());
+    Protocluster initialProtocluster = new Protocluster(graph, Protocluster.GraphType.ROOT, root, ivSource, null);
     queue.add(initialProtocluster);
-    processQueue();
+    graph.weights(); // Make sure the root weights are cached before accessing them from multiple threads
+    startExecutor();
+    try {
+      processQueue();
+    } finally {
+      shutdownExecutor();
+    }
     stopWatch.stop();
     LOG.info("Finished clustering {} vertices after {}", graph.order(), stopWatch);
     return root;
   }
 
+  /**
+   * Start the executor for concurrent protocluster processing. This is also required for sequential runs.
+   * Note that this is a fork/join pool, so that all parallel graph traversals of the individual bisections are
+   * forked into the very same pool and compete for its workers via work stealing. Hence, the configured parallelism
+   * also bounds the number of threads used for traversals.
+   */
+
+  private void startExecutor() {
+    executor = new ForkJoinPool(settings.getParallelism());
+  }
+
+  /**
+   * Shut down the executor (if any)
+   */
+
+  private void shutdownExecutor() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
   /**
    * Process all elements of the recursive clustering task queue until it is exhausted.
    * Depending on type of the protocluster, it is either decomposed into its connected components or subject to
-   * spectral bisection.
+   * spectral bisection. All protoclusters of the same generation are processed concurrently, while the resulting
+   * modifications of the cluster tree are applied in queue order afterwards.
    */
 
   private void processQueue() {
     while (!queue.isEmpty()) {
-      Protocluster protocluster = queue.poll();
-      if (protocluster.getGraphType() == Protocluster.GraphType.COMPONENT) {
-        bisect(protocluster);
-      } else {
-        decomposeComponents(protocluster);
+      List<Callable<List<Runnable>>> tasks = new ArrayList<>(queue.size());
+      for (Protocluster protocluster = queue.poll(); protocluster != null; protocluster = queue.poll()) {
+        tasks.add(createTask(protocluster));
+      }
+      for (List<Runnable> treeOps : execute(tasks)) {
+        treeOps.forEach(Runnable::run);
       }
     }
   }
 
+  /**
+   * Create a processing task for a protocluster
+   *
+   * @param protocluster A protocluster
+   * @return A task returning all deferred cluster tree operations
+   */
+
+  private Callable<List<Runnable>> createTask(Protocluster protocluster) {
+    if (protocluster.getGraphType() == Protocluster.GraphType.COMPONENT) {
+      return () -> bisect(protocluster);
+    } else {
+      return () -> decomposeComponents(protocluster);
+    }
+  }
+
+  /**
+   * Execute all tasks of a protocluster generation using the executor. Note that this includes generations
+   * consisting of a single task, since their traversals would otherwise escape into the shared traversal pool.
+   *
+   * @param tasks Protocluster processing tasks
+   * @return Deferred cluster tree operations of all tasks, in the same order as the tasks themselves
+   */
+
+  private List<List<Runnable>> execute(List<Callable<List<Runnable>>> tasks) {
+    List<List<Runnable>> treeOps = new ArrayList<>(tasks.size());
+    try {
+      for (Future<List<Runnable>> future : executor.invokeAll(tasks)) {
+        treeOps.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ClusteringException(e);
+    } catch (ExecutionException e) {
+      throw new ClusteringException(e.getCause());
+    }
+    return treeOps;
+  }
+
   /**
    * Bisect the protocluster's graph such that the normalized cut is minimized.
    *
    * @param protocluster A protocluster
+   * @return Deferred cluster tree operations
    */
 
-  private void bisect(Protocluster protocluster) {
+  private List<Runnable> bisect(Protocluster protocluster) {
+    List<Runnable> treeOps = new ArrayList<>();
     try {
-      bisector.bisect(protocluster.getGraph(), settings.getMaxIterations(), ivSource, partition -> processPartition(protocluster, partition));
+      List<Graph> partitions = new ArrayList<>(2);
+      double[] v2 = bisector.bisect(protocluster.getGraph(), settings.getMaxIterations(), initialVector(protocluster), partitions::add);
+      for (Graph partition : partitions) {
+        processPartition(protocluster, partition, v2, treeOps);
+      }
     } catch (PowerIterationException e) {
       if (protocluster.getGraph().size() >= settings.getMinClusterSize()) {
-        addTerminalChild(protocluster, protocluster.getGraph());
+        treeOps.add(() -> addTerminalChild(protocluster, protocluster.getGraph()));
       } else {
         protocluster.getCluster().addToRemainder(protocluster.getGraph());
       }
       LOG.debug(String.format("%s. Not clustering any further.", e.getMessage()));
     }
+    return treeOps;
+  }
+
+  /**
+   * Create the initial vector for a protocluster's bisection. If warm starts are enabled and the protocluster carries
+   * its parent's eigenvector, the initial vector is being derived from it. Otherwise, a random vector is being used.
+   *
+   * @param protocluster A protocluster
+   * @return Initial vector
+   */
+
+  private double[] initialVector(Protocluster protocluster) {
+    Graph graph = protocluster.getGraph();
+    if (protocluster.getWarmStartVector() != null) {
+      return SpectralBisector.warmStartVector(graph, protocluster.getWarmStartVector(), protocluster.getIvSource());
+    }
+    return protocluster.getIvSource().generate(graph.order());
+  }
+
+  /**
+   * Restrict a protocluster's eigenvector to one of its subgraphs if warm starts are enabled
+   *
+   * @param protocluster A protocluster
+   * @param vector       Vector indexed by the protocluster graph's local vertex ids or <code>null</code>
+   * @param subgraph     A subgraph of the protocluster graph
+   * @return Restricted vector or <code>null</code>
+   */
+
+  private double[] warmStartVector(Protocluster protocluster, double[] vector, Graph subgraph) {
+    if (!settings.isWarmStart() || vector == null) {
+      return null;
+    }
+    return SpectralBisector.restrict(protocluster.getGraph(), vector, subgraph);
   }
 
   /**
@@ -134,15 +251,17 @@ public class RecursiveClustering {
    *
    * @param protocluster Current protocluster
    * @param partition    Cluster candidate partition
+   * @param v2           Eigenvector that gave rise to the partition
+   * @param treeOps      Deferred cluster tree operations
    */
 
-  private void processPartition(Protocluster protocluster, Graph partition) {
+  private void processPartition(Protocluster protocluster, Graph partition, double[] v2, List<Runnable> treeOps) {
     if (partition.order() < settings.getMinClusterSize() || partition.order() == protocluster.getGraph().order()) {
       protocluster.getCluster().addToRemainder(partition);
     } else {
       Graph guaranteedAffiliationSubgraph = vertexAffiliationGuard.ensure(protocluster.getCluster(), partition);
       if (guaranteedAffiliationSubgraph != null) {
-        processGuaranteedAffiliationSubgraph(protocluster, guaranteedAffiliationSubgraph);
+        processGuaranteedAffiliationSubgraph(protocluster, guaranteedAffiliationSubgraph, v2, treeOps);
       }
     }
   }
@@ -154,14 +273,17 @@ public class RecursiveClustering {
    *
    * @param protocluster                  Protocluster
    * @param guaranteedAffiliationSubgraph Subgraph whose vertices fulfil the min affiliation metric wrt. to the graph
+   * @param v2                            Eigenvector that gave rise to the subgraph
+   * @param treeOps                       Deferred cluster tree operations
    */
 
-  private void processGuaranteedAffiliationSubgraph(Protocluster protocluster, Graph guaranteedAffiliationSubgraph) {
+  private void processGuaranteedAffiliationSubgraph(Protocluster protocluster, Graph guaranteedAffiliationSubgraph, double[] v2, List<Runnable> treeOps) {
     if (guaranteedAffiliationSubgraph.size() > settings.getMinClusterSize()) {
-      enqueueProtocluster(Protocluster.GraphType.SPECTRAL, protocluster.getCluster(), guaranteedAffiliationSubgraph);
+      double[] warmStartVector = warmStartVector(protocluster, v2, guaranteedAffiliationSubgraph);
+      treeOps.add(() -> enqueueProtocluster(Protocluster.GraphType.SPECTRAL, protocluster, guaranteedAffiliationSubgraph, warmStartVector));
     } else {
       Preconditions.checkState(guaranteedAffiliationSubgraph.size() == settings.getMinClusterSize());
-      addTerminalChild(protocluster, guaranteedAffiliationSubgraph);
+      treeOps.add(() -> addTerminalChild(protocluster, guaranteedAffiliationSubgraph));
     }
   }
 
@@ -187,34 +309,39 @@ public class RecursiveClustering {
    * </ol>
    *
    * @param protocluster A protocluster
+   * @return Deferred cluster tree operations
    */
 
-  private void decomposeComponents(Protocluster protocluster) {
+  private List<Runnable> decomposeComponents(Protocluster protocluster) {
+    List<Runnable> treeOps = new ArrayList<>();
     ConnectedComponents.find(protocluster.getGraph(), component -> {
       if (component.order() == protocluster.getGraph().order()) {
         protocluster.setGraphTypeConnectedComponent();
-        queue.add(protocluster);
+        treeOps.add(() -> queue.add(protocluster));
       } else if (component.order() < settings.getMinClusterSize()) {
         protocluster.getCluster().addToRemainder(component);
       } else if (component.order() == settings.getMinClusterSize()) {
-        addTerminalChild(protocluster, component);
+        treeOps.add(() -> addTerminalChild(protocluster, component));
       } else if (component.order() > settings.getMinClusterSize()) {
-        enqueueProtocluster(Protocluster.GraphType.COMPONENT, protocluster.getCluster(), component);
+        double[] warmStartVector = warmStartVector(protocluster, protocluster.getWarmStartVector(), component);
+        treeOps.add(() -> enqueueProtocluster(Protocluster.GraphType.COMPONENT, protocluster, component, warmStartVector));
       }
     });
+    return treeOps;
   }
 
   /**
    * Insert a new protocluster into the queue
    *
-   * @param graphType Type of the graph for the new protocluster
-   * @param parent    Parent cluster
-   * @param subgraph  Protocluster graph
+   * @param graphType       Type of the graph for the new protocluster
+   * @param parent          Parent protocluster
+   * @param subgraph        Protocluster graph
+   * @param warmStartVector Restriction of the parent's eigenvector to the subgraph or <code>null</code>
    */
 
-  private void enqueueProtocluster(Protocluster.GraphType graphType, Cluster parent, Graph subgraph) {
-    Cluster childCluster = new Cluster(parent);
-    Protocluster protocluster = new Protocluster(subgraph, graphType, childCluster);
+  private void enqueueProtocluster(Protocluster.GraphType graphType, Protocluster parent, Graph subgraph, double[] warmStartVector) {
+    Cluster childCluster = new Cluster(parent.getCluster());
+    Protocluster protocluster = new Protocluster(subgraph, graphType, childCluster, parent.deriveIvSource(), warmStartVector);
     queue.add(protocluster);
   }
 
@@ -58,8 +58,10 @@ public class VertexAffiliationGuard {
       if (survivors.size() < minClusterSize) {
         parentCluster.addToRemainder(survivors.iterator());
         return null;
-      } else if (survivors.size() == minClusterSize || survivors.size() == prevSize) {
+      } else if (survivors.size() == prevSize) {
         return subgraph;
+      } else if (survivors.size() == minClusterSize) {
+        return graph.inducedSubgraph(survivors.iterator());
       }
     }
   }
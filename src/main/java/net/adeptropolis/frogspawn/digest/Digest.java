@@ -5,6 +5,7 @@
 
 package net.adeptropolis.frogspawn.digest;
 
+import java.util.function.IntFunction;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -107,4 +108,20 @@ public class Digest {
             .mapToObj(i -> mapper.map(labels[vertices[i]], weights[i], scores[i]));
   }
 
+  /**
+   * Provides a stream of custom digest members for a labeled graph, resolving labels on demand. This allows for label
+   * storages that don't hold individual label objects, e.g. <code>labeledGraph::getLabel</code>.
+   *
+   * @param mapper Mapping between cluster digest vertices and custom cluster member objects
+   * @param labels Lookup function for vertex labels
+   * @param <V>    Type of the custom cluster member objects
+   * @param <T>    Mapping result type
+   * @return Custom cluster member object
+   */
+
+  public <V, T> Stream<T> map(LabeledDigestMapping<V, T> mapper, IntFunction<V> labels) {
+    return IntStream.range(0, size())
+            .mapToObj(i -> mapper.map(labels.apply(vertices[i]), weights[i], scores[i]));
+  }
+
 }
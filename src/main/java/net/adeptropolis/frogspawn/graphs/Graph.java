@@ -8,6 +8,9 @@ package net.adeptropolis.frogspawn.graphs;
 import it.unimi.dsi.fastutil.ints.IntIterator;
 import net.adeptropolis.frogspawn.graphs.traversal.*;
 
+import java.nio.LongBuffer;
+import java.util.function.Supplier;
+
 /**
  * <p>A weighted graph supporting all basic operations required in this context, i.e.</p>
  * <ul>
@@ -74,6 +77,20 @@ public abstract class Graph {
 
   public abstract void traverseIncidentEdges(int v, EdgeConsumer consumer, TraversalMode mode);
 
+  /**
+   * <p>Cumulative edge traversal costs, i.e. a read-only buffer of size <code>order() + 1</code> whose i-th entry holds
+   * the (estimated) cost of traversing the incident edges of all vertices with local ids <code>&lt; i</code>. Since
+   * implementations may return a view of their internal storage, the buffer is never writable.</p>
+   * <p>Used for splitting parallel edge traversals into tasks of equal workload. Implementations that are unable
+   * to provide such estimates return <code>null</code>, in which case all vertices are assumed to be equally expensive.</p>
+   *
+   * @return Cumulative traversal costs or <code>null</code>
+   */
+
+  public LongBuffer traversalCosts() {
+    return null;
+  }
+
   /**
    * Parallel traversal over all edges of the graph
    *
@@ -105,6 +122,51 @@ public abstract class Graph {
     ParallelVertexOps.traverse(this, consumer);
   }
 
+  /**
+   * Parallel row-wise reduction over all edges of the graph
+   *
+   * @param reducer Instance of RowReducer
+   * @return Sum of all values returned by {@link RowReducer#reduceRow(int)}
+   */
+
+  public double reduceRowsParallel(RowReducer reducer) {
+    return ParallelEdgeOps.reduce(this, reducer, TraversalMode.DEFAULT);
+  }
+
+  /**
+   * Parallel traversal over all edges of the graph that accumulates an arbitrary result per traversal task
+   *
+   * @param accumulators Supplier of new, empty accumulators
+   * @param <A>          Accumulator type
+   * @return Accumulator holding the merged result of all vertices
+   */
+
+  public <A extends EdgeAccumulator<A>> A accumulateParallel(Supplier<A> accumulators) {
+    return ParallelEdgeOps.accumulate(this, accumulators, TraversalMode.DEFAULT);
+  }
+
+  /**
+   * Parallel reduction over all vertices of the graph
+   *
+   * @param reducer Instance of VertexReducer
+   * @return Sum of all values returned by the reducer
+   */
+
+  public double reduceVerticesParallel(VertexReducer reducer) {
+    return ParallelVertexOps.reduce(this, reducer);
+  }
+
+  /**
+   * Parallel reduction over all vertices of the graph, one range of local vertex ids at a time
+   *
+   * @param reducer Instance of VertexRangeReducer
+   * @return Sum of all values returned by the reducer
+   */
+
+  public double reduceVertexRangesParallel(VertexRangeReducer reducer) {
+    return ParallelVertexOps.reduceRanges(this, reducer);
+  }
+
   /**
    * Translate between global and local vertex ids
    *
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.algorithms;
+
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraphBuilder;
+import net.adeptropolis.frogspawn.graphs.implementations.GraphBuildSettings;
+import net.adeptropolis.frogspawn.graphs.traversal.EdgeConsumer;
+import net.adeptropolis.frogspawn.graphs.traversal.TraversalMode;
+
+import java.util.Arrays;
+
+/**
+ * <p>A single coarsening step of a graph by heavy-edge matching</p>
+ * <p>Every vertex is being matched with its unmatched neighbour of maximum edge weight (if any), and each matched pair
+ * is being contracted into a single coarse vertex. Edges between contracted vertices are being summed up, and edges
+ * within a pair become self-loops, such that the weight of every coarse vertex equals the total weight of its fine
+ * vertices.</p>
+ * <p>Vectors are being transferred between both levels in the space of the normalized laplacian, i.e. using the
+ * interpolation matrix <code>P[v, c] = sqrt(w(v) / W(c))</code> for fine vertices <code>v</code> contracted into
+ * coarse vertex <code>c</code>. The columns of <code>P</code> are orthonormal, <code>P</code> maps the coarse graph's
+ * trivial eigenvector onto the fine one and the coarse graph's normalized adjacency is exactly the Galerkin projection
+ * of the fine graph's normalized adjacency.</p>
+ */
+
+public class Coarsening {
+
+  private final Graph graph;
+  private final Graph coarseGraph;
+  private final int[] mapping;
+  private final int[] members;
+
+  /**
+   * Constructor
+   *
+   * @param graph       The fine graph
+   * @param coarseGraph The coarse graph
+   * @param mapping     Coarse vertex for every local vertex of the fine graph
+   * @param members     Fine vertices of every coarse vertex (see {@link #members(int[])})
+   */
+
+  private Coarsening(Graph graph, Graph coarseGraph, int[] mapping, int[] members) {
+    this.graph = graph;
+    this.coarseGraph = coarseGraph;
+    this.mapping = mapping;
+    this.members = members;
+  }
+
+  /**
+   * Coarsen a graph by heavy-edge matching
+   *
+   * @param graph The input graph
+   * @return The coarsening
+   */
+
+  public static Coarsening heavyEdgeMatching(Graph graph) {
+    int[] mapping = match(graph);
+    int[] members = members(mapping);
+    RowContraction contraction = new RowContraction(graph, mapping, members);
+    long coarseSize = 0;
+    for (int c = 0; c < contraction.coarseOrder(); c++) {
+      coarseSize += contraction.contract(c);
+    }
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(Math.max(1L, coarseSize), 0d)
+            .withSettings(GraphBuildSettings.builder().withVerboseLogging(false).build());
+    for (int c = 0; c < contraction.coarseOrder(); c++) {
+      contraction.contract(c);
+      contraction.emit(builder);
+    }
+    return new Coarsening(graph, builder.build(), mapping, members);
+  }
+
+  /**
+   * Compute a heavy-edge matching of the graph's vertices
+   *
+   * @param graph The input graph
+   * @return Consecutive coarse vertex ids for all local vertices of the graph
+   */
+
+  private static int[] match(Graph graph) {
+    int[] mapping = new int[graph.order()];
+    Arrays.fill(mapping, -1);
+    HeaviestUnmatchedNeighbour neighbour = new HeaviestUnmatchedNeighbour(mapping);
+    int coarseOrder = 0;
+    for (int u = 0; u < graph.order(); u++) {
+      if (mapping[u] >= 0) {
+        continue;
+      }
+      neighbour.reset();
+      graph.traverseIncidentEdges(u, neighbour, TraversalMode.DEFAULT);
+      mapping[u] = coarseOrder;
+      if (neighbour.vertex >= 0) {
+        mapping[neighbour.vertex] = coarseOrder;
+      }
+      coarseOrder++;
+    }
+    return mapping;
+  }
+
+  /**
+   * Invert a matching. Since vertices are being matched in ascending order with neighbours that have not been matched
+   * before, the fine vertices of every coarse vertex are in ascending order as well.
+   *
+   * @param mapping Coarse vertex for every local vertex of the fine graph
+   * @return Array holding the (up to two) fine vertices of coarse vertex <code>c</code> at indices <code>2c</code> and
+   * <code>2c + 1</code>. Unused entries are -1.
+   */
+
+  private static int[] members(int[] mapping) {
+    int coarseOrder = 0;
+    for (int c : mapping) {
+      coarseOrder = Math.max(coarseOrder, c + 1);
+    }
+    int[] members = new int[2 * coarseOrder];
+    Arrays.fill(members, -1);
+    for (int v = 0; v < mapping.length; v++) {
+      members[members[2 * mapping[v]] < 0 ? 2 * mapping[v] : 2 * mapping[v] + 1] = v;
+    }
+    return members;
+  }
+
+  /**
+   * @return The fine graph
+   */
+
+  public Graph getGraph() {
+    return graph;
+  }
+
+  /**
+   * @return The coarse graph
+   */
+
+  public Graph getCoarseGraph() {
+    return coarseGraph;
+  }
+
+  /**
+   * Transfer a vector from the fine graph to the coarse graph (<code>P<sup>T</sup>x</code>)
+   *
+   * @param vector Vector, indexed by the fine graph's local vertex ids
+   * @return Vector, indexed by the coarse graph's vertex ids
+   */
+
+  public double[] restrict(double[] vector) {
+    double[] weights = graph.weights();
+    double[] coarseWeights = coarseGraph.weights();
+    double[] restricted = new double[coarseGraph.order()];
+    coarseGraph.traverseVerticesParallel(c -> {
+      double sum = 0;
+      for (int i = 2 * c; i < 2 * c + 2 && members[i] >= 0; i++) {
+        sum += Math.sqrt(weights[members[i]] / coarseWeights[c]) * vector[members[i]];
+      }
+      restricted[c] = sum;
+    });
+    return restricted;
+  }
+
+  /**
+   * Transfer a vector from the coarse graph to the fine graph (<code>Py</code>)
+   *
+   * @param vector Vector, indexed by the coarse graph's vertex ids
+   * @return Vector, indexed by the fine graph's local vertex ids
+   */
+
+  public double[] prolong(double[] vector) {
+    double[] weights = graph.weights();
+    double[] coarseWeights = coarseGraph.weights();
+    double[] prolonged = new double[graph.order()];
+    graph.traverseVerticesParallel(v -> prolonged[v] = Math.sqrt(weights[v] / coarseWeights[mapping[v]]) * vector[mapping[v]]);
+    return prolonged;
+  }
+
+  /**
+   * <p>Internal: Contracts the incident edges of all fine vertices of a coarse vertex into a single coarse row</p>
+   * <p>Edges to the same coarse neighbour are being summed up before they reach the builder, so the builder only
+   * needs to hold the (much smaller) coarse edge set. Contracting all rows once without emitting them yields the
+   * exact size of that set.</p>
+   */
+
+  private static class RowContraction implements EdgeConsumer {
+
+    private final Graph graph;
+    private final int[] mapping;
+    private final int[] members;
+    private final double[] sums;
+    private final int[] stamps;
+    private final int[] neighbours;
+    private int row;
+    private int stamp;
+    private int count;
+
+    RowContraction(Graph graph, int[] mapping, int[] members) {
+      this.graph = graph;
+      this.mapping = mapping;
+      this.members = members;
+      int coarseOrder = members.length / 2;
+      this.sums = new double[coarseOrder];
+      this.stamps = new int[coarseOrder];
+      this.neighbours = new int[coarseOrder];
+    }
+
+    int coarseOrder() {
+      return sums.length;
+    }
+
+    /**
+     * Sum up the incident edges of all fine vertices of a coarse vertex by coarse neighbour
+     *
+     * @param c Coarse vertex
+     * @return Number of distinct coarse neighbours
+     */
+
+    int contract(int c) {
+      row = c;
+      stamp++;
+      count = 0;
+      for (int i = 2 * c; i < 2 * c + 2 && members[i] >= 0; i++) {
+        graph.traverseIncidentEdges(members[i], this, TraversalMode.DEFAULT);
+      }
+      return count;
+    }
+
+    /**
+     * Add the most recently contracted row to a builder
+     *
+     * @param builder Graph builder
+     */
+
+    void emit(CompressedSparseGraphBuilder builder) {
+      for (int i = 0; i < count; i++) {
+        builder.addDirected(row, neighbours[i], sums[neighbours[i]]);
+      }
+    }
+
+    @Override
+    public void accept(int u, int v, double weight) {
+      int c = mapping[v];
+      if (stamps[c] != stamp) {
+        stamps[c] = stamp;
+        sums[c] = 0;
+        neighbours[count++] = c;
+      }
+      sums[c] += weight;
+    }
+
+  }
+
+  /**
+   * Internal: Finds the heaviest unmatched neighbour of a vertex
+   */
+
+  private static class HeaviestUnmatchedNeighbour implements EdgeConsumer {
+
+    private final int[] mapping;
+    private int vertex;
+    private double weight;
+
+    HeaviestUnmatchedNeighbour(int[] mapping) {
+      this.mapping = mapping;
+    }
+
+    void reset() {
+      vertex = -1;
+      weight = Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public void accept(int u, int v, double weight) {
+      if (u != v && mapping[v] < 0 && weight > this.weight) {
+        this.vertex = v;
+        this.weight = weight;
+      }
+    }
+
+  }
+
+}
@@ -7,12 +7,22 @@ package net.adeptropolis.frogspawn.graphs.algorithms;
 
 import net.adeptropolis.frogspawn.ClusteringSettings;
 import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.ConvergenceCriterion;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.PartialConvergenceCriterion;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.PowerIteration;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.PowerIterationException;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.RandomInitialVectorsSource;
+import net.adeptropolis.frogspawn.graphs.implementations.CompressedInducedSparseSubgraph;
+import net.adeptropolis.frogspawn.graphs.implementations.GapCompressedInducedSubgraph;
+import net.adeptropolis.frogspawn.graphs.implementations.MaterializedSubgraph;
 import net.adeptropolis.frogspawn.graphs.operators.SSNLOperator;
+import net.adeptropolis.frogspawn.helpers.Vectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 
 public class SpectralBisector {
@@ -22,6 +32,13 @@ public class SpectralBisector {
    * <p>The original graph will be split into two partitions such that the normalized cut is minimized</p>
    */
 
+  private static final Logger LOG = LoggerFactory.getLogger(SpectralBisector.class.getSimpleName());
+  private static final double WARM_START_NOISE = 0.1;
+  private static final int COARSEST_ORDER = 256;
+  private static final double MAX_COARSENING_RATIO = 0.9;
+  private static final int REFINEMENT_ITERATIONS = 5;
+  private static final double MIN_WARM_START_NORM = 1E-6;
+
   private final ClusteringSettings settings;
 
   public SpectralBisector(ClusteringSettings settings) {
@@ -42,6 +59,25 @@ public class SpectralBisector {
     consumer.accept(graph.localInducedSubgraph(vertices));
   }
 
+  /**
+   * Select the graph representation used within the power iterations. Induced subgraphs are materialized if they
+   * fit into the configured memory budget.
+   *
+   * @param graph The input graph
+   * @return Either a materialized copy of the graph or the graph itself
+   */
+
+  private Graph operatorGraph(Graph graph) {
+    boolean induced = graph instanceof CompressedInducedSparseSubgraph || graph instanceof GapCompressedInducedSubgraph;
+    if (induced && settings.getMaterializationBudget() > 0) {
+      MaterializedSubgraph materialized = MaterializedSubgraph.materialize(graph, settings.getMaterializationBudget());
+      if (materialized != null) {
+        return materialized;
+      }
+    }
+    return graph;
+  }
+
   /**
    * Bisects the given graph into two partitons
    *
@@ -49,17 +85,144 @@ public class SpectralBisector {
    * @param maxIterations Maximum number of iterations
    * @param ivSource      Source for random initial vectors
    * @param consumer      A consumer for the resulting partitions
+   * @return The approximate eigenvector prior to postprocessing
+   * @throws PowerIteration.MaxIterationsExceededException if the number of iterations has been exceeded
+   */
+
+  public double[] bisect(Graph graph, int maxIterations, RandomInitialVectorsSource ivSource, Consumer<Graph> consumer) throws PowerIterationException {
+    return bisect(graph, maxIterations, ivSource.generate(graph.order()), consumer);
+  }
+
+  /**
+   * Bisects the given graph into two partitons, starting the configured eigensolver from a given initial vector
+   *
+   * @param graph         The input graph
+   * @param maxIterations Maximum number of iterations
+   * @param iv            Initial vector. Must satisfy <code>||iv|| = 1</code>
+   * @param consumer      A consumer for the resulting partitions
+   * @return The approximate eigenvector prior to postprocessing
    * @throws PowerIteration.MaxIterationsExceededException if the number of iterations has been exceeded
    */
 
-  public void bisect(Graph graph, int maxIterations, RandomInitialVectorsSource ivSource, Consumer<Graph> consumer) throws PowerIterationException {
+  public double[] bisect(Graph graph, int maxIterations, double[] iv, Consumer<Graph> consumer) throws PowerIterationException {
     PartialConvergenceCriterion convergenceCriterion = settings.convergenceCriterionForGraph(graph);
-    SSNLOperator ssnl = new SSNLOperator(graph);
-    double[] iv = ivSource.generate(graph.order());
-    double[] v2 = PowerIteration.apply(ssnl, convergenceCriterion, iv, maxIterations, false);
-    convergenceCriterion.postprocess(v2);
-    yieldSubgraph(graph, v2, consumer, 1);
-    yieldSubgraph(graph, v2, consumer, -1);
+    if (settings.getMultilevelThreshold() > 0 && graph.order() >= settings.getMultilevelThreshold()) {
+      iv = multilevelVector(graph, iv, maxIterations);
+    }
+    SSNLOperator ssnl = new SSNLOperator(operatorGraph(graph));
+    double[] v2 = settings.getEigenSolver().apply(ssnl, convergenceCriterion, iv, maxIterations);
+    double[] partitions = Arrays.copyOf(v2, v2.length);
+    convergenceCriterion.postprocess(partitions);
+    yieldSubgraph(graph, partitions, consumer, 1);
+    yieldSubgraph(graph, partitions, consumer, -1);
+    return v2;
+  }
+
+  /**
+   * <p>Compute an initial vector for the bisection of a large graph using a multilevel scheme.</p>
+   * <p>The graph is being coarsened by heavy-edge matching until it is small enough or until either its number of
+   * vertices or edges stops shrinking substantially. The configured eigensolver is then being applied to the coarsest
+   * graph, starting from the restriction of the given initial vector. Its result is being prolonged level by level and
+   * refined with a few iterations of the respective level's operator. Since all levels except the finest one are much
+   * smaller than the graph itself, this only costs a fraction of the final solve, which in turn starts from an almost
+   * converged vector.</p>
+   * <p>If the solver fails to converge on the coarsest graph, the given initial vector is being returned unchanged.</p>
+   *
+   * @param graph         The input graph
+   * @param iv            Initial vector. Must satisfy <code>||iv|| = 1</code>
+   * @param maxIterations Maximum number of iterations for the coarsest graph
+   * @return A new initial vector <code>x</code> with <code>||x|| = 1</code>
+   * @throws PowerIteration.MaxIterationsExceededException if a refinement step exceeds its number of iterations
+   */
+
+  private double[] multilevelVector(Graph graph, double[] iv, int maxIterations) throws PowerIteration.MaxIterationsExceededException {
+    List<Coarsening> levels = new ArrayList<>();
+    Graph coarsest = graph;
+    double[] coarseVector = iv;
+    while (coarsest.order() > COARSEST_ORDER) {
+      Coarsening coarsening = Coarsening.heavyEdgeMatching(coarsest);
+      Graph coarseGraph = coarsening.getCoarseGraph();
+      if (coarseGraph.order() > MAX_COARSENING_RATIO * coarsest.order() || coarseGraph.size() > MAX_COARSENING_RATIO * coarsest.size()) {
+        break;
+      }
+      levels.add(coarsening);
+      coarsest = coarseGraph;
+      coarseVector = coarsening.restrict(coarseVector);
+    }
+    if (levels.isEmpty()) {
+      return iv;
+    }
+    LOG.debug("Coarsened graph of order {} to {} in {} levels", graph.order(), coarsest.order(), levels.size());
+    double[] vector;
+    try {
+      Vectors.normalize2(coarseVector);
+      vector = settings.getEigenSolver().apply(new SSNLOperator(coarsest),
+              settings.convergenceCriterionForGraph(coarsest), coarseVector, maxIterations);
+    } catch (PowerIteration.MaxIterationsExceededException e) {
+      LOG.debug("Multilevel bisection did not converge on coarsest graph. Falling back to initial vector.");
+      return iv;
+    }
+    ConvergenceCriterion refinementCriterion = (previous, current, iterations) -> iterations + 1 >= REFINEMENT_ITERATIONS;
+    for (int level = levels.size() - 1; level >= 0; level--) {
+      vector = levels.get(level).prolong(vector);
+      Vectors.normalize2(vector);
+      if (level > 0) {
+        vector = PowerIteration.apply(new SSNLOperator(levels.get(level).getGraph()), refinementCriterion, vector,
+                REFINEMENT_ITERATIONS, false);
+      }
+    }
+    return vector;
+  }
+
+  /**
+   * <p>Create an initial vector for a subgraph from the eigenvector of its parent partition (warm start).</p>
+   * <p>The restriction of the parent's eigenvector to a partition has constant sign, i.e. it is dominated by the
+   * partition's trivial eigenvector. Hence, the latter is being deflated from the restriction. A small amount of random
+   * noise is being added to ensure that the result is not orthogonal to the partition's own second eigenvector. If
+   * nothing remains after deflation, this falls back to a random vector.</p>
+   *
+   * @param graph      The input graph
+   * @param restricted Restriction of the parent's eigenvector to the graph (see {@link #restrict(Graph, double[], Graph)})
+   * @param ivSource   Source for random initial vectors
+   * @return A new initial vector <code>iv</code> with <code>||iv|| = 1</code>
+   */
+
+  public static double[] warmStartVector(Graph graph, double[] restricted, RandomInitialVectorsSource ivSource) {
+    double[] noise = ivSource.generate(graph.order());
+    double[] weights = graph.weights();
+    double norm = Math.sqrt(graph.totalWeight());
+    double projection = 0;
+    for (int i = 0; i < graph.order(); i++) {
+      projection += restricted[i] * Math.sqrt(weights[i]) / norm;
+    }
+    double[] iv = new double[graph.order()];
+    for (int i = 0; i < graph.order(); i++) {
+      iv[i] = restricted[i] - projection * Math.sqrt(weights[i]) / norm;
+    }
+    double deflatedNorm = Vectors.norm2(iv);
+    if (!(deflatedNorm > MIN_WARM_START_NORM)) {
+      return noise;
+    }
+    for (int i = 0; i < graph.order(); i++) {
+      iv[i] = iv[i] / deflatedNorm + WARM_START_NOISE * noise[i];
+    }
+    Vectors.normalize2(iv);
+    return iv;
+  }
+
+  /**
+   * Restrict a vertex-indexed vector to the vertices of a subgraph
+   *
+   * @param graph    A graph
+   * @param vector   Vector, indexed by the graph's local vertex ids
+   * @param subgraph A subgraph of the graph
+   * @return Vector, indexed by the subgraph's local vertex ids
+   */
+
+  public static double[] restrict(Graph graph, double[] vector, Graph subgraph) {
+    double[] restricted = new double[subgraph.order()];
+    subgraph.traverseVerticesParallel(i -> restricted[i] = vector[graph.localVertexId(subgraph.globalVertexId(i))]);
+    return restricted;
   }
 
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.algorithms.power_iteration;
+
+import com.google.common.base.Preconditions;
+import net.adeptropolis.frogspawn.graphs.operators.LinearGraphOperator;
+import net.adeptropolis.frogspawn.graphs.operators.SSNLOperator;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Chebyshev-accelerated power iteration</p>
+ * <p>Instead of repeatedly applying the operator itself, this variant applies Chebyshev polynomials of the operator that
+ * are bounded by 1 on a damping interval <code>[lowerBound, b]</code> and grow rapidly beyond. The lower bound is known a
+ * priori (see {@link SSNLOperator#SPECTRUM_LOWER_BOUND}). Since the Rayleigh quotient never exceeds the largest
+ * eigenvalue, <code>b</code> is being placed slightly below the Rayleigh quotient at the beginning of each filter cycle.
+ * Hence, the eigenvector of the largest eigenvalue always lies outside of the damping interval and is being amplified
+ * much faster than by the plain power method.</p>
+ * <p>The three-term recurrence is being scaled with the known upper bound of the spectrum to prevent overflows. Every
+ * intermediate result of the recurrence is a filtered version of the cycle's start vector, so it is being normalized and
+ * passed to the convergence criterion after each operator application.</p>
+ * <p>The recurrence and the normalization run as parallel traversals over the vertices of the operator's graph (see
+ * {@link LinearGraphOperator#getGraph()}).</p>
+ */
+
+public class ChebyshevIteration implements EigenSolver {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ChebyshevIteration.class.getSimpleName());
+  private static final int DEFAULT_DEGREE = 8;
+  private static final double DAMPING_FRACTION = 0.95;
+  private static final double MIN_DAMPING_WIDTH = 1E-3;
+
+  private final int degree;
+  private final double lowerBound;
+  private final double upperBound;
+
+  /**
+   * Constructor
+   *
+   * @param degree     Polynomial degree, i.e. the number of operator applications per filter cycle
+   * @param lowerBound Lower bound of the operator's spectrum
+   * @param upperBound Upper bound of the operator's spectrum
+   */
+
+  public ChebyshevIteration(int degree, double lowerBound, double upperBound) {
+    Preconditions.checkArgument(degree > 0, "Degree must be positive");
+    Preconditions.checkArgument(lowerBound < upperBound, "Lower bound must be less than upper bound");
+    this.degree = degree;
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+  }
+
+  /**
+   * Constructor for operators with the spectral bounds of {@link SSNLOperator}
+   *
+   * @param degree Polynomial degree, i.e. the number of operator applications per filter cycle
+   */
+
+  public ChebyshevIteration(int degree) {
+    this(degree, SSNLOperator.SPECTRUM_LOWER_BOUND, SSNLOperator.SPECTRUM_UPPER_BOUND);
+  }
+
+  /**
+   * Default constructor for operators with the spectral bounds of {@link SSNLOperator}
+   */
+
+  public ChebyshevIteration() {
+    this(DEFAULT_DEGREE);
+  }
+
+  /**
+   * <p>Apply Chebyshev-filtered power iteration to a symmetric operator to find the eigenvector associated with its
+   * largest eigenvalue</p>
+   * <p>The initial vector needs to satisfy ||x|| = 1</p>
+   *
+   * @param op                   The operator. Must be symmetric and have its spectrum within the configured bounds
+   * @param convergenceCriterion A given convergence criterion for the iteration
+   * @param initialVector        Initial vector for the iteration
+   * @param maxIterations        Maximum number of operator applications
+   * @return The converged eigenvector
+   * @throws PowerIteration.MaxIterationsExceededException If the maximum number of iterations has been exceeded
+   */
+
+  @Override
+  public double[] apply(LinearGraphOperator op, ConvergenceCriterion convergenceCriterion, double[] initialVector,
+                        int maxIterations) throws PowerIteration.MaxIterationsExceededException {
+    int n = op.size();
+    ParallelVectors vectors = new ParallelVectors(op);
+    double[] x = new double[n];
+    double[] y = new double[n];
+    double[] z = new double[n];
+    double[] previous = new double[n];
+    double[] current = initialVector.clone();
+    StopWatch stopWatch = new StopWatch();
+    stopWatch.start();
+    int iterations = 0;
+    while (true) {
+      vectors.copy(current, x);
+      double sigma = 0;
+      double sigma1 = 0;
+      double c = 0;
+      double e = 0;
+      for (int k = 1; k <= degree; k++) {
+        if (iterations >= maxIterations) {
+          throw new PowerIteration.MaxIterationsExceededException(String.format("Exceeded maximum number of iterations (%d)", maxIterations));
+        }
+        if (k == 1) {
+          double[] ax = op.apply(x);
+          double rho = vectors.scalarProduct(x, ax);
+          double b = lowerBound + Math.max(DAMPING_FRACTION * (rho - lowerBound), MIN_DAMPING_WIDTH * (upperBound - lowerBound));
+          c = (b + lowerBound) / 2;
+          e = (b - lowerBound) / 2;
+          sigma1 = e / (upperBound - c);
+          sigma = sigma1;
+          firstStep(vectors, ax, x, y, c, e, sigma1);
+        } else {
+          double sigma2 = 1 / (2 / sigma1 - sigma);
+          double[] ay = op.apply(y);
+          nextStep(vectors, ay, x, y, z, c, e, sigma, sigma2);
+          double[] tmp = x;
+          x = y;
+          y = z;
+          z = tmp;
+          sigma = sigma2;
+        }
+        double[] tmp = previous;
+        previous = current;
+        current = tmp;
+        normalize(vectors, y, current);
+        if (convergenceCriterion.satisfied(previous, current, iterations++)) {
+          stopWatch.stop();
+          LOG.trace("Chebyshev iteration for operator size {} finished after {} rounds in {}", n, iterations, stopWatch);
+          return current;
+        }
+      }
+    }
+  }
+
+  /**
+   * First step of the scaled recurrence: <code>y = (Ax - cx) * sigma1 / e</code>
+   *
+   * @param vectors Vector kernels of the operator
+   * @param ax      Operator applied to <code>x</code>
+   * @param x       Start vector of the filter cycle
+   * @param y       Output buffer
+   * @param c       Center of the damping interval
+   * @param e       Half width of the damping interval
+   * @param sigma1  Scaling factor of the first step
+   */
+
+  private static void firstStep(ParallelVectors vectors, double[] ax, double[] x, double[] y, double c, double e,
+                                double sigma1) {
+    vectors.reduce((from, to) -> {
+      for (int i = from; i < to; i++) {
+        y[i] = (ax[i] - c * x[i]) * sigma1 / e;
+      }
+      return 0;
+    });
+  }
+
+  /**
+   * Subsequent step of the scaled recurrence: <code>z = 2 * sigma2 / e * (Ay - cy) - sigma * sigma2 * x</code>
+   *
+   * @param vectors Vector kernels of the operator
+   * @param ay      Operator applied to <code>y</code>
+   * @param x       Second to last result of the recurrence
+   * @param y       Last result of the recurrence
+   * @param z       Output buffer
+   * @param c       Center of the damping interval
+   * @param e       Half width of the damping interval
+   * @param sigma   Scaling factor of the last step
+   * @param sigma2  Scaling factor of this step
+   */
+
+  private static void nextStep(ParallelVectors vectors, double[] ay, double[] x, double[] y, double[] z, double c,
+                               double e, double sigma, double sigma2) {
+    vectors.reduce((from, to) -> {
+      for (int i = from; i < to; i++) {
+        z[i] = 2 * sigma2 / e * (ay[i] - c * y[i]) - sigma * sigma2 * x[i];
+      }
+      return 0;
+    });
+  }
+
+  /**
+   * Write the normalized version of a vector into a given buffer
+   *
+   * @param vectors Vector kernels of the operator
+   * @param source  A vector
+   * @param target  Target buffer
+   */
+
+  private static void normalize(ParallelVectors vectors, double[] source, double[] target) {
+    double scale = 1.0 / Math.sqrt(vectors.scalarProduct(source, source));
+    vectors.reduce((from, to) -> {
+      for (int i = from; i < to; i++) {
+        target[i] = source[i] * scale;
+      }
+      return 0;
+    });
+  }
+
+  /**
+   * @return Solver name and parameters
+   */
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+            .append("degree", degree)
+            .append("lowerBound", lowerBound)
+            .append("upperBound", upperBound)
+            .build();
+  }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.algorithms.power_iteration;
+
+import net.adeptropolis.frogspawn.graphs.operators.LinearGraphOperator;
+
+/**
+ * <p>Iterative solver for the eigenvector associated with the largest eigenvalue of a symmetric operator</p>
+ * <p>Implementations must pass every intermediate approximation to the convergence criterion and count one iteration
+ * per operator application, such that partial convergence criteria and iteration limits keep their meaning.</p>
+ *
+ * @see PowerIteration#SOLVER
+ * @see LanczosIteration
+ * @see ChebyshevIteration
+ */
+
+@FunctionalInterface
+public interface EigenSolver {
+
+  /**
+   * Find the eigenvector associated with the operator's largest eigenvalue
+   *
+   * @param op                   The operator
+   * @param convergenceCriterion A given convergence criterion for the iteration
+   * @param initialVector        Initial vector for the iteration. Must satisfy <code>||x|| = 1</code>
+   * @param maxIterations        Maximum number of operator applications
+   * @return The converged eigenvector
+   * @throws PowerIteration.MaxIterationsExceededException If the maximum number of iterations has been exceeded
+   */
+
+  double[] apply(LinearGraphOperator op, ConvergenceCriterion convergenceCriterion, double[] initialVector,
+                 int maxIterations) throws PowerIteration.MaxIterationsExceededException;
+
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.algorithms.power_iteration;
+
+import net.adeptropolis.frogspawn.graphs.operators.LinearGraphOperator;
+import net.adeptropolis.frogspawn.helpers.Vectors;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p>Explicitly restarted Lanczos iteration</p>
+ * <p>Builds an orthonormal basis of the Krylov subspace spanned by the initial vector and its images under the operator
+ * (with full reorthogonalization). After every operator application (or every <code>ritzInterval</code> applications),
+ * the Ritz vector belonging to the largest Ritz value is being passed to the convergence criterion, just like the
+ * intermediate results of {@link PowerIteration}.
+ * Ritz vector signs are being aligned with the previous one, so sign-trail criteria keep working. Once the basis is
+ * full, the iteration restarts from the current Ritz vector. If a restart vector turns out to be an eigenvector that does
+ * not (yet) satisfy the convergence criterion, the iteration restarts from a slightly perturbed copy of it instead.
+ * Perturbations are drawn from a fixed seed, so results remain reproducible.</p>
+ * <p>Compared to the power method, the convergence rate depends on the square root of the relative eigenvalue gap, which
+ * substantially reduces the number of operator applications for weakly separated graphs. On the downside, every
+ * invocation of this solver requires memory for <code>basisSize + 2</code> vectors, which are being allocated once and
+ * reused across restarts.</p>
+ * <p>All vector operations (reorthogonalization, Ritz vector expansion, scaling) run as parallel traversals over the
+ * vertices of the operator's graph (see {@link LinearGraphOperator#getGraph()}).</p>
+ */
+
+public class LanczosIteration implements EigenSolver {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LanczosIteration.class.getSimpleName());
+  private static final int DEFAULT_BASIS_SIZE = 16;
+  private static final double BREAKDOWN_THRESHOLD = 1E-12;
+  private static final int MAX_JACOBI_SWEEPS = 64;
+  private static final double PERTURBATION = 1E-3;
+  private static final long PERTURBATION_SEED = 4711L;
+
+  private final int basisSize;
+  private final int ritzInterval;
+
+  /**
+   * Constructor
+   *
+   * @param basisSize    Maximum number of Krylov basis vectors before restarting. Must be at least 2.
+   * @param ritzInterval Number of operator applications between two evaluations of the convergence criterion. Ritz
+   *                     vectors are always being evaluated before restarts. Note that sign-trail criteria count
+   *                     evaluations, not operator applications, so larger intervals trade per-step overhead for
+   *                     a later detection of convergence.
+   */
+
+  public LanczosIteration(int basisSize, int ritzInterval) {
+    this.basisSize = Math.max(2, basisSize);
+    this.ritzInterval = Math.max(1, ritzInterval);
+  }
+
+  /**
+   * Constructor. Evaluates the convergence criterion after every operator application.
+   *
+   * @param basisSize Maximum number of Krylov basis vectors before restarting. Must be at least 2.
+   */
+
+  public LanczosIteration(int basisSize) {
+    this(basisSize, 1);
+  }
+
+  /**
+   * Default constructor
+   */
+
+  public LanczosIteration() {
+    this(DEFAULT_BASIS_SIZE);
+  }
+
+  /**
+   * <p>Apply the Lanczos method to a symmetric operator to find the eigenvector associated with its largest
+   * eigenvalue</p>
+   * <p>The initial vector needs to satisfy ||x|| = 1</p>
+   *
+   * @param op                   The operator. Must be symmetric
+   * @param convergenceCriterion A given convergence criterion for the iteration
+   * @param initialVector        Initial vector for the iteration
+   * @param maxIterations        Maximum number of operator applications
+   * @return The converged eigenvector
+   * @throws PowerIteration.MaxIterationsExceededException If the maximum number of iterations has been exceeded
+   */
+
+  @Override
+  public double[] apply(LinearGraphOperator op, ConvergenceCriterion convergenceCriterion, double[] initialVector,
+                        int maxIterations) throws PowerIteration.MaxIterationsExceededException {
+    int n = op.size();
+    ParallelVectors vectors = new ParallelVectors(op);
+    double[][] basis = new double[basisSize][n];
+    double[] alpha = new double[basisSize];
+    double[] beta = new double[basisSize];
+    double[] coefficients = new double[basisSize];
+    double[] prevCoordinates = new double[basisSize];
+    double[] ritz = new double[n];
+    double[] spare = new double[n];
+    double[] restart = initialVector;
+    Random perturbations = new Random(PERTURBATION_SEED);
+    StopWatch stopWatch = new StopWatch();
+    stopWatch.start();
+    int iterations = 0;
+    while (true) {
+      double[] start = restart;
+      double[] first = basis[0];
+      if (start != first) {
+        vectors.copy(start, first);
+      }
+      if (start != initialVector && start != first) {
+        // The restart vector is a former Ritz vector, whose buffer is free again now
+        spare = start;
+      }
+      // The previous Ritz vector is kept both explicitly and in coordinates of the current basis. The latter is being
+      // used to align signs without another pass over the vertices.
+      double[] prev = first;
+      Arrays.fill(prevCoordinates, 0);
+      prevCoordinates[0] = 1;
+      for (int j = 0; j < basisSize; j++) {
+        if (iterations >= maxIterations) {
+          throw new PowerIteration.MaxIterationsExceededException(String.format("Exceeded maximum number of iterations (%d)", maxIterations));
+        }
+        double[] image = op.apply(basis[j]);
+        boolean full = j + 1 == basisSize;
+        if (full) {
+          // The next basis vector would be discarded by the restart anyway
+          alpha[j] = vectors.scalarProduct(image, basis[j]);
+        } else {
+          orthogonalize(vectors, image, basis, j, coefficients);
+          alpha[j] = coefficients[j];
+          beta[j] = Math.sqrt(orthogonalize(vectors, basis[j + 1], basis, j, coefficients));
+        }
+        boolean exhausted = full || beta[j] < BREAKDOWN_THRESHOLD;
+        if (j > 0 && (exhausted || j % ritzInterval == 0)) {
+          // The Ritz vector of a one-dimensional subspace is the start vector itself and carries no information
+          double[] y = largestEigenvector(alpha, beta, j + 1);
+          double sign = 0;
+          for (int l = 0; l <= j; l++) {
+            sign += y[l] * prevCoordinates[l];
+          }
+          if (sign < 0) {
+            scale(y, -1);
+          }
+          ritzVector(vectors, basis, y, ritz);
+          if (convergenceCriterion.satisfied(prev, ritz, iterations)) {
+            stopWatch.stop();
+            LOG.trace("Lanczos iteration for operator size {} finished after {} rounds in {}", n, iterations + 1, stopWatch);
+            return ritz;
+          }
+          System.arraycopy(y, 0, prevCoordinates, 0, j + 1);
+          double[] free = (prev == first) ? spare : prev;
+          prev = ritz;
+          ritz = free;
+        } else if (j == 0 && beta[0] < BREAKDOWN_THRESHOLD) {
+          // The start vector spans an invariant subspace, i.e. it already is an eigenvector (but not necessarily the
+          // desired one). Like any other Ritz vector, it has to qualify for the convergence criterion.
+          if (convergenceCriterion.satisfied(first, first, iterations)) {
+            stopWatch.stop();
+            LOG.trace("Lanczos iteration for operator size {} finished after {} rounds in {}", n, iterations + 1, stopWatch);
+            return first;
+          }
+          perturb(first, perturbations);
+          prev = first;
+          iterations++;
+          break;
+        }
+        iterations++;
+        if (exhausted) {
+          break;
+        }
+        vectors.scale(basis[j + 1], 1 / beta[j]);
+      }
+      restart = prev;
+    }
+  }
+
+  /**
+   * <p>Orthogonalize a vector against the basis vectors <code>0..j</code> using a single pass of classical
+   * Gram-Schmidt and store the result as basis vector <code>j + 1</code>.</p>
+   * <p>All projection coefficients are being computed from the original vector, so the pass takes one parallel
+   * reduction per basis vector, followed by a single parallel update that subtracts all projections range by range.
+   * Calling this twice (with the second call reading basis vector <code>j + 1</code>) yields full
+   * reorthogonalization.</p>
+   *
+   * @param vectors      Vector kernels of the operator
+   * @param w            Vector to be orthogonalized. May be basis vector <code>j + 1</code> itself
+   * @param basis        Basis vectors
+   * @param j            Index of the last basis vector
+   * @param coefficients Buffer for the projection coefficients
+   * @return Squared norm of the orthogonalized vector
+   */
+
+  private static double orthogonalize(ParallelVectors vectors, double[] w, double[][] basis, int j, double[] coefficients) {
+    for (int k = 0; k <= j; k++) {
+      coefficients[k] = vectors.scalarProduct(w, basis[k]);
+    }
+    double[] target = basis[j + 1];
+    return vectors.reduce((from, to) -> {
+      if (w != target) {
+        System.arraycopy(w, from, target, from, to - from);
+      }
+      for (int k = 0; k <= j; k++) {
+        double c = coefficients[k];
+        double[] v = basis[k];
+        for (int i = from; i < to; i++) {
+          target[i] -= c * v[i];
+        }
+      }
+      double squaredNorm = 0;
+      for (int i = from; i < to; i++) {
+        squaredNorm += target[i] * target[i];
+      }
+      return squaredNorm;
+    });
+  }
+
+  /**
+   * Expand a Ritz vector from its coordinates in the current basis and normalize it
+   *
+   * @param vectors Vector kernels of the operator
+   * @param basis   Basis vectors
+   * @param y       Coordinates of the Ritz vector
+   * @param ritz    Buffer for the Ritz vector
+   */
+
+  private static void ritzVector(ParallelVectors vectors, double[][] basis, double[] y, double[] ritz) {
+    double squaredNorm = vectors.reduce((from, to) -> {
+      Arrays.fill(ritz, from, to, 0);
+      for (int l = 0; l < y.length; l++) {
+        double c = y[l];
+        double[] v = basis[l];
+        for (int i = from; i < to; i++) {
+          ritz[i] += c * v[i];
+        }
+      }
+      double sum = 0;
+      for (int i = from; i < to; i++) {
+        sum += ritz[i] * ritz[i];
+      }
+      return sum;
+    });
+    vectors.scale(ritz, 1 / Math.sqrt(squaredNorm));
+  }
+
+  /**
+   * Compute the eigenvector of the largest eigenvalue of a small symmetric tridiagonal matrix using cyclic Jacobi
+   * rotations
+   *
+   * @param alpha Diagonal
+   * @param beta  Subdiagonal
+   * @param k     Matrix size
+   * @return Normalized eigenvector
+   */
+
+  static double[] largestEigenvector(double[] alpha, double[] beta, int k) {
+    double[][] a = new double[k][k];
+    double[][] v = new double[k][k];
+    for (int i = 0; i < k; i++) {
+      a[i][i] = alpha[i];
+      v[i][i] = 1;
+      if (i + 1 < k) {
+        a[i][i + 1] = beta[i];
+        a[i + 1][i] = beta[i];
+      }
+    }
+    for (int sweep = 0; sweep < MAX_JACOBI_SWEEPS && offDiagonalNorm(a) > 1E-15 * diagonalNorm(a); sweep++) {
+      for (int p = 0; p < k - 1; p++) {
+        for (int q = p + 1; q < k; q++) {
+          if (a[p][q] != 0) {
+            rotate(a, v, p, q);
+          }
+        }
+      }
+    }
+    int max = 0;
+    for (int i = 1; i < k; i++) {
+      if (a[i][i] > a[max][max]) {
+        max = i;
+      }
+    }
+    double[] y = new double[k];
+    for (int i = 0; i < k; i++) {
+      y[i] = v[i][max];
+    }
+    return y;
+  }
+
+  /**
+   * Apply a single Jacobi rotation that annihilates <code>a[p][q]</code>
+   *
+   * @param a Symmetric matrix
+   * @param v Accumulated rotations
+   * @param p Row index
+   * @param q Column index
+   */
+
+  private static void rotate(double[][] a, double[][] v, int p, int q) {
+    double theta = (a[q][q] - a[p][p]) / (2 * a[p][q]);
+    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
+    if (theta == 0) {
+      t = 1;
+    }
+    double c = 1 / Math.sqrt(t * t + 1);
+    double s = t * c;
+    for (int i = 0; i < a.length; i++) {
+      double aip = a[i][p];
+      double aiq = a[i][q];
+      a[i][p] = c * aip - s * aiq;
+      a[i][q] = s * aip + c * aiq;
+    }
+    for (int i = 0; i < a.length; i++) {
+      double api = a[p][i];
+      double aqi = a[q][i];
+      a[p][i] = c * api - s * aqi;
+      a[q][i] = s * api + c * aqi;
+    }
+    for (int i = 0; i < v.length; i++) {
+      double vip = v[i][p];
+      double viq = v[i][q];
+      v[i][p] = c * vip - s * viq;
+      v[i][q] = s * vip + c * viq;
+    }
+  }
+
+  /**
+   * @param a A square matrix
+   * @return Frobenius norm of the off-diagonal entries
+   */
+
+  private static double offDiagonalNorm(double[][] a) {
+    double norm = 0;
+    for (int i = 0; i < a.length; i++) {
+      for (int j = 0; j < a.length; j++) {
+        if (i != j) norm += a[i][j] * a[i][j];
+      }
+    }
+    return Math.sqrt(norm);
+  }
+
+  /**
+   * @param a A square matrix
+   * @return Euclidean norm of the diagonal entries
+   */
+
+  private static double diagonalNorm(double[][] a) {
+    double norm = 0;
+    for (int i = 0; i < a.length; i++) {
+      norm += a[i][i] * a[i][i];
+    }
+    return Math.sqrt(norm);
+  }
+
+  /**
+   * Add a small amount of random noise to a normalized vector and renormalize it. This moves the vector out of an
+   * invariant subspace of the operator, such that subsequent Krylov subspaces are no longer degenerate.
+   *
+   * @param v      A normalized vector
+   * @param random Source of the perturbation
+   */
+
+  private static void perturb(double[] v, Random random) {
+    double scale = PERTURBATION / Math.sqrt(v.length);
+    for (int i = 0; i < v.length; i++) {
+      v[i] += scale * random.nextGaussian();
+    }
+    Vectors.normalize2(v);
+  }
+
+  /**
+   * In-place scaling of a vector
+   *
+   * @param v     A vector
+   * @param scale Scaling factor
+   */
+
+  private static void scale(double[] v, double scale) {
+    for (int i = 0; i < v.length; i++) {
+      v[i] *= scale;
+    }
+  }
+
+  /**
+   * @return Solver name and parameters
+   */
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+            .append("basisSize", basisSize)
+            .append("ritzInterval", ritzInterval)
+            .build();
+  }
+
+}
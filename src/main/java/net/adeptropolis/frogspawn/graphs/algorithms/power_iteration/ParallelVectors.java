@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.algorithms.power_iteration;
+
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.operators.LinearGraphOperator;
+import net.adeptropolis.frogspawn.graphs.traversal.VertexRangeReducer;
+
+/**
+ * <p>Vector kernels for eigensolvers</p>
+ * <p>Runs vector arithmetic as range reductions over the vertices of the operator's graph. Vectors of operators that
+ * don't expose a graph are being processed single-threaded.</p>
+ */
+
+final class ParallelVectors {
+
+  private final Graph graph;
+  private final int size;
+
+  /**
+   * Constructor
+   *
+   * @param op Operator whose vertex space the vectors belong to
+   */
+
+  ParallelVectors(LinearGraphOperator op) {
+    this.graph = op.getGraph();
+    this.size = op.size();
+  }
+
+  /**
+   * Sum up values over all ranges of vector indices
+   *
+   * @param reducer Instance of VertexRangeReducer
+   * @return Sum of all values returned by the reducer
+   */
+
+  double reduce(VertexRangeReducer reducer) {
+    return (graph != null) ? graph.reduceVertexRangesParallel(reducer) : reducer.reduceRange(0, size);
+  }
+
+  /**
+   * @param x A vector
+   * @param y Another vector
+   * @return The scalar product of both vectors
+   */
+
+  double scalarProduct(double[] x, double[] y) {
+    return reduce((from, to) -> {
+      double sum = 0;
+      for (int i = from; i < to; i++) {
+        sum += x[i] * y[i];
+      }
+      return sum;
+    });
+  }
+
+  /**
+   * In-place scaling of a vector
+   *
+   * @param v     A vector
+   * @param scale Scaling factor
+   */
+
+  void scale(double[] v, double scale) {
+    reduce((from, to) -> {
+      for (int i = from; i < to; i++) {
+        v[i] *= scale;
+      }
+      return 0;
+    });
+  }
+
+  /**
+   * Copy a vector into a given buffer
+   *
+   * @param source Source vector
+   * @param target Target buffer
+   */
+
+  void copy(double[] source, double[] target) {
+    reduce((from, to) -> {
+      System.arraycopy(source, from, target, from, to - from);
+      return 0;
+    });
+  }
+
+}
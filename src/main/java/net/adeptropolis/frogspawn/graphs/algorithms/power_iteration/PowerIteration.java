@@ -19,12 +19,21 @@ public class PowerIteration {
 
   private static final Logger LOG = LoggerFactory.getLogger(PowerIteration.class.getSimpleName());
 
+  /**
+   * Power method as an {@link EigenSolver} for operators without negative eigenvalues
+   */
+
+  public static final EigenSolver SOLVER = new Solver();
+
   private PowerIteration() {
   }
 
   /**
    * <p>Apply the power iteration method to any Operator to find the eigenvector associated with its' largest eigenvalue</p>
-   * <p>The initial vector needs to satisfy ||x|| = 1</p>
+   * <p>The initial vector needs to satisfy ||x|| = 1. It is never being modified. Instead, the iteration alternates
+   * between two buffers, and the normalized operator application is being delegated to
+   * {@link LinearGraphOperator#applyNormalized(double[], double[])}, which allows operators to fuse it into their own
+   * passes.</p>
    *
    * @param op                        The operator operator
    * @param convergenceCriterion      A given convergence criterion for the iteration
@@ -38,27 +47,57 @@ public class PowerIteration {
 
   public static double[] apply(LinearGraphOperator op, ConvergenceCriterion convergenceCriterion,
                                double[] initialVector, int maxIterations, boolean expectNegativeEigenvalues) throws MaxIterationsExceededException {
-    double[] x = new double[op.size()];
-    double[] y = initialVector;
+    double[] x = initialVector;
+    double[] y = new double[op.size()];
+    double[] spare = new double[op.size()];
     StopWatch stopWatch = new StopWatch();
     stopWatch.start();
     for (int i = 0; ; i++) {
-      System.arraycopy(y, 0, x, 0, op.size());
       if (i >= maxIterations) {
         throw new MaxIterationsExceededException(String.format("Exceeded maximum number of iterations (%d)", maxIterations));
       }
-      y = op.apply(x);
       if (expectNegativeEigenvalues) {
+        System.arraycopy(op.apply(x), 0, y, 0, op.size());
         Vectors.normalize2Sig(y);
       } else {
-        Vectors.normalize2(y);
+        op.applyNormalized(x, y);
       }
       if (convergenceCriterion.satisfied(x, y, i)) {
         stopWatch.stop();
         LOG.trace("Power iteration for operator size {} finished after {} rounds in {}", op.size(), i + 1, stopWatch);
         return y;
       }
+      double[] next = (x == initialVector) ? spare : x;
+      x = y;
+      y = next;
+    }
+  }
+
+  /**
+   * Power method as an {@link EigenSolver}
+   */
+
+  private static final class Solver implements EigenSolver {
+
+    /**
+     * {@inheritDoc}
+     */
+
+    @Override
+    public double[] apply(LinearGraphOperator op, ConvergenceCriterion convergenceCriterion, double[] initialVector,
+                          int maxIterations) throws MaxIterationsExceededException {
+      return PowerIteration.apply(op, convergenceCriterion, initialVector, maxIterations, false);
     }
+
+    /**
+     * @return Just the simple name of the enclosing class
+     */
+
+    @Override
+    public String toString() {
+      return PowerIteration.class.getSimpleName();
+    }
+
   }
 
   /**
@@ -11,14 +11,22 @@ import java.util.Random;
 
 /**
  * <p>Helper class that provides random initial vectors for the power iterations</p>
+ * <p>Sources are splittable: Every source may derive any number of child sources whose seeds only depend on the
+ * parent's seed and the child's index (but not on the number of vectors generated so far). Hence, by deriving
+ * one source per protocluster from its position within the cluster tree, every bisection becomes reproducible
+ * regardless of the order (or thread) in which it is executed.</p>
  */
 
 public class RandomInitialVectorsSource {
 
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private final long seed;
   private final Random random;
 
   public RandomInitialVectorsSource(long seed) {
-    random = new Random(seed);
+    this.seed = seed;
+    this.random = new Random(seed);
   }
 
   /**
@@ -37,4 +45,36 @@ public class RandomInitialVectorsSource {
     return iv;
   }
 
+  /**
+   * Derive a new, independent source for a child
+   *
+   * @param index Index of the child
+   * @return A new source whose seed is derived from this source's seed and the given index
+   */
+
+  public RandomInitialVectorsSource derive(int index) {
+    return new RandomInitialVectorsSource(mix(seed + GOLDEN_GAMMA * (index + 1L)));
+  }
+
+  /**
+   * @return Seed of this source
+   */
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * SplitMix64 finalizer
+   *
+   * @param z Some value
+   * @return Well-mixed 64 bit hash of the given value
+   */
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import net.adeptropolis.frogspawn.graphs.Graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Compact binary edge lists</p>
+ * <p>An edge list file consists of a little-endian header (magic number (8 bytes), format version (4 bytes), weight
+ * width <code>w</code> in bytes (4 bytes) and number of edges (8 bytes)), followed by fixed-size records
+ * <code>(int u, int v, float|double weight)</code> of <code>8 + w</code> bytes each. Every record describes an
+ * undirected edge.</p>
+ * <p>Reading an edge list maps the file into memory and streams all records into a graph builder without any
+ * per-record allocations.</p>
+ */
+
+public class BinaryEdgeListFile {
+
+  private static final long MAGIC = 0x46524F4745444745L;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 24;
+  private static final int BUFFER_SIZE = 1 << 20;
+  private static final long MAX_WINDOW_BYTES = 1L << 30;
+
+  private BinaryEdgeListFile() {
+  }
+
+  /**
+   * Create a new edge list file
+   *
+   * @param file            Output file
+   * @param singlePrecision Whether weights should be stored as float instead of double
+   * @return A writer for the file. Needs to be closed in order to complete the file.
+   * @throws GraphStorageException if the file could not be created
+   */
+
+  public static Writer writer(File file, boolean singlePrecision) {
+    return new Writer(file, singlePrecision ? Float.BYTES : Double.BYTES);
+  }
+
+  /**
+   * Stream all edges of an edge list file into a graph builder
+   *
+   * @param file    An edge list file
+   * @param builder Graph builder. Every record is being added as undirected edge.
+   * @return Number of records
+   * @throws GraphStorageException if the file could not be read or is not a valid edge list file
+   */
+
+  public static long read(File file, Graph.Builder builder) {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          break;
+        }
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getLong() != MAGIC) {
+        throw new GraphStorageException(String.format("%s is not an edge list file", file));
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new GraphStorageException(String.format("Unsupported edge list file version %d", version));
+      }
+      int weightBytes = header.getInt();
+      long numEdges = header.getLong();
+      int recordBytes = 2 * Integer.BYTES + weightBytes;
+      if ((weightBytes != Float.BYTES && weightBytes != Double.BYTES) || channel.size() != HEADER_BYTES + numEdges * recordBytes) {
+        throw new GraphStorageException(String.format("Edge list file %s is truncated or corrupt", file));
+      }
+      long recordsPerWindow = MAX_WINDOW_BYTES / recordBytes;
+      for (long first = 0; first < numEdges; first += recordsPerWindow) {
+        long count = Math.min(recordsPerWindow, numEdges - first);
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * recordBytes, count * recordBytes);
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        readRecords(buf, (int) count, weightBytes, builder);
+      }
+      return numEdges;
+    } catch (IOException e) {
+      throw new GraphStorageException(e);
+    }
+  }
+
+  /**
+   * Stream records from a mapped window into a graph builder
+   *
+   * @param buf         Mapped window
+   * @param count       Number of records within the window
+   * @param weightBytes Weight width in bytes
+   * @param builder     Graph builder
+   */
+
+  private static void readRecords(ByteBuffer buf, int count, int weightBytes, Graph.Builder builder) {
+    int pos = 0;
+    for (int i = 0; i < count; i++) {
+      int u = buf.getInt(pos);
+      int v = buf.getInt(pos + Integer.BYTES);
+      pos += 2 * Integer.BYTES;
+      if (weightBytes == Float.BYTES) {
+        builder.add(u, v, buf.getFloat(pos));
+      } else {
+        builder.add(u, v, buf.getDouble(pos));
+      }
+      pos += weightBytes;
+    }
+  }
+
+  /**
+   * Sequential writer for edge list files
+   */
+
+  public static class Writer implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buf;
+    private final int weightBytes;
+    private long numEdges = 0L;
+
+    /**
+     * Constructor
+     *
+     * @param file        Output file
+     * @param weightBytes Weight width in bytes
+     * @throws GraphStorageException if the file could not be created
+     */
+
+    private Writer(File file, int weightBytes) {
+      this.weightBytes = weightBytes;
+      this.buf = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      try {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+      } catch (IOException e) {
+        throw new GraphStorageException(e);
+      }
+      buf.putLong(MAGIC).putInt(VERSION).putInt(weightBytes).putLong(0L);
+    }
+
+    /**
+     * Append an undirected edge
+     *
+     * @param u      Left endpoint
+     * @param v      Right endpoint
+     * @param weight Edge weight
+     * @return this
+     * @throws GraphStorageException if the edge could not be written
+     */
+
+    public Writer add(int u, int v, double weight) {
+      if (buf.remaining() < 2 * Integer.BYTES + weightBytes) {
+        flush();
+      }
+      buf.putInt(u).putInt(v);
+      if (weightBytes == Float.BYTES) {
+        buf.putFloat((float) weight);
+      } else {
+        buf.putDouble(weight);
+      }
+      numEdges++;
+      return this;
+    }
+
+    /**
+     * Flush all pending edges and write the final number of edges into the header. The underlying channel is being
+     * closed in any case, even if the file could not be completed. Closing a writer more than once has no effect.
+     *
+     * @throws GraphStorageException if the file could not be completed
+     */
+
+    @Override
+    public void close() {
+      if (!channel.isOpen()) {
+        return;
+      }
+      try (FileChannel ch = channel) {
+        flush();
+        ByteBuffer count = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(numEdges);
+        count.flip();
+        while (count.hasRemaining()) {
+          ch.write(count, HEADER_BYTES - Long.BYTES + count.position());
+        }
+      } catch (IOException e) {
+        throw new GraphStorageException(e);
+      }
+    }
+
+    /**
+     * Write all buffered data to the output channel
+     *
+     * @throws GraphStorageException if the data could not be written
+     */
+
+    private void flush() {
+      buf.flip();
+      try {
+        while (buf.hasRemaining()) {
+          channel.write(buf);
+        }
+      } catch (IOException e) {
+        throw new GraphStorageException(e);
+      }
+      buf.clear();
+    }
+
+  }
+
+}
@@ -15,6 +15,7 @@ import net.adeptropolis.frogspawn.graphs.traversal.ParallelEdgeOps;
 import net.adeptropolis.frogspawn.graphs.traversal.TraversalMode;
 
 import java.io.Serializable;
+import java.nio.LongBuffer;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -31,6 +32,7 @@ public class CompressedInducedSparseSubgraph extends Graph implements Serializab
   private final CompressedSparseGraphDatastore datastore;
   private final int[] vertices;
   private long cachedNumEdges = -1L;
+  private transient long[] cachedTraversalCosts = null;
 
   /**
    * Constructor
@@ -133,6 +135,27 @@ public class CompressedInducedSparseSubgraph extends Graph implements Serializab
     }
   }
 
+  /**
+   * Traversing the neighbours of a vertex either requires one search per adjacent vertex in the global graph or
+   * one search per subgraph vertex, whatever is smaller. Thus, the cost of a single vertex is estimated by
+   * <code>min(global degree, order)</code> (plus some constant overhead).
+   *
+   * @return Cumulative traversal costs
+   */
+
+  @Override
+  public LongBuffer traversalCosts() {
+    if (cachedTraversalCosts == null) {
+      long[] costs = new long[order() + 1];
+      for (int i = 0; i < order(); i++) {
+        long degree = datastore.pointers[vertices[i] + 1] - datastore.pointers[vertices[i]];
+        costs[i + 1] = costs[i] + Math.min(degree, order()) + 1;
+      }
+      cachedTraversalCosts = costs;
+    }
+    return LongBuffer.wrap(cachedTraversalCosts).asReadOnlyBuffer();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -168,14 +191,14 @@ public class CompressedInducedSparseSubgraph extends Graph implements Serializab
 
     for (long ptr = low; ptr < high; ptr++) {
 
-      rightEndpoint = InterpolationSearch.search(vertices, datastore.edges.get(ptr), secPtr, order() - 1);
+      rightEndpoint = InterpolationSearch.search(vertices, datastore.edges().get(ptr), secPtr, order() - 1);
 
       if (mode == TraversalMode.LOWER_TRIANGULAR && leftEndpoint < rightEndpoint) {
         break;
       }
 
       if (rightEndpoint >= 0) {
-        consumer.accept(leftEndpoint, rightEndpoint, datastore.weights.get(ptr));
+        consumer.accept(leftEndpoint, rightEndpoint, datastore.weights().get(ptr));
         secPtr = rightEndpoint + 1;
       }
 
@@ -204,10 +227,10 @@ public class CompressedInducedSparseSubgraph extends Graph implements Serializab
         break;
       }
 
-      retrievedIdx = InterpolationSearch.search(datastore.edges, vertices[i], ptr, high - 1);
+      retrievedIdx = InterpolationSearch.search(datastore.edges(), vertices[i], ptr, high - 1);
 
       if (retrievedIdx >= 0 && retrievedIdx < high) {
-        consumer.accept(leftEndpoint, i, datastore.weights.get(retrievedIdx));
+        consumer.accept(leftEndpoint, i, datastore.weights().get(retrievedIdx));
         ptr = retrievedIdx + 1;
       }
 
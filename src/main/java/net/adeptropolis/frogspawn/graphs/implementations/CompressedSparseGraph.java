@@ -13,6 +13,7 @@ import net.adeptropolis.frogspawn.graphs.traversal.EdgeConsumer;
 import net.adeptropolis.frogspawn.graphs.traversal.TraversalMode;
 
 import java.io.Serializable;
+import java.nio.LongBuffer;
 
 /**
  * A compressed sparse graph
@@ -37,6 +38,14 @@ public class CompressedSparseGraph extends Graph implements Serializable {
     this.datastore = datastore;
   }
 
+  /**
+   * @return The underlying graph datastore
+   */
+
+  CompressedSparseGraphDatastore getDatastore() {
+    return datastore;
+  }
+
   /**
    * Create a builder for this type of graphs
    *
@@ -62,7 +71,7 @@ public class CompressedSparseGraph extends Graph implements Serializable {
 
   @Override
   public long size() {
-    return datastore.edges.size();
+    return datastore.edges().size();
   }
 
   /**
@@ -115,11 +124,11 @@ public class CompressedSparseGraph extends Graph implements Serializable {
 
     int rightEndpoint;
     for (long ptr = low; ptr < high; ptr++) {
-      rightEndpoint = datastore.edges.get(ptr);
+      rightEndpoint = datastore.edges().get(ptr);
       if (mode == TraversalMode.LOWER_TRIANGULAR && v < rightEndpoint) {
         break;
       }
-      consumer.accept(v, rightEndpoint, datastore.weights.get(ptr));
+      consumer.accept(v, rightEndpoint, datastore.weights().get(ptr));
       if (rightEndpoint + 1 >= order()) {
         break;
       }
@@ -127,6 +136,17 @@ public class CompressedSparseGraph extends Graph implements Serializable {
 
   }
 
+  /**
+   * Since traversal costs are proportional to the vertex degrees, this is simply a read-only view of the vertex pointers
+   *
+   * @return Cumulative traversal costs
+   */
+
+  @Override
+  public LongBuffer traversalCosts() {
+    return LongBuffer.wrap(datastore.pointers).asReadOnlyBuffer();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -7,19 +7,27 @@ package net.adeptropolis.frogspawn.graphs.implementations;
 
 import com.google.common.annotations.VisibleForTesting;
 import it.unimi.dsi.fastutil.BigArrays;
-import it.unimi.dsi.fastutil.BigSwapper;
-import it.unimi.dsi.fastutil.longs.LongComparator;
 import net.adeptropolis.frogspawn.graphs.Graph;
 import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigDoubles;
 import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigInts;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ConstantBigDoubles;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ReadableBigDoubles;
 import org.apache.commons.lang3.time.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
 /**
  * <p>Build new Graph instances</p>
  * <p>This little gizmo creates a new compressed sparse graph from an arbitrary
  * number of (not necessarily unique or sorted) weighted edge triples.</p>
+ * <p>Unweighted builders (see {@link #unweighted()}) don't keep any edge weights at all. Multiple instances of the
+ * same edge are collapsed into a single edge and all edges are being reported with weight 1.</p>
+ * <p>Building requires up to twice the memory of the edge buffer: sorting moves all endpoints and weights into a
+ * scratch buffer of the same size (see {@link #sort()}). Thus, budget 32 bytes per buffered edge for weighted and 16
+ * bytes for unweighted builders.</p>
  */
 
 public class CompressedSparseGraphBuilder implements Graph.Builder {
@@ -27,9 +35,15 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
   private static final Logger LOG = LoggerFactory.getLogger(CompressedSparseGraphBuilder.class.getSimpleName());
   private static final long DEFAULT_INITIAL_CAPACITY = 1 << 24;
   private static final long GROW_SIZE = 1 << 24;
+  private static final int MAX_RADIX_BITS = 16;
+  private static final int MAX_SORT_CHUNKS = 4 * Runtime.getRuntime().availableProcessors();
+  private static final long MIN_SORT_CHUNK_SIZE = 1 << 16;
+  private static final int MAX_SORT_COUNTERS = 1 << 21;
   private final double minWeight;
   private final BigInts[] edges;
-  private final BigDoubles weights;
+  private BigDoubles weights;
+  private GraphBuildSettings settings = GraphBuildSettings.DEFAULT;
+  private int[] permutation = null;
   private long capacity;
   private long ptr = 0L;
 
@@ -40,8 +54,20 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
    */
 
   public CompressedSparseGraphBuilder(long initialCapacity, double minWeight) {
+    this(initialCapacity, minWeight, true);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param initialCapacity Initial capacity of the edge buffer
+   * @param minWeight       Minimum edge weight. Weights below this value cause a <code>GraphConstructionException</code>
+   * @param weighted        Whether to store edge weights at all
+   */
+
+  CompressedSparseGraphBuilder(long initialCapacity, double minWeight, boolean weighted) {
     this.edges = new BigInts[]{ new BigInts(initialCapacity), new BigInts(initialCapacity) };
-    this.weights = new BigDoubles(initialCapacity);
+    this.weights = weighted ? new BigDoubles(initialCapacity) : null;
     this.capacity = initialCapacity;
     this.minWeight = minWeight;
   }
@@ -62,6 +88,39 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
     this(DEFAULT_INITIAL_CAPACITY, minWeight);
   }
 
+  /**
+   * Create a builder for unweighted graphs. Edges may only be added with weight 1.
+   *
+   * @return A new builder instance
+   */
+
+  public static CompressedSparseGraphBuilder unweighted() {
+    return new CompressedSparseGraphBuilder(DEFAULT_INITIAL_CAPACITY, 1d, false);
+  }
+
+  /**
+   * Set the weight storage, vertex ordering, sparsification and pruning of the resulting graph. Default is
+   * <code>GraphBuildSettings.DEFAULT</code>
+   *
+   * @param settings Build settings
+   * @return this
+   */
+
+  public CompressedSparseGraphBuilder withSettings(GraphBuildSettings settings) {
+    this.settings = settings;
+    return this;
+  }
+
+  /**
+   * @return Mapping that has been applied to the vertex ids during the last build, i.e. its i-th entry is the new
+   * id of the vertex that has been added as i or -1 if that vertex has been pruned. <code>null</code> if neither
+   * reordering nor pruning took place.
+   */
+
+  public int[] getPermutation() {
+    return permutation;
+  }
+
   /**
    * Add a new undirected edge to the graph.
    *
@@ -93,12 +152,16 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
     if (weight < minWeight) {
       throw new GraphConstructionException(String.format("Tried to add an edge with weight < %.3f", minWeight));
     }
+    if (weights == null && weight != 1d) {
+      throw new GraphConstructionException("Tried to add an edge with weight != 1 to an unweighted graph");
+    }
     set(ptr++, u, v, weight);
     return this;
   }
 
   /**
-   * Set an edge buffer element
+   * Set an edge buffer element. May be called concurrently for indices below the size given to
+   * {@link #presize(long)}.
    *
    * @param idx    Index
    * @param u      Left vertex
@@ -106,11 +169,27 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
    * @param weight Edge weight
    */
 
-  private void set(long idx, int u, int v, double weight) {
-    if (idx >= capacity) resize(capacity + GROW_SIZE);
+  void set(long idx, int u, int v, double weight) {
+    if (idx >= capacity) resize(capacity + Math.max(1L, Math.min(capacity, GROW_SIZE)));
     edges[0].set(idx, u);
     edges[1].set(idx, v);
-    weights.set(idx, weight);
+    if (weights != null) weights.set(idx, weight);
+  }
+
+  /**
+   * Fix the capacity of the edge buffer to a given size, such that its elements may be written concurrently by
+   * {@link #set(long, int, int, double)}. The buffer size needs to be set using {@link #setBufferSize(long)} once all
+   * elements have been written.
+   *
+   * @param size Number of edges
+   */
+
+  void presize(long size) {
+    edges[0] = presizedInts(size);
+    edges[1] = presizedInts(size);
+    if (weights != null) weights = presizedDoubles(size);
+    capacity = size;
+    ptr = 0L;
   }
 
   /**
@@ -123,7 +202,7 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
     capacity = newSize;
     edges[0].resize(newSize);
     edges[1].resize(newSize);
-    weights.resize(newSize);
+    if (weights != null) weights.resize(newSize);
   }
 
   /**
@@ -149,26 +228,280 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
   CompressedSparseGraphDatastore buildDatastore() {
     StopWatch stopWatch = new StopWatch();
     stopWatch.start();
-    if (ptr == 0L) {
+    sort();
+    CompressedSparseGraphDatastore datastore = buildSortedDatastore();
+    stopWatch.stop();
+    if (settings.isVerboseLogging()) {
+      LOG.info("Finished building graph with {} vertices and {} edges in {}", datastore.size(), datastore.edgeCount(), stopWatch);
+    } else {
+      LOG.debug("Finished building graph with {} vertices and {} edges in {}", datastore.size(), datastore.edgeCount(), stopWatch);
+    }
+    return datastore;
+  }
+
+  /**
+   * Build the main datastore from an edge buffer that has already been sorted
+   *
+   * @return a new graph datastore
+   */
+
+  CompressedSparseGraphDatastore buildSortedDatastore() {
+    reduce();
+    return buildReducedDatastore();
+  }
+
+  /**
+   * Build the main datastore from an edge buffer that has already been sorted and reduced
+   *
+   * @return a new graph datastore
+   */
+
+  CompressedSparseGraphDatastore buildReducedDatastore() {
+    long[] pointers = finish();
+    if (pointers == null) {
       return new CompressedSparseGraphDatastore(0, 0, new long[0], new BigInts(0), new BigDoubles(0));
     }
+    return new CompressedSparseGraphDatastore(pointers.length - 1, ptr, pointers, edges[1], storeWeights());
+  }
+
+  /**
+   * <p>Build a gap-compressed graph directly from the edge buffer, i.e. without creating an uncompressed graph first.
+   * Weights are being converted into their final storage representation (see
+   * {@link GraphBuildSettings.Builder#withWeightStorage(WeightStorage)}) and the left endpoints are being released
+   * before the adjacency lists are being encoded. Thus, the peak memory consumption is only determined by the edge
+   * buffer itself.</p>
+   * <p>The edge buffer is being released afterwards, i.e. the builder needs to be discarded.</p>
+   *
+   * @return A new immutable gap-compressed graph
+   * @see GapCompressedSparseGraph
+   */
+
+  public GapCompressedSparseGraph buildGapCompressed() {
+    StopWatch stopWatch = new StopWatch();
+    stopWatch.start();
     sort();
     reduce();
+    long[] pointers = finish();
+    GapCompressedSparseGraph graph;
+    if (pointers == null) {
+      graph = GapCompressedSparseGraph.encode(0, new long[0], new BigInts(0), new BigDoubles(0));
+    } else {
+      ReadableBigDoubles storedWeights = storeWeights();
+      BigInts rightEndpoints = edges[1];
+      release();
+      graph = GapCompressedSparseGraph.encode(pointers.length - 1, pointers, rightEndpoints, storedWeights);
+    }
+    stopWatch.stop();
+    if (settings.isVerboseLogging()) {
+      LOG.info("Finished building gap-compressed graph with {} vertices and {} edges in {}", graph.order(), graph.size(), stopWatch);
+    } else {
+      LOG.debug("Finished building gap-compressed graph with {} vertices and {} edges in {}", graph.order(), graph.size(), stopWatch);
+    }
+    return graph;
+  }
+
+  /**
+   * Sparsify, prune and reorder a sorted and reduced edge buffer as requested by the build settings and compact it
+   * afterwards. Also sets the permutation of the vertex ids.
+   *
+   * @return Vertex pointers of the final graph or <code>null</code> if the graph is empty
+   */
+
+  private long[] finish() {
+    permutation = null;
+    if (ptr == 0L) {
+      return null;
+    }
+    sparsify(edges[0].get(ptr - 1) + 1);
+    int[] pruning = prune(edges[0].get(ptr - 1) + 1);
+    if (ptr == 0L) {
+      permutation = pruning;
+      return null;
+    }
     compact();
     int graphSize = edges[0].get(ptr - 1) + 1;
     long[] pointers = computePointers(graphSize);
-    stopWatch.stop();
-    LOG.info("Finished building graph with {} vertices and {} edges in {}", graphSize, ptr, stopWatch);
-    return new CompressedSparseGraphDatastore(graphSize, ptr, pointers, edges[1], weights);
+    int[] order = settings.getVertexOrdering().permutation(pointers, edges[1], graphSize);
+    if (order != null) {
+      relabel(order);
+      sort();
+      pointers = computePointers(graphSize);
+    }
+    permutation = compose(pruning, order);
+    return pointers;
+  }
+
+  /**
+   * @return The weights of the edge buffer in their final storage representation
+   */
+
+  private ReadableBigDoubles storeWeights() {
+    return (weights != null) ? settings.getWeightStorage().store(weights) : new ConstantBigDoubles(1d, ptr);
+  }
+
+  /**
+   * Drop all references to the edge buffer, such that it may be garbage collected
+   */
+
+  void release() {
+    ptr = 0L;
+    capacity = 1L;
+    edges[0] = new BigInts(1L);
+    edges[1] = new BigInts(1L);
+    if (weights != null) weights = new BigDoubles(1L);
+  }
+
+  /**
+   * <p>Sort the edge buffer. Multiple instances of the same edge are ordered by weight, such that their aggregated weight
+   * doesn't depend on the insertion order.</p>
+   * <p>Edges are being sorted by a least significant digit radix sort, i.e. by a number of stable counting passes over
+   * the digits of first the right and then the left endpoints. Every pass moves all endpoints and weights into a
+   * scratch buffer of the same size, and both buffers switch roles afterwards. The input is being split into chunks
+   * that are being counted and scattered in parallel. Every chunk requires its own digit table, so the number of chunks
+   * is being limited such that all tables together hold at most <code>MAX_SORT_COUNTERS</code> counters, regardless of
+   * the number of processors. Since every chunk scatters into its own, precomputed range of every bucket, the result
+   * does not depend on the number of chunks. Finally, the weights of all runs of identical
+   * edges are being sorted.</p>
+   */
+
+  void sort() {
+    if (ptr == 0L) return;
+    int[] maxEndpoints = maxEndpoints();
+    RadixSortBuffers buffers = new RadixSortBuffers();
+    radixSort(buffers, 1, maxEndpoints[1]);
+    radixSort(buffers, 0, maxEndpoints[0]);
+    sortDuplicatesByWeight();
+  }
+
+  /**
+   * @return Array holding the largest left and right endpoint of all edges in the buffer
+   */
+
+  private int[] maxEndpoints() {
+    int[] max = new int[2];
+    for (long i = 0; i < ptr; i++) {
+      max[0] = Math.max(max[0], edges[0].get(i));
+      max[1] = Math.max(max[1], edges[1].get(i));
+    }
+    return max;
+  }
+
+  /**
+   * Stable sort of the edge buffer by one of the endpoints. Vertex ids are being split into as few digits of at most
+   * <code>MAX_RADIX_BITS</code> bits as possible.
+   *
+   * @param buffers   Sort buffers
+   * @param endpoint  0 for left or 1 for right endpoints
+   * @param maxVertex Largest vertex id of that endpoint
+   */
+
+  private void radixSort(RadixSortBuffers buffers, int endpoint, int maxVertex) {
+    int bits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(maxVertex));
+    int passes = (bits + MAX_RADIX_BITS - 1) / MAX_RADIX_BITS;
+    int digitBits = (bits + passes - 1) / passes;
+    for (int pass = 0; pass < passes; pass++) {
+      radixPass(buffers, endpoint, pass * digitBits, digitBits);
+    }
   }
 
   /**
-   * Sort the edge buffer
+   * A single stable counting pass over one digit of an endpoint. Moves all edges from the edge buffer into the scratch
+   * buffer and swaps both afterwards.
+   *
+   * @param buffers   Sort buffers
+   * @param endpoint  0 for left or 1 for right endpoints
+   * @param shift     Position of the digit's lowest bit
+   * @param digitBits Number of bits of the digit
    */
 
-  private void sort() {
-    EdgeSortOps ops = new EdgeSortOps();
-    BigArrays.mergeSort(0, ptr, ops, ops);
+  private void radixPass(RadixSortBuffers buffers, int endpoint, int shift, int digitBits) {
+    int mask = (1 << digitBits) - 1;
+    int maxChunks = Math.min(MAX_SORT_CHUNKS, MAX_SORT_COUNTERS >>> digitBits);
+    int chunks = (int) Math.max(1, Math.min(maxChunks, ptr / MIN_SORT_CHUNK_SIZE));
+    long chunkSize = (ptr + chunks - 1) / chunks;
+    BigInts keys = edges[endpoint];
+    long[][] offsets = new long[chunks][1 << digitBits];
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      long[] counts = offsets[c];
+      for (long i = c * chunkSize, end = Math.min(ptr, i + chunkSize); i < end; i++) {
+        counts[(keys.get(i) >>> shift) & mask]++;
+      }
+    });
+    long offset = 0L;
+    for (int digit = 0; digit <= mask; digit++) {
+      for (int c = 0; c < chunks; c++) {
+        long count = offsets[c][digit];
+        offsets[c][digit] = offset;
+        offset += count;
+      }
+    }
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      long[] cursors = offsets[c];
+      for (long i = c * chunkSize, end = Math.min(ptr, i + chunkSize); i < end; i++) {
+        buffers.move(i, cursors[(keys.get(i) >>> shift) & mask]++);
+      }
+    });
+    buffers.swap();
+  }
+
+  /**
+   * Sort the weights of all runs of identical edges. Requires the buffer to be sorted by endpoints.
+   */
+
+  private void sortDuplicatesByWeight() {
+    if (weights == null) return;
+    long runStart = 0L;
+    for (long i = 1; i <= ptr; i++) {
+      if (i == ptr || edges[0].get(i) != edges[0].get(runStart) || edges[1].get(i) != edges[1].get(runStart)) {
+        if (i - runStart > 1) {
+          BigArrays.quickSort(runStart, i, weights::compare, weights::swap);
+        }
+        runStart = i;
+      }
+    }
+  }
+
+  /**
+   * Allocate a big array of ints whose size is already fixed, such that it can be written concurrently
+   *
+   * @param size Size
+   * @return New array
+   */
+
+  private static BigInts presizedInts(long size) {
+    BigInts ints = new BigInts(size);
+    ints.set(size - 1, 0);
+    return ints;
+  }
+
+  /**
+   * Allocate a big array of doubles whose size is already fixed, such that it can be written concurrently
+   *
+   * @param size Size
+   * @return New array
+   */
+
+  private static BigDoubles presizedDoubles(long size) {
+    BigDoubles doubles = new BigDoubles(size);
+    doubles.set(size - 1, 0d);
+    return doubles;
+  }
+
+  /**
+   * Sort the edge buffer and reduce multiple occurrences of an edge to a single instance
+   */
+
+  void sortAndReduce() {
+    sort();
+    reduce();
+  }
+
+  /**
+   * Discard all edges from the buffer while retaining its capacity
+   */
+
+  void clear() {
+    ptr = 0L;
   }
 
   /**
@@ -181,7 +514,7 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
     if (ptr == 0) return;
 
     int[] currentEdge = new int[]{edges[0].get(0), edges[1].get(0)};
-    double currentValue = weights.get(0);
+    double currentValue = weight(0);
 
     int[] edge = new int[2];
     double val;
@@ -192,7 +525,7 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
 
       edge[0] = edges[0].get(scrollPtr);
       edge[1] = edges[1].get(scrollPtr);
-      val = weights.get(scrollPtr);
+      val = weight(scrollPtr);
 
       if (edge[0] == currentEdge[0] && edge[1] == currentEdge[1]) {
         currentValue += val;
@@ -209,6 +542,194 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
 
   }
 
+  /**
+   * <p>Only retain the heaviest edges of every vertex. The weight thresholds of all vertices are being computed in
+   * parallel. An edge is being retained if its weight reaches the threshold of any of its endpoints, which keeps the
+   * graph symmetric. Since every vertex retains its heaviest edge, the set of vertices doesn't change.</p>
+   * NOTE: This method assumes that the edge buffer has already been sorted and reduced!
+   *
+   * @param graphSize Size of the graph
+   */
+
+  private void sparsify(int graphSize) {
+    if (!settings.sparsifies()) return;
+    long[] pointers = computePointers(graphSize);
+    double[] thresholds = new double[graphSize];
+    IntStream.range(0, graphSize).parallel().forEach(u -> thresholds[u] = weightThreshold(pointers, u));
+    long writePtr = 0;
+    for (long i = 0; i < ptr; i++) {
+      int u = edges[0].get(i);
+      int v = edges[1].get(i);
+      double weight = weight(i);
+      if (u == v || weight >= thresholds[u] || weight >= thresholds[v]) set(writePtr++, u, v, weight);
+    }
+    LOG.debug("Sparsification retained {} of {} edges", writePtr, ptr);
+    ptr = writePtr;
+  }
+
+  /**
+   * Compute the minimum weight of all edges of a vertex that should be retained by sparsification
+   *
+   * @param pointers Vertex pointers
+   * @param u        Vertex
+   * @return Weight threshold
+   */
+
+  private double weightThreshold(long[] pointers, int u) {
+    double[] vertexWeights = new double[(int) (pointers[u + 1] - pointers[u])];
+    int degree = 0;
+    for (long i = pointers[u]; i < pointers[u + 1]; i++) {
+      if (edges[1].get(i) != u) vertexWeights[degree++] = weight(i);
+    }
+    if (degree == 0) return Double.POSITIVE_INFINITY;
+    Arrays.sort(vertexWeights, 0, degree);
+    int idx = 0;
+    int topKEdges = settings.getTopKEdges();
+    double edgeQuantile = settings.getEdgeQuantile();
+    if (topKEdges > 0) idx = Math.max(idx, degree - topKEdges);
+    if (edgeQuantile > 0d) idx = Math.max(idx, Math.min(degree - 1, (int) (edgeQuantile * degree)));
+    return vertexWeights[idx];
+  }
+
+  /**
+   * <p>Iteratively remove all vertices below the minimum degree or weight and assign consecutive ids to the remaining
+   * ones. Edges between remaining vertices are being retained in sorted order.</p>
+   * NOTE: This method assumes that the edge buffer has already been sorted and reduced!
+   *
+   * @param graphSize Size of the graph
+   * @return Array whose i-th entry is the new id of vertex i or -1 if it has been removed. <code>null</code> if pruning
+   * is disabled.
+   */
+
+  private int[] prune(int graphSize) {
+    if (!settings.prunes()) return null;
+    int minDegree = settings.getMinDegree();
+    double minVertexWeight = settings.getMinVertexWeight();
+    long[] pointers = computePointers(graphSize);
+    int[] degrees = new int[graphSize];
+    double[] vertexWeights = new double[graphSize];
+    IntStream.range(0, graphSize).parallel().forEach(u -> {
+      for (long i = pointers[u]; i < pointers[u + 1]; i++) {
+        if (edges[1].get(i) != u) {
+          degrees[u]++;
+          vertexWeights[u] += weight(i);
+        }
+      }
+    });
+    boolean[] removed = new boolean[graphSize];
+    int[] queue = new int[graphSize];
+    int queueEnd = 0;
+    for (int u = 0; u < graphSize; u++) {
+      if (degrees[u] < minDegree || vertexWeights[u] < minVertexWeight) {
+        removed[u] = true;
+        queue[queueEnd++] = u;
+      }
+    }
+    for (int queuePtr = 0; queuePtr < queueEnd; queuePtr++) {
+      int u = queue[queuePtr];
+      for (long i = pointers[u]; i < pointers[u + 1]; i++) {
+        int v = edges[1].get(i);
+        if (v == u || removed[v]) continue;
+        degrees[v]--;
+        vertexWeights[v] -= weight(i);
+        if (degrees[v] < minDegree || vertexWeights[v] < minVertexWeight) {
+          removed[v] = true;
+          queue[queueEnd++] = v;
+        }
+      }
+    }
+    int[] mapping = new int[graphSize];
+    int numVertices = 0;
+    for (int u = 0; u < graphSize; u++) {
+      mapping[u] = removed[u] ? -1 : numVertices++;
+    }
+    long writePtr = 0;
+    for (long i = 0; i < ptr; i++) {
+      int u = mapping[edges[0].get(i)];
+      int v = mapping[edges[1].get(i)];
+      if (u >= 0 && v >= 0) set(writePtr++, u, v, weight(i));
+    }
+    LOG.debug("Pruned {} of {} vertices", graphSize - numVertices, graphSize);
+    ptr = writePtr;
+    return mapping;
+  }
+
+  /**
+   * Combine the vertex mappings from pruning and reordering
+   *
+   * @param pruning Mapping from pruning or <code>null</code>
+   * @param order   Permutation of the remaining vertices or <code>null</code>
+   * @return Array whose i-th entry is the final id of vertex i or -1 if it has been removed
+   */
+
+  private static int[] compose(int[] pruning, int[] order) {
+    if (pruning == null) return order;
+    if (order != null) {
+      for (int i = 0; i < pruning.length; i++) {
+        if (pruning[i] >= 0) pruning[i] = order[pruning[i]];
+      }
+    }
+    return pruning;
+  }
+
+  /**
+   * Assign new ids to the endpoints of all edges in the buffer. The buffer needs to be sorted again afterwards.
+   *
+   * @param permutation Array whose i-th entry is the new id of vertex i
+   */
+
+  private void relabel(int[] permutation) {
+    for (long i = 0; i < ptr; i++) {
+      edges[0].set(i, permutation[edges[0].get(i)]);
+      edges[1].set(i, permutation[edges[1].get(i)]);
+    }
+  }
+
+  /**
+   * @return Number of edges in the buffer
+   */
+
+  long bufferSize() {
+    return ptr;
+  }
+
+  /**
+   * Set the number of edges in the buffer after they have been written using {@link #set(long, int, int, double)}
+   *
+   * @param size Number of edges
+   */
+
+  void setBufferSize(long size) {
+    ptr = size;
+  }
+
+  /**
+   * @param idx Index within the edge buffer
+   * @return Left endpoint of the edge at the given index
+   */
+
+  int leftEndpoint(long idx) {
+    return edges[0].get(idx);
+  }
+
+  /**
+   * @param idx Index within the edge buffer
+   * @return Right endpoint of the edge at the given index
+   */
+
+  int rightEndpoint(long idx) {
+    return edges[1].get(idx);
+  }
+
+  /**
+   * @param idx Index within the edge buffer
+   * @return Weight of the edge at the given index
+   */
+
+  double weight(long idx) {
+    return (weights != null) ? weights.get(idx) : 1d;
+  }
+
   /**
    * Shrink the buffer down to its minimum size
    */
@@ -246,37 +767,52 @@ public class CompressedSparseGraphBuilder implements Graph.Builder {
   }
 
   /**
-   * Edge buffer implementation of SortOps
+   * Internal: Scratch buffers for radix sorting the edge buffer. Swapping exchanges the scratch buffers with the
+   * builder's edge buffer (including its capacity), such that the builder always refers to the most recently written
+   * buffers.
    */
 
-  private class EdgeSortOps implements LongComparator, BigSwapper {
+  private class RadixSortBuffers {
+
+    private final BigInts[] scratchEdges;
+    private BigDoubles scratchWeights;
+    private long scratchCapacity;
+
+    RadixSortBuffers() {
+      this.scratchEdges = new BigInts[]{presizedInts(ptr), presizedInts(ptr)};
+      this.scratchWeights = (weights != null) ? presizedDoubles(ptr) : null;
+      this.scratchCapacity = ptr;
+    }
 
     /**
-     * Compare two edges by (1) left node (2) right node
+     * Move an edge from the edge buffer into the scratch buffer
      *
-     * @param idx1 Index of the first edge in the buffer
-     * @param idx2 Index of the second edge in the buffer
-     * @return -1 if first edge &lt; second edge, 0 if equal, 1 else
+     * @param from Index within the edge buffer
+     * @param to   Index within the scratch buffer
      */
 
-    @Override
-    public int compare(long idx1, long idx2) {
-      int c = edges[0].compare(idx1, idx2);
-      return c != 0 ? c : edges[1].compare(idx1, idx2);
+    void move(long from, long to) {
+      scratchEdges[0].set(to, edges[0].get(from));
+      scratchEdges[1].set(to, edges[1].get(from));
+      if (weights != null) scratchWeights.set(to, weights.get(from));
     }
 
     /**
-     * Swap two edges within the edge buffer
-     *
-     * @param idx1 Index of the first edge
-     * @param idx2 Index of the second edge
+     * Exchange the edge buffer and the scratch buffer
      */
 
-    @Override
-    public void swap(long idx1, long idx2) {
-      edges[0].swap(idx1, idx2);
-      edges[1].swap(idx1, idx2);
-      weights.swap(idx1, idx2);
+    void swap() {
+      for (int i = 0; i < 2; i++) {
+        BigInts tmp = edges[i];
+        edges[i] = scratchEdges[i];
+        scratchEdges[i] = tmp;
+      }
+      BigDoubles tmpWeights = weights;
+      weights = scratchWeights;
+      scratchWeights = tmpWeights;
+      long tmpCapacity = capacity;
+      capacity = scratchCapacity;
+      scratchCapacity = tmpCapacity;
     }
 
   }
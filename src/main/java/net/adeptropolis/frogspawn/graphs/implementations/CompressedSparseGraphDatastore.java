@@ -7,6 +7,8 @@ package net.adeptropolis.frogspawn.graphs.implementations;
 
 import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigDoubles;
 import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigInts;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ReadableBigDoubles;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ReadableBigInts;
 
 import java.io.Serializable;
 
@@ -23,6 +25,11 @@ import java.io.Serializable;
  * offset pointer within the right endpoints array from (1)</li>
  * <li><code>weights</code> Array containing the edge weights</li>
  * </ol>
+ * <p>Edges and weights may either reside on the heap (as created by {@link CompressedSparseGraphBuilder}) or in
+ * memory-mapped files (see {@link CompressedSparseGraphFile}). Weights may also be stored with reduced precision (see
+ * {@link WeightStorage}). The public <code>edges</code> and <code>weights</code> fields are only being populated for
+ * heap-based storage of double-precision weights, whereas {@link #edges()} and {@link #weights()} provide access to
+ * any kind of storage.</p>
  */
 
 public class CompressedSparseGraphDatastore implements Serializable {
@@ -32,6 +39,8 @@ public class CompressedSparseGraphDatastore implements Serializable {
   public final long[] pointers;
   public final BigInts edges;
   public final BigDoubles weights;
+  private final ReadableBigInts edgeStorage;
+  private final ReadableBigDoubles weightStorage;
   private final int size;
   private final long edgeCount;
 
@@ -45,12 +54,30 @@ public class CompressedSparseGraphDatastore implements Serializable {
    * @param weights   Edge weights
    */
 
-  CompressedSparseGraphDatastore(int size, long edgeCount, long[] pointers, BigInts edges, BigDoubles weights) {
+  CompressedSparseGraphDatastore(int size, long edgeCount, long[] pointers, ReadableBigInts edges, ReadableBigDoubles weights) {
     this.size = size;
     this.edgeCount = edgeCount;
     this.pointers = pointers;
-    this.edges = edges;
-    this.weights = weights;
+    this.edges = (edges instanceof BigInts) ? (BigInts) edges : null;
+    this.weights = (weights instanceof BigDoubles) ? (BigDoubles) weights : null;
+    this.edgeStorage = edges;
+    this.weightStorage = weights;
+  }
+
+  /**
+   * @return Right endpoints of all edges, regardless of their storage
+   */
+
+  public ReadableBigInts edges() {
+    return edgeStorage;
+  }
+
+  /**
+   * @return Edge weights, regardless of their storage
+   */
+
+  public ReadableBigDoubles weights() {
+    return weightStorage;
   }
 
   /**
@@ -69,4 +96,15 @@ public class CompressedSparseGraphDatastore implements Serializable {
     return edgeCount;
   }
 
+  /**
+   * Internal: Restore datastores that have been serialized before edges and weights were kept separately from the
+   * public fields
+   *
+   * @return This datastore or an equivalent one with the storage fields populated
+   */
+
+  private Object readResolve() {
+    return (edgeStorage != null) ? this : new CompressedSparseGraphDatastore(size, edgeCount, pointers, edges, weights);
+  }
+
 }
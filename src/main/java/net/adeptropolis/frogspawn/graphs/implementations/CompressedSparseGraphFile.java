@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.MappedBigDoubles;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.MappedBigInts;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Memory-mapped storage for compressed sparse graphs</p>
+ * <p>A graph file is a flat little-endian dump of the CSR datastore:</p>
+ * <ol>
+ * <li>Header: magic number (8 bytes), format version (4 bytes), number of vertices <code>n</code> (4 bytes) and
+ * number of edges <code>m</code> (8 bytes)</li>
+ * <li><code>n + 1</code> vertex pointers (8 bytes each)</li>
+ * <li><code>m</code> right endpoints (4 bytes each), padded to a multiple of 8 bytes</li>
+ * <li><code>m</code> edge weights (8 bytes each)</li>
+ * </ol>
+ * <p>Opening a graph file only loads the vertex pointers into the heap. Edges and weights are being mapped into memory,
+ * i.e. they are paged in on demand and may be shared between multiple JVMs through the OS page cache.</p>
+ */
+
+public class CompressedSparseGraphFile {
+
+  private static final long MAGIC = 0x46524F4753504157L;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 24;
+  private static final int BUFFER_SIZE = 1 << 20;
+  private static final int POINTER_CHUNK_SIZE = 1 << 27;
+
+  private CompressedSparseGraphFile() {
+  }
+
+  /**
+   * Write a graph to file
+   *
+   * @param graph A graph
+   * @param file  Output file
+   * @throws GraphStorageException if the graph could not be written
+   */
+
+  public static void write(CompressedSparseGraph graph, File file) {
+    CompressedSparseGraphDatastore datastore = graph.getDatastore();
+    long edgeCount = datastore.edges().size();
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      buf.putLong(MAGIC).putInt(VERSION).putInt(datastore.size()).putLong(edgeCount);
+      for (int i = 0; i <= datastore.size(); i++) {
+        ensureCapacity(channel, buf, Long.BYTES).putLong(datastore.size() > 0 ? datastore.pointers[i] : 0L);
+      }
+      for (long i = 0; i < edgeCount; i++) {
+        ensureCapacity(channel, buf, Integer.BYTES).putInt(datastore.edges().get(i));
+      }
+      if (edgeCount % 2 != 0) {
+        ensureCapacity(channel, buf, Integer.BYTES).putInt(0);
+      }
+      for (long i = 0; i < edgeCount; i++) {
+        ensureCapacity(channel, buf, Double.BYTES).putDouble(datastore.weights().get(i));
+      }
+      flush(channel, buf);
+    } catch (IOException e) {
+      throw new GraphStorageException(e);
+    }
+  }
+
+  /**
+   * Open a graph file
+   *
+   * @param file A graph file
+   * @return A graph whose edges and weights are backed by the memory-mapped file
+   * @throws GraphStorageException if the file could not be opened or is not a valid graph file
+   */
+
+  public static CompressedSparseGraph open(File file) {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          break;
+        }
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getLong() != MAGIC) {
+        throw new GraphStorageException(String.format("%s is not a graph file", file));
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new GraphStorageException(String.format("Unsupported graph file version %d", version));
+      }
+      int size = header.getInt();
+      long edgeCount = header.getLong();
+      long edgesOffset = HEADER_BYTES + Long.BYTES * (size + 1L);
+      long weightsOffset = edgesOffset + Long.BYTES * ((edgeCount + 1) / 2);
+      if (channel.size() != weightsOffset + Double.BYTES * edgeCount) {
+        throw new GraphStorageException(String.format("Graph file %s is truncated or corrupt", file));
+      }
+      long[] pointers = readPointers(channel, size);
+      return new CompressedSparseGraph(new CompressedSparseGraphDatastore(size, edgeCount, pointers,
+              MappedBigInts.map(channel, edgesOffset, edgeCount),
+              MappedBigDoubles.map(channel, weightsOffset, edgeCount)));
+    } catch (IOException e) {
+      throw new GraphStorageException(e);
+    }
+  }
+
+  /**
+   * Read the vertex pointers into the heap
+   *
+   * @param channel File channel
+   * @param size    Number of vertices
+   * @return Vertex pointers
+   * @throws IOException if the pointers could not be read
+   */
+
+  private static long[] readPointers(FileChannel channel, int size) throws IOException {
+    if (size == 0) {
+      return new long[0];
+    }
+    long[] pointers = new long[size + 1];
+    for (int from = 0; from < pointers.length; from += POINTER_CHUNK_SIZE) {
+      int count = Math.min(POINTER_CHUNK_SIZE, pointers.length - from);
+      LongBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + (long) Long.BYTES * from, (long) Long.BYTES * count)
+              .order(ByteOrder.LITTLE_ENDIAN)
+              .asLongBuffer();
+      chunk.get(pointers, from, count);
+    }
+    return pointers;
+  }
+
+  /**
+   * Flush the write buffer if it can't hold a given number of bytes
+   *
+   * @param channel Output channel
+   * @param buf     Write buffer
+   * @param bytes   Number of bytes to be written
+   * @return The write buffer
+   * @throws IOException if the buffer could not be flushed
+   */
+
+  private static ByteBuffer ensureCapacity(FileChannel channel, ByteBuffer buf, int bytes) throws IOException {
+    if (buf.remaining() < bytes) {
+      flush(channel, buf);
+    }
+    return buf;
+  }
+
+  /**
+   * Write all buffered data to the output channel
+   *
+   * @param channel Output channel
+   * @param buf     Write buffer
+   * @throws IOException if the data could not be written
+   */
+
+  private static void flush(FileChannel channel, ByteBuffer buf) throws IOException {
+    buf.flip();
+    while (buf.hasRemaining()) {
+      channel.write(buf);
+    }
+    buf.clear();
+  }
+
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import it.unimi.dsi.fastutil.ints.IntHeapPriorityQueue;
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigDoubles;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigInts;
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Build compressed sparse graphs from edge sets that don't fit into memory</p>
+ * <p>Edges are being collected in an in-memory buffer of limited size. Whenever the buffer is full, it is being sorted,
+ * reduced and spilled to a temporary file as a sorted run. Upon building, all runs are being k-way merged straight into
+ * the final datastore, aggregating the weights of edges that occur in multiple runs. Only the final graph needs to fit
+ * into memory: the datastore is being grown one bin at a time while merging, so its capacity never exceeds the number of
+ * merged edges by more than a single bin, regardless of how many duplicates are spread across runs.</p>
+ * <p>Since runs are pre-reduced, the weights of edges that occur more than once may differ from those computed by
+ * {@link CompressedSparseGraphBuilder} in their last bits, depending on how the edges were distributed over runs.</p>
+ * <p>Run files are being removed once the graph has been built. Builders that are abandoned before, e.g. because adding
+ * an edge failed, should be closed to remove their runs. Run files that are left behind nevertheless are being removed
+ * upon JVM exit.</p>
+ */
+
+public class ExternalMemoryGraphBuilder implements Graph.Builder, AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ExternalMemoryGraphBuilder.class.getSimpleName());
+  /**
+   * Two endpoints and a weight per buffered edge, plus the same amount for the scratch buffer that sorting the edge
+   * buffer requires (see {@link CompressedSparseGraphBuilder#sort()})
+   */
+  private static final long BYTES_PER_EDGE = 2 * 16L;
+  private static final int IO_BUFFER_SIZE = 1 << 16;
+  private static final long MERGE_GROW_SIZE = 1L << BigInts.BIN_BITS;
+
+  private final File tempDir;
+  private final long runCapacity;
+  private final CompressedSparseGraphBuilder buffer;
+  private final List<Run> runs = new ArrayList<>();
+  private GraphBuildSettings settings = GraphBuildSettings.DEFAULT;
+  private int maxVertex = -1;
+
+  /**
+   * Constructor
+   *
+   * @param memoryBudget Maximum number of bytes being used by the in-memory edge buffer, including the scratch buffer
+   *                     that is being allocated for sorting it
+   * @param tempDir      Directory for temporary files
+   * @param minWeight    Minimum edge weight. Weights below this value cause a <code>GraphConstructionException</code>
+   */
+
+  public ExternalMemoryGraphBuilder(long memoryBudget, File tempDir, double minWeight) {
+    this.tempDir = tempDir;
+    this.runCapacity = Math.max(1L, memoryBudget / BYTES_PER_EDGE);
+    this.buffer = new CompressedSparseGraphBuilder(runCapacity, minWeight);
+  }
+
+  /**
+   * Constructor using the system's default temp directory and a minimum edge weight of 1
+   *
+   * @param memoryBudget Maximum number of bytes being used by the in-memory edge buffer, including the scratch buffer
+   *                     that is being allocated for sorting it
+   */
+
+  public ExternalMemoryGraphBuilder(long memoryBudget) {
+    this(memoryBudget, new File(System.getProperty("java.io.tmpdir")), 1d);
+  }
+
+  /**
+   * Set the weight storage and logging of the resulting graph. Default is <code>GraphBuildSettings.DEFAULT</code>
+   *
+   * @param settings Build settings. Vertex ordering, sparsification and pruning are not supported
+   * @return this
+   * @throws GraphConstructionException if the settings request vertex ordering, sparsification or pruning
+   * @see CompressedSparseGraphBuilder#withSettings(GraphBuildSettings)
+   */
+
+  public ExternalMemoryGraphBuilder withSettings(GraphBuildSettings settings) {
+    if (settings.restructures()) {
+      throw new GraphConstructionException("ExternalMemoryGraphBuilder does not support vertex ordering, sparsification or pruning");
+    }
+    this.settings = settings;
+    return this;
+  }
+
+  /**
+   * Add a new undirected edge to the graph.
+   *
+   * @param u      left vertex
+   * @param v      right vertex
+   * @param weight edge weight
+   * @return this
+   */
+
+  @Override
+  @SuppressWarnings("squid:S2234")
+  public ExternalMemoryGraphBuilder add(int u, int v, double weight) {
+    addDirected(u, v, weight);
+    if (u != v) addDirected(v, u, weight);
+    return this;
+  }
+
+  /**
+   * Add a new directed edge to the graph.
+   *
+   * @param u      left vertex
+   * @param v      right vertex
+   * @param weight edge weight
+   * @return this
+   */
+
+  @Override
+  public ExternalMemoryGraphBuilder addDirected(int u, int v, double weight) {
+    buffer.addDirected(u, v, weight);
+    maxVertex = Math.max(maxVertex, u);
+    if (buffer.bufferSize() >= runCapacity) {
+      spill();
+    }
+    return this;
+  }
+
+  /**
+   * @return Number of runs that have been spilled to disk so far
+   */
+
+  int numRuns() {
+    return runs.size();
+  }
+
+  /**
+   * Build the graph. All temporary files are being removed afterwards, even if building fails.
+   *
+   * @return A new immutable Graph instance
+   */
+
+  @Override
+  public CompressedSparseGraph build() {
+    return new CompressedSparseGraph(buildDatastore());
+  }
+
+  /**
+   * Build the main datastore
+   *
+   * @return a new graph datastore
+   */
+
+  CompressedSparseGraphDatastore buildDatastore() {
+    if (runs.isEmpty()) {
+      return buffer.withSettings(settings).buildDatastore();
+    }
+    StopWatch stopWatch = new StopWatch();
+    stopWatch.start();
+    try {
+      spill();
+      CompressedSparseGraphDatastore datastore = merge();
+      stopWatch.stop();
+      if (settings.isVerboseLogging()) {
+        LOG.info("Finished building graph with {} vertices and {} edges from {} runs in {}",
+                datastore.size(), datastore.edgeCount(), runs.size(), stopWatch);
+      } else {
+        LOG.debug("Finished building graph with {} vertices and {} edges from {} runs in {}",
+                datastore.size(), datastore.edgeCount(), runs.size(), stopWatch);
+      }
+      return datastore;
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Discard all runs that have been spilled so far and remove their files. Closing a builder more than once has no
+   * effect.
+   */
+
+  @Override
+  public void close() {
+    runs.forEach(run -> run.file.delete());
+    runs.clear();
+  }
+
+  /**
+   * Sort and reduce the in-memory buffer and write it to a new run file. Runs are only being registered once they have
+   * been written completely, otherwise their file is being removed right away.
+   */
+
+  private void spill() {
+    if (buffer.bufferSize() == 0) {
+      return;
+    }
+    buffer.sortAndReduce();
+    File file = null;
+    try {
+      file = Files.createTempFile(tempDir.toPath(), "frogspawn-run-", ".bin").toFile();
+      file.deleteOnExit();
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), IO_BUFFER_SIZE))) {
+        for (long i = 0; i < buffer.bufferSize(); i++) {
+          out.writeInt(buffer.leftEndpoint(i));
+          out.writeInt(buffer.rightEndpoint(i));
+          out.writeDouble(buffer.weight(i));
+        }
+      }
+      runs.add(new Run(file, buffer.bufferSize()));
+    } catch (IOException e) {
+      if (file != null) {
+        file.delete();
+      }
+      throw new GraphStorageException(e);
+    }
+    LOG.debug("Spilled run {} with {} edges", runs.size(), buffer.bufferSize());
+    buffer.clear();
+  }
+
+  /**
+   * k-way merge all runs into a new datastore
+   *
+   * @return a new graph datastore
+   */
+
+  private CompressedSparseGraphDatastore merge() {
+    int graphSize = maxVertex + 1;
+    long[] pointers = new long[graphSize + 1];
+    long capacity = MERGE_GROW_SIZE;
+    BigInts edges = new BigInts(capacity);
+    BigDoubles weights = new BigDoubles(capacity);
+    List<RunReader> readers = new ArrayList<>();
+    try {
+      for (Run run : runs) {
+        readers.add(new RunReader(run));
+      }
+      IntHeapPriorityQueue queue = new IntHeapPriorityQueue((i, j) -> readers.get(i).compareTo(readers.get(j)));
+      for (int i = 0; i < readers.size(); i++) {
+        if (readers.get(i).advance()) queue.enqueue(i);
+      }
+      long ptr = -1;
+      int currentVertex = -1;
+      while (!queue.isEmpty()) {
+        RunReader reader = readers.get(queue.firstInt());
+        if (ptr >= 0 && reader.u == currentVertex && reader.v == edges.get(ptr)) {
+          weights.set(ptr, weights.get(ptr) + reader.weight);
+        } else {
+          ptr++;
+          if (ptr >= capacity) {
+            capacity += MERGE_GROW_SIZE;
+            edges.resize(capacity);
+            weights.resize(capacity);
+          }
+          while (currentVertex < reader.u) pointers[++currentVertex] = ptr;
+          edges.set(ptr, reader.v);
+          weights.set(ptr, reader.weight);
+        }
+        if (reader.advance()) {
+          queue.changed();
+        } else {
+          queue.dequeueInt();
+        }
+      }
+      long numEdges = ptr + 1;
+      while (currentVertex < graphSize) pointers[++currentVertex] = numEdges;
+      edges.resize(numEdges);
+      weights.resize(numEdges);
+      return new CompressedSparseGraphDatastore(graphSize, numEdges, pointers, edges, settings.getWeightStorage().store(weights));
+    } catch (IOException e) {
+      throw new GraphStorageException(e);
+    } finally {
+      for (RunReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  /**
+   * A sorted run that has been spilled to disk
+   */
+
+  private static class Run {
+
+    private final File file;
+    private final long numEdges;
+
+    /**
+     * Constructor
+     *
+     * @param file     Run file
+     * @param numEdges Number of edges in the run
+     */
+
+    Run(File file, long numEdges) {
+      this.file = file;
+      this.numEdges = numEdges;
+    }
+
+  }
+
+  /**
+   * Sequential reader for a single run
+   */
+
+  private static class RunReader implements Comparable<RunReader> {
+
+    private final DataInputStream in;
+    private long remaining;
+    private int u;
+    private int v;
+    private double weight;
+
+    /**
+     * Constructor
+     *
+     * @param run A run
+     * @throws IOException if the file could not be opened
+     */
+
+    RunReader(Run run) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run.file), IO_BUFFER_SIZE));
+      this.remaining = run.numEdges;
+    }
+
+    /**
+     * Read the next edge
+     *
+     * @return <code>false</code> if the run is exhausted
+     * @throws IOException if the run could not be read
+     */
+
+    boolean advance() throws IOException {
+      if (remaining == 0) {
+        return false;
+      }
+      remaining--;
+      u = in.readInt();
+      v = in.readInt();
+      weight = in.readDouble();
+      return true;
+    }
+
+    /**
+     * Compare the current edges of two runs by (1) left node (2) right node (3) weight
+     *
+     * @param other Another run
+     * @return -1 if this edge &lt; other edge, 0 if equal, 1 else
+     */
+
+    @Override
+    public int compareTo(RunReader other) {
+      int c = Integer.compare(u, other.u);
+      if (c != 0) return c;
+      c = Integer.compare(v, other.v);
+      return (c != 0) ? c : Double.compare(weight, other.weight);
+    }
+
+    /**
+     * Close the underlying file
+     */
+
+    void close() {
+      try {
+        in.close();
+      } catch (IOException e) {
+        LOG.warn("Unable to close run file", e);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ReadableBigInts;
+
+import java.io.Serializable;
+
+/**
+ * <p>Gap-compressed adjacency lists</p>
+ * <p>Since the neighbours of every vertex are sorted, they are stored as sequence of gaps, each being encoded as
+ * variable-length integer (7 bits per byte). The first neighbour of vertex <code>v</code> is stored relative to
+ * <code>v</code> itself (zig-zag encoded), all further neighbours relative to their predecessor. Both strategies
+ * are taken from WebGraph, i.e. graphs with some locality usually require 1-2 bytes per edge instead of 4.</p>
+ * <p>Adjacency lists can only be decoded sequentially using a {@link Cursor}.</p>
+ */
+
+public class GapCompressedAdjacency implements Serializable {
+
+  static final long serialVersionUID = -2150911520964287717L;
+
+  private static final int BIN_BITS = 24;
+  private static final long BIN_MASK = (1L << BIN_BITS) - 1;
+
+  private final byte[][] bins;
+  private final long[] offsets;
+
+  /**
+   * Constructor
+   *
+   * @param bins    Encoded adjacency lists
+   * @param offsets Byte offsets of the individual adjacency lists
+   */
+
+  private GapCompressedAdjacency(byte[][] bins, long[] offsets) {
+    this.bins = bins;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Encode the adjacency lists of a CSR datastore
+   *
+   * @param pointers Vertex pointers
+   * @param edges    Sorted right endpoints of all edges
+   * @param size     Number of vertices
+   * @return Compressed adjacency lists
+   */
+
+  static GapCompressedAdjacency encode(long[] pointers, ReadableBigInts edges, int size) {
+    long[] offsets = new long[size + 1];
+    for (int v = 0; v < size; v++) {
+      long bytes = 0;
+      int prev = -1;
+      for (long ptr = pointers[v]; ptr < pointers[v + 1]; ptr++) {
+        bytes += varIntLength(gap(v, prev, edges.get(ptr)));
+        prev = edges.get(ptr);
+      }
+      offsets[v + 1] = offsets[v] + bytes;
+    }
+    byte[][] bins = new byte[(int) ((offsets[size] + BIN_MASK) >> BIN_BITS)][];
+    for (int i = 0; i < bins.length; i++) {
+      bins[i] = new byte[(int) Math.min(1L << BIN_BITS, offsets[size] - ((long) i << BIN_BITS))];
+    }
+    long pos = 0;
+    for (int v = 0; v < size; v++) {
+      int prev = -1;
+      for (long ptr = pointers[v]; ptr < pointers[v + 1]; ptr++) {
+        int gap = gap(v, prev, edges.get(ptr));
+        while ((gap & ~0x7F) != 0) {
+          bins[(int) (pos >> BIN_BITS)][(int) (pos & BIN_MASK)] = (byte) ((gap & 0x7F) | 0x80);
+          pos++;
+          gap >>>= 7;
+        }
+        bins[(int) (pos >> BIN_BITS)][(int) (pos & BIN_MASK)] = (byte) gap;
+        pos++;
+        prev = edges.get(ptr);
+      }
+    }
+    return new GapCompressedAdjacency(bins, offsets);
+  }
+
+  /**
+   * Compute the (unsigned) gap between a neighbour and its predecessor
+   *
+   * @param v         Vertex whose adjacency list is being encoded
+   * @param prev      Previous neighbour or -1 if this is the first neighbour
+   * @param neighbour Current neighbour
+   * @return Gap
+   */
+
+  private static int gap(int v, int prev, int neighbour) {
+    if (prev < 0) {
+      int delta = neighbour - v;
+      return (delta << 1) ^ (delta >> 31);
+    }
+    return neighbour - prev - 1;
+  }
+
+  /**
+   * @param value An (unsigned) int
+   * @return Number of bytes required to encode the given value
+   */
+
+  private static int varIntLength(int value) {
+    int length = 1;
+    while ((value & ~0x7F) != 0) {
+      value >>>= 7;
+      length++;
+    }
+    return length;
+  }
+
+  /**
+   * @return Number of bytes used for all adjacency lists
+   */
+
+  public long bytes() {
+    return offsets[offsets.length - 1];
+  }
+
+  /**
+   * Create a cursor for decoding the adjacency list of a given vertex
+   *
+   * @param v A vertex
+   * @return New cursor
+   */
+
+  Cursor cursor(int v) {
+    return new Cursor(v);
+  }
+
+  /**
+   * Sequential decoder for a single adjacency list. Callers must not read beyond the vertex degree.
+   */
+
+  class Cursor {
+
+    private final int v;
+    private int binIdx;
+    private byte[] bin;
+    private int idx;
+    private int prev = -1;
+
+    /**
+     * Constructor
+     *
+     * @param v Vertex whose adjacency list should be decoded
+     */
+
+    private Cursor(int v) {
+      this.v = v;
+      this.binIdx = (int) (offsets[v] >> BIN_BITS);
+      this.idx = (int) (offsets[v] & BIN_MASK);
+      this.bin = (binIdx < bins.length) ? bins[binIdx] : null;
+    }
+
+    /**
+     * @return Next neighbour
+     */
+
+    int next() {
+      int gap = 0;
+      int shift = 0;
+      byte b;
+      do {
+        if (idx == bin.length) {
+          bin = bins[++binIdx];
+          idx = 0;
+        }
+        b = bin[idx++];
+        gap |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      if (prev < 0) {
+        prev = v + ((gap >>> 1) ^ -(gap & 1));
+      } else {
+        prev += gap + 1;
+      }
+      return prev;
+    }
+
+  }
+
+}
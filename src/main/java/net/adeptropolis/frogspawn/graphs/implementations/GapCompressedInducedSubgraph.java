@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntIterators;
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.VertexIterator;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.InterpolationSearch;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ReadableBigDoubles;
+import net.adeptropolis.frogspawn.graphs.traversal.EdgeAccumulator;
+import net.adeptropolis.frogspawn.graphs.traversal.EdgeConsumer;
+import net.adeptropolis.frogspawn.graphs.traversal.ParallelEdgeOps;
+import net.adeptropolis.frogspawn.graphs.traversal.TraversalMode;
+
+import java.io.Serializable;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>Induced subgraph of a <code>GapCompressedSparseGraph</code></p>
+ * <p>Since gap-compressed adjacency lists can only be decoded sequentially, traversing the neighbours of a vertex
+ * always requires decoding its full global adjacency list. The decoded neighbours are then being merged with the
+ * subgraph's sorted vertex set. Instead of stepping through the vertex set one by one, the merge gallops ahead to the
+ * next candidate, such that sparse adjacency lists don't need to touch every vertex of large subgraphs.</p>
+ */
+
+public class GapCompressedInducedSubgraph extends Graph implements Serializable {
+
+  static final long serialVersionUID = -4473340380617361298L;
+
+  private final long[] pointers;
+  private final GapCompressedAdjacency adjacency;
+  private final ReadableBigDoubles weights;
+  private final int[] vertices;
+  private long cachedNumEdges = -1L;
+  private transient long[] cachedTraversalCosts = null;
+
+  /**
+   * Constructor
+   *
+   * @param pointers  Vertex pointers of the underlying graph
+   * @param adjacency Adjacency lists of the underlying graph
+   * @param weights   Edge weights of the underlying graph
+   * @param vertices  An iterator of global vertex ids
+   */
+
+  GapCompressedInducedSubgraph(long[] pointers, GapCompressedAdjacency adjacency, ReadableBigDoubles weights, IntIterator vertices) {
+    this.pointers = pointers;
+    this.adjacency = adjacency;
+    this.weights = weights;
+    this.vertices = IntIterators.unwrap(vertices);
+    Arrays.parallelSort(this.vertices, 0, order());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int order() {
+    return vertices.length;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public long size() {
+    if (cachedNumEdges < 0) {
+      cachedNumEdges = accumulateParallel(EdgeCountingAccumulator::new).count;
+    }
+    return cachedNumEdges;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public VertexIterator vertexIterator() {
+    return new SubgraphVertexIterator().reset(vertices);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int[] collectVertices() {
+    return vertices.clone();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public IntIterator globalVertexIdIterator() {
+    return IntIterators.wrap(vertices);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public void traverseParallel(EdgeConsumer consumer) {
+    ParallelEdgeOps.traverse(this, consumer, TraversalMode.DEFAULT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public void traverseIncidentEdges(int v, EdgeConsumer consumer, TraversalMode mode) {
+
+    if (order() == 0 || v < 0) {
+      return;
+    }
+
+    int globalId = globalVertexId(v);
+    long low = pointers[globalId];
+    long high = pointers[globalId + 1];
+
+    GapCompressedAdjacency.Cursor cursor = adjacency.cursor(globalId);
+    int secPtr = 0;
+
+    for (long ptr = low; ptr < high && secPtr < order(); ptr++) {
+
+      int neighbour = cursor.next();
+      secPtr = gallop(vertices, neighbour, secPtr);
+      if (secPtr >= order() || vertices[secPtr] != neighbour) {
+        continue;
+      }
+
+      if (mode == TraversalMode.LOWER_TRIANGULAR && v < secPtr) {
+        break;
+      }
+
+      consumer.accept(v, secPtr, weights.get(ptr));
+      secPtr++;
+    }
+  }
+
+  /**
+   * Exponential search for the first element of a sorted array that is not smaller than a given key
+   *
+   * @param array A sorted array
+   * @param key   Search key
+   * @param from  First index to be considered
+   * @return Index of the first element <code>&gt;= key</code> at or after <code>from</code>, or the array length if
+   * there is no such element
+   */
+
+  private static int gallop(int[] array, int key, int from) {
+    if (from >= array.length || array[from] >= key) {
+      return from;
+    }
+    int low = from;
+    int step = 1;
+    while (low + step < array.length && array[low + step] < key) {
+      low += step;
+      step <<= 1;
+    }
+    int high = Math.min(array.length, low + step);
+    low++;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (array[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Every traversal decodes the full global adjacency list of a vertex. Thus, its cost is proportional to the global
+   * degree (plus some constant overhead).
+   *
+   * @return Cumulative traversal costs
+   */
+
+  @Override
+  public LongBuffer traversalCosts() {
+    if (cachedTraversalCosts == null) {
+      long[] costs = new long[order() + 1];
+      for (int i = 0; i < order(); i++) {
+        costs[i + 1] = costs[i] + pointers[vertices[i] + 1] - pointers[vertices[i]] + 1;
+      }
+      cachedTraversalCosts = costs;
+    }
+    return LongBuffer.wrap(cachedTraversalCosts).asReadOnlyBuffer();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int localVertexId(int globalVertexId) {
+    return InterpolationSearch.search(vertices, globalVertexId, 0, order() - 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int globalVertexId(int localVertexId) {
+    return vertices[localVertexId];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public Graph inducedSubgraph(IntIterator vertices) {
+    return new GapCompressedInducedSubgraph(pointers, adjacency, weights, vertices);
+  }
+
+  /**
+   * Accumulator counting the total number of distinct edges of a traversal task's vertex range
+   */
+
+  private static class EdgeCountingAccumulator implements EdgeAccumulator<EdgeCountingAccumulator> {
+
+    private long count = 0L;
+
+    @Override
+    public void accept(int u, int v, double weight) {
+      count++;
+    }
+
+    @Override
+    public void merge(EdgeCountingAccumulator other) {
+      count += other.count;
+    }
+
+  }
+
+}
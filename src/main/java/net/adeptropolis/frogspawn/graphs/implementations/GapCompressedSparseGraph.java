@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntIterators;
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.VertexIterator;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ReadableBigDoubles;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ReadableBigInts;
+import net.adeptropolis.frogspawn.graphs.traversal.EdgeConsumer;
+import net.adeptropolis.frogspawn.graphs.traversal.TraversalMode;
+
+import java.io.Serializable;
+import java.nio.LongBuffer;
+
+/**
+ * <p>A compressed sparse graph whose adjacency lists are gap-compressed</p>
+ * <p>This is a more compact alternative to <code>CompressedSparseGraph</code>, trading some traversal throughput for
+ * memory. Neighbours are being decoded on the fly (see {@link GapCompressedAdjacency}). Graphs are best being built
+ * directly using {@link CompressedSparseGraphBuilder#buildGapCompressed()}, which never holds an uncompressed copy of
+ * the graph and stores edge weights in the representation selected by the build settings. Reduced-precision weights
+ * (e.g. <code>WeightStorage.QUANTIZED_8</code>) or unweighted builders are required to bring the total memory
+ * consumption down to a few bytes per edge.</p>
+ */
+
+public class GapCompressedSparseGraph extends Graph implements Serializable {
+
+  static final long serialVersionUID = 6914226840935123087L;
+
+  private final int size;
+  private final long[] pointers;
+  private final GapCompressedAdjacency adjacency;
+  private final ReadableBigDoubles weights;
+
+  /**
+   * Constructor
+   *
+   * @param size      Number of vertices
+   * @param pointers  Vertex pointers
+   * @param adjacency Gap-compressed adjacency lists
+   * @param weights   Edge weights
+   */
+
+  private GapCompressedSparseGraph(int size, long[] pointers, GapCompressedAdjacency adjacency, ReadableBigDoubles weights) {
+    this.size = size;
+    this.pointers = pointers;
+    this.adjacency = adjacency;
+    this.weights = weights;
+  }
+
+  /**
+   * Compress a graph. The returned graph shares vertex pointers and edge weights with the original one, so the latter's
+   * edges may be released afterwards. Note that this requires both the original and the compressed graph to be held
+   * in memory at the same time.
+   *
+   * @param graph A compressed sparse graph
+   * @return Gap-compressed copy of the graph
+   * @see CompressedSparseGraphBuilder#buildGapCompressed()
+   */
+
+  public static GapCompressedSparseGraph compress(CompressedSparseGraph graph) {
+    CompressedSparseGraphDatastore datastore = graph.getDatastore();
+    return encode(datastore.size(), datastore.pointers, datastore.edges(), datastore.weights());
+  }
+
+  /**
+   * Create a gap-compressed graph from sorted CSR edges
+   *
+   * @param size     Number of vertices
+   * @param pointers Vertex pointers
+   * @param edges    Sorted right endpoints of all edges
+   * @param weights  Edge weights
+   * @return A new gap-compressed graph
+   */
+
+  static GapCompressedSparseGraph encode(int size, long[] pointers, ReadableBigInts edges, ReadableBigDoubles weights) {
+    return new GapCompressedSparseGraph(size, pointers, GapCompressedAdjacency.encode(pointers, edges, size), weights);
+  }
+
+  /**
+   * @return Gap-compressed adjacency lists
+   */
+
+  GapCompressedAdjacency getAdjacency() {
+    return adjacency;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int order() {
+    return size;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public long size() {
+    return weights.size();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public VertexIterator vertexIterator() {
+    return new SubgraphVertexIterator().reset(collectVertices());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int[] collectVertices() {
+    int[] vertices = new int[order()];
+    for (int i = 0; i < order(); i++) {
+      vertices[i] = i;
+    }
+    return vertices;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public IntIterator globalVertexIdIterator() {
+    return IntIterators.fromTo(0, order());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public void traverseIncidentEdges(int v, EdgeConsumer consumer, TraversalMode mode) {
+
+    if (order() == 0 || v < 0) {
+      return;
+    }
+
+    long low = pointers[v];
+    long high = pointers[v + 1];
+    if (low == high) {
+      return;
+    }
+
+    GapCompressedAdjacency.Cursor cursor = adjacency.cursor(v);
+    for (long ptr = low; ptr < high; ptr++) {
+      int rightEndpoint = cursor.next();
+      if (mode == TraversalMode.LOWER_TRIANGULAR && v < rightEndpoint) {
+        break;
+      }
+      consumer.accept(v, rightEndpoint, weights.get(ptr));
+    }
+
+  }
+
+  /**
+   * Since traversal costs are proportional to the vertex degrees, this is simply a read-only view of the vertex pointers
+   *
+   * @return Cumulative traversal costs
+   */
+
+  @Override
+  public LongBuffer traversalCosts() {
+    return LongBuffer.wrap(pointers).asReadOnlyBuffer();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int localVertexId(int globalVertexId) {
+    return globalVertexId;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int globalVertexId(int localVertexId) {
+    return localVertexId;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public Graph inducedSubgraph(IntIterator vertices) {
+    return new GapCompressedInducedSubgraph(pointers, adjacency, weights, vertices);
+  }
+
+}
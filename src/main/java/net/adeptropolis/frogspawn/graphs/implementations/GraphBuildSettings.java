@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * <p>Stores all settings that control how graph builders turn their edge buffers into graphs, i.e. weight storage,
+ * vertex ordering, sparsification and pruning.</p>
+ * <p>Settings are immutable and may be shared among any number of builders.</p>
+ *
+ * @see CompressedSparseGraphBuilder#withSettings(GraphBuildSettings)
+ * @see ShardedGraphBuilder#withSettings(GraphBuildSettings)
+ * @see TwoPassGraphBuilder#withSettings(GraphBuildSettings)
+ * @see ExternalMemoryGraphBuilder#withSettings(GraphBuildSettings)
+ */
+
+public class GraphBuildSettings {
+
+  /**
+   * Default settings, i.e. double precision weights, no reordering, no sparsification and no pruning
+   */
+
+  public static final GraphBuildSettings DEFAULT = builder().build();
+
+  private final WeightStorage weightStorage;
+  private final VertexOrdering vertexOrdering;
+  private final int minDegree;
+  private final double minVertexWeight;
+  private final int topKEdges;
+  private final double edgeQuantile;
+  private final boolean verboseLogging;
+
+  /**
+   * Constructor
+   *
+   * @param weightStorage   Storage representation of edge weights
+   * @param vertexOrdering  Ordering of the vertices
+   * @param minDegree       Minimum vertex degree
+   * @param minVertexWeight Minimum vertex weight
+   * @param topKEdges       Number of edges to retain per vertex
+   * @param edgeQuantile    Weight quantile of the edges to retain per vertex
+   * @param verboseLogging  Whether to report builds at INFO level
+   */
+
+  private GraphBuildSettings(WeightStorage weightStorage, VertexOrdering vertexOrdering, int minDegree,
+                             double minVertexWeight, int topKEdges, double edgeQuantile, boolean verboseLogging) {
+    this.weightStorage = weightStorage;
+    this.vertexOrdering = vertexOrdering;
+    this.minDegree = minDegree;
+    this.minVertexWeight = minVertexWeight;
+    this.topKEdges = topKEdges;
+    this.edgeQuantile = edgeQuantile;
+    this.verboseLogging = verboseLogging;
+  }
+
+  /**
+   * Convenience method
+   *
+   * @return A new builder
+   */
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return Storage representation of edge weights
+   */
+
+  public WeightStorage getWeightStorage() {
+    return weightStorage;
+  }
+
+  /**
+   * @return Ordering of the vertices
+   */
+
+  public VertexOrdering getVertexOrdering() {
+    return vertexOrdering;
+  }
+
+  /**
+   * @return Minimum vertex degree
+   */
+
+  public int getMinDegree() {
+    return minDegree;
+  }
+
+  /**
+   * @return Minimum vertex weight
+   */
+
+  public double getMinVertexWeight() {
+    return minVertexWeight;
+  }
+
+  /**
+   * @return Number of edges to retain per vertex. 0 retains all edges
+   */
+
+  public int getTopKEdges() {
+    return topKEdges;
+  }
+
+  /**
+   * @return Weight quantile of the edges to retain per vertex. 0 retains all edges
+   */
+
+  public double getEdgeQuantile() {
+    return edgeQuantile;
+  }
+
+  /**
+   * @return Whether to report builds at INFO level
+   */
+
+  public boolean isVerboseLogging() {
+    return verboseLogging;
+  }
+
+  /**
+   * @return Whether any sparsification has been requested
+   */
+
+  boolean sparsifies() {
+    return topKEdges > 0 || edgeQuantile > 0d;
+  }
+
+  /**
+   * @return Whether any pruning has been requested
+   */
+
+  boolean prunes() {
+    return minDegree > 0 || minVertexWeight > 0d;
+  }
+
+  /**
+   * @return Whether any option changes the structure of the graph, i.e. reordering, sparsification or pruning has been
+   * requested
+   */
+
+  boolean restructures() {
+    return vertexOrdering != VertexOrdering.NONE || sparsifies() || prunes();
+  }
+
+  /**
+   * @return Settings string representation
+   */
+
+  @Override
+  public String toString() {
+    return new ToStringBuilder(this, ToStringStyle.NO_CLASS_NAME_STYLE)
+            .append("weightStorage", weightStorage)
+            .append("vertexOrdering", vertexOrdering)
+            .append("minDegree", minDegree)
+            .append("minVertexWeight", minVertexWeight)
+            .append("topKEdges", topKEdges)
+            .append("edgeQuantile", edgeQuantile)
+            .append("verboseLogging", verboseLogging)
+            .build();
+  }
+
+  public static class Builder {
+
+    private WeightStorage weightStorage = WeightStorage.DOUBLE;
+    private VertexOrdering vertexOrdering = VertexOrdering.NONE;
+    private int minDegree = 0;
+    private double minVertexWeight = 0d;
+    private int topKEdges = 0;
+    private double edgeQuantile = 0d;
+    private boolean verboseLogging = true;
+
+    /**
+     * Select the storage representation of edge weights in the resulting graph. Reduced precision representations
+     * save memory and bandwidth during traversals. Default is <code>WeightStorage.DOUBLE</code>
+     *
+     * @param weightStorage Weight storage representation
+     * @return this
+     */
+
+    public Builder withWeightStorage(WeightStorage weightStorage) {
+      this.weightStorage = weightStorage;
+      return this;
+    }
+
+    /**
+     * Select an ordering for the vertices of the resulting graph. Any other ordering than
+     * <code>VertexOrdering.NONE</code> assigns new ids to all vertices, which can be resolved using
+     * {@link CompressedSparseGraphBuilder#getPermutation()} after the graph has been built. Default is
+     * <code>VertexOrdering.NONE</code>
+     *
+     * @param vertexOrdering Vertex ordering
+     * @return this
+     */
+
+    public Builder withVertexOrdering(VertexOrdering vertexOrdering) {
+      this.vertexOrdering = vertexOrdering;
+      return this;
+    }
+
+    /**
+     * <p>Iteratively remove all vertices with less than <code>minDegree</code> neighbours before building the graph,
+     * i.e. only keep its <code>minDegree</code>-core. Self-loops are not being counted. Removing vertices assigns new
+     * ids to the remaining ones, which can be resolved using {@link CompressedSparseGraphBuilder#getPermutation()}
+     * after the graph has been built.</p>
+     * <p>A value of 2 removes all leaf vertices, which don't contribute to the clustering anyway. Default is 0, i.e.
+     * no pruning.</p>
+     *
+     * @param minDegree Minimum vertex degree. Must not be negative
+     * @return this
+     */
+
+    public Builder withMinDegree(int minDegree) {
+      Preconditions.checkArgument(minDegree >= 0, "Minimum degree must not be negative, got %s", minDegree);
+      this.minDegree = minDegree;
+      return this;
+    }
+
+    /**
+     * Iteratively remove all vertices whose total weight of edges to other remaining vertices is less than
+     * <code>minVertexWeight</code> before building the graph. May be combined with {@link #withMinDegree(int)}.
+     * Default is 0, i.e. no pruning.
+     *
+     * @param minVertexWeight Minimum vertex weight
+     * @return this
+     */
+
+    public Builder withMinVertexWeight(double minVertexWeight) {
+      this.minVertexWeight = minVertexWeight;
+      return this;
+    }
+
+    /**
+     * <p>Sparsify the graph by only retaining the <code>k</code> heaviest edges of every vertex. Selection is
+     * symmetric, i.e. an edge is being kept if it is among the heaviest edges of either of its endpoints. Edges whose
+     * weight ties with the k-th heaviest one are being kept as well. Self-loops are always being kept.</p>
+     * <p>Sparsification takes place before pruning (see {@link #withMinDegree(int)}). Default is 0, i.e. retain all
+     * edges.</p>
+     *
+     * @param k Number of edges to retain per vertex. Must not be negative
+     * @return this
+     */
+
+    public Builder withTopKEdges(int k) {
+      Preconditions.checkArgument(k >= 0, "Number of edges per vertex must not be negative, got %s", k);
+      this.topKEdges = k;
+      return this;
+    }
+
+    /**
+     * Sparsify the graph by only retaining those edges of every vertex whose weight is at least the given quantile of
+     * its incident edge weights. E.g. 0.9 keeps the heaviest 10% of the edges of every vertex. Selection is symmetric
+     * as in {@link #withTopKEdges(int)}. If both are being set, the stricter criterion applies for every vertex.
+     * Default is 0, i.e. retain all edges.
+     *
+     * @param quantile Weight quantile in <code>[0, 1)</code>
+     * @return this
+     */
+
+    public Builder withEdgeQuantile(double quantile) {
+      Preconditions.checkArgument(quantile >= 0 && quantile < 1, "Edge quantile must be in [0, 1), got %s", quantile);
+      this.edgeQuantile = quantile;
+      return this;
+    }
+
+    /**
+     * Report finished builds at INFO level. Builders that are being used internally (e.g. for coarsening graphs)
+     * should disable this, in which case builds are only being reported at DEBUG level. Default is <code>true</code>.
+     *
+     * @param verboseLogging Whether to report builds at INFO level
+     * @return this
+     */
+
+    public Builder withVerboseLogging(boolean verboseLogging) {
+      this.verboseLogging = verboseLogging;
+      return this;
+    }
+
+    /**
+     * Build settings
+     *
+     * @return A new instance of <code>GraphBuildSettings</code>
+     */
+
+    public GraphBuildSettings build() {
+      return new GraphBuildSettings(weightStorage, vertexOrdering, minDegree, minVertexWeight, topKEdges, edgeQuantile,
+              verboseLogging);
+    }
+
+  }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.VertexIterator;
+import net.adeptropolis.frogspawn.graphs.traversal.EdgeConsumer;
+import net.adeptropolis.frogspawn.graphs.traversal.ParallelEdgeOps;
+import net.adeptropolis.frogspawn.graphs.traversal.TraversalMode;
+
+import java.nio.LongBuffer;
+
+/**
+ * <p>Materialized copy of a graph's edge set</p>
+ * <p>Traversing an induced subgraph requires searching the global datastore for every vertex or edge. If a subgraph
+ * is being traversed many times (e.g. within power iterations), it pays off to copy its edges into a compact CSR
+ * structure indexed by local vertex ids. Subsequent traversals are plain sequential scans.</p>
+ * <p>The materialized graph shares its local vertex ids with the original graph. All vertex-related queries and the
+ * creation of further subgraphs are delegated to the original graph, i.e. subgraphs never retain the local CSR.</p>
+ */
+
+public class MaterializedSubgraph extends Graph {
+
+  /**
+   * Maximum number of edges that can be materialized
+   */
+
+  static final long MAX_EDGES = Integer.MAX_VALUE - 8;
+
+  private final Graph graph;
+  private final long[] pointers;
+  private final int[] edges;
+  private final double[] weights;
+
+  /**
+   * Constructor
+   *
+   * @param graph    The original graph
+   * @param pointers Local vertex pointers
+   * @param edges    Local right endpoints of all edges
+   * @param weights  Edge weights
+   */
+
+  private MaterializedSubgraph(Graph graph, long[] pointers, int[] edges, double[] weights) {
+    this.graph = graph;
+    this.pointers = pointers;
+    this.edges = edges;
+    this.weights = weights;
+  }
+
+  /**
+   * Materialize a graph if its local CSR representation fits into a given memory budget
+   *
+   * @param graph     A graph
+   * @param maxBytes  Memory budget in bytes
+   * @return The materialized graph or <code>null</code> if the graph exceeds the given budget
+   */
+
+  public static MaterializedSubgraph materialize(Graph graph, long maxBytes) {
+    if (requiredBytes(graph.order(), 0) > maxBytes) {
+      return null;
+    }
+    long[] pointers = new long[graph.order() + 1];
+    graph.traverseParallel((u, v, weight) -> pointers[u + 1]++);
+    for (int i = 0; i < graph.order(); i++) {
+      pointers[i + 1] += pointers[i];
+    }
+    long numEdges = pointers[graph.order()];
+    if (numEdges > MAX_EDGES || requiredBytes(graph.order(), numEdges) > maxBytes) {
+      return null;
+    }
+    int[] edges = new int[(int) numEdges];
+    double[] weights = new double[(int) numEdges];
+    int[] offsets = new int[graph.order()];
+    graph.traverseParallel((u, v, weight) -> {
+      int ptr = (int) pointers[u] + offsets[u]++;
+      edges[ptr] = v;
+      weights[ptr] = weight;
+    });
+    return new MaterializedSubgraph(graph, pointers, edges, weights);
+  }
+
+  /**
+   * Memory required for materializing a graph
+   *
+   * @param order    Number of vertices
+   * @param numEdges Number of (directed) edges
+   * @return Required number of bytes
+   */
+
+  static long requiredBytes(int order, long numEdges) {
+    return Long.BYTES * (order + 1L) + (Integer.BYTES + Double.BYTES) * numEdges;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int order() {
+    return graph.order();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public long size() {
+    return edges.length;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public VertexIterator vertexIterator() {
+    return graph.vertexIterator();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int[] collectVertices() {
+    return graph.collectVertices();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public IntIterator globalVertexIdIterator() {
+    return graph.globalVertexIdIterator();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public void traverseParallel(EdgeConsumer consumer) {
+    ParallelEdgeOps.traverse(this, consumer, TraversalMode.DEFAULT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public void traverseIncidentEdges(int v, EdgeConsumer consumer, TraversalMode mode) {
+
+    if (order() == 0 || v < 0) {
+      return;
+    }
+
+    int high = (int) pointers[v + 1];
+    for (int ptr = (int) pointers[v]; ptr < high; ptr++) {
+      int rightEndpoint = edges[ptr];
+      if (mode == TraversalMode.LOWER_TRIANGULAR && v < rightEndpoint) {
+        break;
+      }
+      consumer.accept(v, rightEndpoint, weights[ptr]);
+    }
+
+  }
+
+  /**
+   * Since traversal costs are proportional to the vertex degrees, this is simply a read-only view of the vertex pointers
+   *
+   * @return Cumulative traversal costs
+   */
+
+  @Override
+  public LongBuffer traversalCosts() {
+    return LongBuffer.wrap(pointers).asReadOnlyBuffer();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int localVertexId(int globalVertexId) {
+    return graph.localVertexId(globalVertexId);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int globalVertexId(int localVertexId) {
+    return graph.globalVertexId(localVertexId);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public Graph inducedSubgraph(IntIterator vertices) {
+    return graph.inducedSubgraph(vertices);
+  }
+
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import it.unimi.dsi.fastutil.ints.IntHeapPriorityQueue;
+import net.adeptropolis.frogspawn.graphs.Graph;
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * <p>Thread-safe graph builder</p>
+ * <p>Every thread adding edges writes into its own edge buffer shard. Upon building, all shards are being sorted in
+ * parallel. The vertex ids are then split into ranges holding roughly the same number of edges. All ranges are being
+ * merged from the shards and reduced in parallel, each one into its own section of a single, preallocated edge buffer.
+ * Since multiple instances of the same edge are always aggregated in order of ascending weight, the resulting graph is
+ * bit-identical to the one from a single-threaded builder that has been fed with the same edges.</p>
+ * <p><code>build()</code> may only be called after all threads have finished adding edges. All shards are being
+ * released once they have been merged, so edges may not be added afterwards and builders should be discarded.</p>
+ */
+
+public class ShardedGraphBuilder implements Graph.Builder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ShardedGraphBuilder.class.getSimpleName());
+  private static final long DEFAULT_SHARD_CAPACITY = 1 << 20;
+  private static final int MAX_MERGE_RANGES = 4 * Runtime.getRuntime().availableProcessors();
+  private static final long MIN_MERGE_RANGE_SIZE = 1 << 16;
+
+  private final long shardCapacity;
+  private final double minWeight;
+  private final boolean weighted;
+  private final List<CompressedSparseGraphBuilder> shards = new ArrayList<>();
+  private final ThreadLocal<CompressedSparseGraphBuilder> shard = ThreadLocal.withInitial(this::newShard);
+  private GraphBuildSettings settings = GraphBuildSettings.DEFAULT;
+  private int[] permutation = null;
+  private volatile boolean built = false;
+
+  /**
+   * Constructor
+   *
+   * @param shardCapacity Initial capacity of every shard's edge buffer
+   * @param minWeight     Minimum edge weight. Weights below this value cause a <code>GraphConstructionException</code>
+   */
+
+  public ShardedGraphBuilder(long shardCapacity, double minWeight) {
+    this(shardCapacity, minWeight, true);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param shardCapacity Initial capacity of every shard's edge buffer
+   * @param minWeight     Minimum edge weight. Weights below this value cause a <code>GraphConstructionException</code>
+   * @param weighted      Whether to store edge weights at all
+   */
+
+  private ShardedGraphBuilder(long shardCapacity, double minWeight, boolean weighted) {
+    this.shardCapacity = shardCapacity;
+    this.minWeight = minWeight;
+    this.weighted = weighted;
+  }
+
+  /**
+   * Default Constructor
+   */
+
+  public ShardedGraphBuilder() {
+    this(DEFAULT_SHARD_CAPACITY, 1d);
+  }
+
+  /**
+   * Create a builder for unweighted graphs. Edges may only be added with weight 1.
+   *
+   * @return A new builder instance
+   * @see CompressedSparseGraphBuilder#unweighted()
+   */
+
+  public static ShardedGraphBuilder unweighted() {
+    return new ShardedGraphBuilder(DEFAULT_SHARD_CAPACITY, 1d, false);
+  }
+
+  /**
+   * Set the weight storage, vertex ordering, sparsification and pruning of the resulting graph
+   *
+   * @param settings Build settings
+   * @return this
+   * @see CompressedSparseGraphBuilder#withSettings(GraphBuildSettings)
+   */
+
+  public ShardedGraphBuilder withSettings(GraphBuildSettings settings) {
+    this.settings = settings;
+    return this;
+  }
+
+  /**
+   * @return Mapping that has been applied to the vertex ids during the last build or <code>null</code>
+   * @see CompressedSparseGraphBuilder#getPermutation()
+   */
+
+  public int[] getPermutation() {
+    return permutation;
+  }
+
+  /**
+   * Add a new undirected edge to the graph. This method may be called concurrently.
+   *
+   * @param u      left vertex
+   * @param v      right vertex
+   * @param weight edge weight
+   * @return this
+   * @throws GraphConstructionException if the graph has already been built
+   */
+
+  @Override
+  public ShardedGraphBuilder add(int u, int v, double weight) {
+    checkNotBuilt();
+    shard.get().add(u, v, weight);
+    return this;
+  }
+
+  /**
+   * Add a new directed edge to the graph. This method may be called concurrently.
+   *
+   * @param u      left vertex
+   * @param v      right vertex
+   * @param weight edge weight
+   * @return this
+   * @throws GraphConstructionException if the graph has already been built
+   */
+
+  @Override
+  public ShardedGraphBuilder addDirected(int u, int v, double weight) {
+    checkNotBuilt();
+    shard.get().addDirected(u, v, weight);
+    return this;
+  }
+
+  /**
+   * Build the graph. May only be called once.
+   *
+   * @return A new immutable Graph instance
+   * @throws GraphConstructionException if the graph has already been built
+   */
+
+  @Override
+  public CompressedSparseGraph build() {
+    return new CompressedSparseGraph(buildDatastore());
+  }
+
+  /**
+   * Sort all shards in parallel, merge them into a single edge buffer and build the main datastore from it. The shards
+   * are being released right after merging, i.e. before the merged buffer is being restructured.
+   *
+   * @return a new graph datastore
+   */
+
+  CompressedSparseGraphDatastore buildDatastore() {
+    StopWatch stopWatch = new StopWatch();
+    stopWatch.start();
+    List<CompressedSparseGraphBuilder> sortedShards;
+    synchronized (shards) {
+      checkNotBuilt();
+      built = true;
+      sortedShards = new ArrayList<>(shards);
+      shards.clear();
+    }
+    sortedShards.parallelStream().forEach(CompressedSparseGraphBuilder::sort);
+    CompressedSparseGraphBuilder builder = merge(sortedShards).withSettings(settings);
+    int numShards = sortedShards.size();
+    sortedShards.forEach(CompressedSparseGraphBuilder::release);
+    CompressedSparseGraphDatastore datastore = builder.buildReducedDatastore();
+    permutation = builder.getPermutation();
+    stopWatch.stop();
+    if (settings.isVerboseLogging()) {
+      LOG.info("Finished building graph with {} vertices and {} edges from {} shards in {}",
+              datastore.size(), datastore.edgeCount(), numShards, stopWatch);
+    } else {
+      LOG.debug("Finished building graph with {} vertices and {} edges from {} shards in {}",
+              datastore.size(), datastore.edgeCount(), numShards, stopWatch);
+    }
+    return datastore;
+  }
+
+  /**
+   * <p>Merge and reduce all sorted shards into a single edge buffer</p>
+   * <p>The buffer is being preallocated to the total number of edges in all shards. Every range of left endpoints
+   * is being merged into the section of the buffer that starts at the total number of edges with smaller left
+   * endpoints. Since reduction shrinks the ranges, they are being moved together afterwards.</p>
+   *
+   * @param sortedShards Shards whose edge buffers have already been sorted
+   * @return Builder whose edge buffer contains all edges in sorted and reduced order
+   */
+
+  private CompressedSparseGraphBuilder merge(List<CompressedSparseGraphBuilder> sortedShards) {
+    long totalSize = sortedShards.stream().mapToLong(CompressedSparseGraphBuilder::bufferSize).sum();
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(1L, minWeight, weighted);
+    if (totalSize == 0L) {
+      return builder;
+    }
+    builder.presize(totalSize);
+    int numRanges = (int) Math.max(1, Math.min(MAX_MERGE_RANGES, totalSize / MIN_MERGE_RANGE_SIZE));
+    long[][] bounds = rangeBounds(sortedShards, numRanges, totalSize);
+    long[] offsets = new long[numRanges];
+    for (int r = 1; r < numRanges; r++) {
+      offsets[r] = offsets[r - 1] + rangeSize(bounds, r - 1);
+    }
+    long[] reducedSizes = new long[numRanges];
+    IntStream.range(0, numRanges).parallel()
+            .forEach(r -> reducedSizes[r] = mergeRange(sortedShards, bounds[r], bounds[r + 1], builder, offsets[r]));
+    long size = reducedSizes[0];
+    for (int r = 1; r < numRanges; r++) {
+      for (long i = 0; i < reducedSizes[r]; i++) {
+        long idx = offsets[r] + i;
+        builder.set(size + i, builder.leftEndpoint(idx), builder.rightEndpoint(idx), builder.weight(idx));
+      }
+      size += reducedSizes[r];
+    }
+    builder.setBufferSize(size);
+    return builder;
+  }
+
+  /**
+   * Split the left endpoints of all shards into ranges of roughly equal size. The boundary vertices are being found by
+   * bisecting the vertex ids, such that all instances of any edge always fall into the same range.
+   *
+   * @param sortedShards Sorted shards
+   * @param numRanges    Number of ranges
+   * @param totalSize    Total number of edges in all shards
+   * @return Array whose r-th entry holds the index of the first edge of range r within every shard. The last entry
+   * holds the shard sizes.
+   */
+
+  private static long[][] rangeBounds(List<CompressedSparseGraphBuilder> sortedShards, int numRanges, long totalSize) {
+    long[][] bounds = new long[numRanges + 1][];
+    bounds[0] = new long[sortedShards.size()];
+    bounds[numRanges] = sortedShards.stream().mapToLong(CompressedSparseGraphBuilder::bufferSize).toArray();
+    int lo = 0;
+    for (int r = 1; r < numRanges; r++) {
+      long target = totalSize * r / numRanges;
+      int hi = Integer.MAX_VALUE;
+      while (lo < hi) {
+        int mid = lo + (hi - lo) / 2;
+        if (countBelow(sortedShards, mid) < target) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      bounds[r] = new long[sortedShards.size()];
+      for (int s = 0; s < sortedShards.size(); s++) {
+        bounds[r][s] = lowerBound(sortedShards.get(s), lo);
+      }
+    }
+    return bounds;
+  }
+
+  /**
+   * @param bounds Range bounds
+   * @param r      Range
+   * @return Total number of edges of a range within all shards
+   */
+
+  private static long rangeSize(long[][] bounds, int r) {
+    long size = 0L;
+    for (int s = 0; s < bounds[r].length; s++) {
+      size += bounds[r + 1][s] - bounds[r][s];
+    }
+    return size;
+  }
+
+  /**
+   * @param sortedShards Sorted shards
+   * @param vertex       A vertex id
+   * @return Total number of edges whose left endpoint is smaller than the given vertex
+   */
+
+  private static long countBelow(List<CompressedSparseGraphBuilder> sortedShards, int vertex) {
+    long count = 0L;
+    for (CompressedSparseGraphBuilder shard : sortedShards) {
+      count += lowerBound(shard, vertex);
+    }
+    return count;
+  }
+
+  /**
+   * @param shard  A sorted shard
+   * @param vertex A vertex id
+   * @return Index of the first edge of the shard whose left endpoint is not smaller than the given vertex
+   */
+
+  private static long lowerBound(CompressedSparseGraphBuilder shard, int vertex) {
+    long lo = 0L;
+    long hi = shard.bufferSize();
+    while (lo < hi) {
+      long mid = (lo + hi) >>> 1;
+      if (shard.leftEndpoint(mid) < vertex) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * k-way merge of a single range of all sorted shards. Multiple instances of the same edge are being reduced on the
+   * fly, i.e. their weights are being summed up in ascending order.
+   *
+   * @param sortedShards Sorted shards
+   * @param from         Index of the range's first edge within every shard
+   * @param to           Index of the range's last edge within every shard (exclusive)
+   * @param builder      Presized builder to write into
+   * @param offset       First index of the builder's edge buffer that is being written
+   * @return Number of edges written
+   */
+
+  private static long mergeRange(List<CompressedSparseGraphBuilder> sortedShards, long[] from, long[] to,
+                                 CompressedSparseGraphBuilder builder, long offset) {
+    long[] cursors = from.clone();
+    IntHeapPriorityQueue queue = new IntHeapPriorityQueue((i, j) -> compareHeads(sortedShards, cursors, i, j));
+    for (int i = 0; i < sortedShards.size(); i++) {
+      if (cursors[i] < to[i]) {
+        queue.enqueue(i);
+      }
+    }
+    long writePtr = offset;
+    boolean pending = false;
+    int currentU = 0;
+    int currentV = 0;
+    double currentWeight = 0d;
+    while (!queue.isEmpty()) {
+      int i = queue.firstInt();
+      CompressedSparseGraphBuilder shard = sortedShards.get(i);
+      long idx = cursors[i]++;
+      int u = shard.leftEndpoint(idx);
+      int v = shard.rightEndpoint(idx);
+      double weight = shard.weight(idx);
+      if (pending && u == currentU && v == currentV) {
+        currentWeight += weight;
+      } else {
+        if (pending) builder.set(writePtr++, currentU, currentV, currentWeight);
+        currentU = u;
+        currentV = v;
+        currentWeight = weight;
+        pending = true;
+      }
+      if (cursors[i] < to[i]) {
+        queue.changed();
+      } else {
+        queue.dequeueInt();
+      }
+    }
+    if (pending) builder.set(writePtr++, currentU, currentV, currentWeight);
+    return writePtr - offset;
+  }
+
+  /**
+   * Compare the current edges of two shards by (1) left node (2) right node (3) weight
+   *
+   * @param sortedShards Sorted shards
+   * @param cursors      Current position within every shard
+   * @param i            First shard
+   * @param j            Second shard
+   * @return -1 if the first edge &lt; second edge, 0 if equal, 1 else
+   */
+
+  private static int compareHeads(List<CompressedSparseGraphBuilder> sortedShards, long[] cursors, int i, int j) {
+    CompressedSparseGraphBuilder first = sortedShards.get(i);
+    CompressedSparseGraphBuilder second = sortedShards.get(j);
+    int c = Integer.compare(first.leftEndpoint(cursors[i]), second.leftEndpoint(cursors[j]));
+    if (c != 0) return c;
+    c = Integer.compare(first.rightEndpoint(cursors[i]), second.rightEndpoint(cursors[j]));
+    return (c != 0) ? c : Double.compare(first.weight(cursors[i]), second.weight(cursors[j]));
+  }
+
+  /**
+   * Ensure that the graph has not been built yet. Shards that are still referenced by producer threads have been
+   * released by then and must not receive any more edges.
+   *
+   * @throws GraphConstructionException if the graph has already been built
+   */
+
+  private void checkNotBuilt() {
+    if (built) {
+      throw new GraphConstructionException("The graph has already been built");
+    }
+  }
+
+  /**
+   * Create and register a new shard
+   *
+   * @return New shard
+   */
+
+  private CompressedSparseGraphBuilder newShard() {
+    CompressedSparseGraphBuilder newShard = new CompressedSparseGraphBuilder(shardCapacity, minWeight, weighted);
+    synchronized (shards) {
+      shards.add(newShard);
+    }
+    return newShard;
+  }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import it.unimi.dsi.fastutil.BigArrays;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigDoubles;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigInts;
+import net.adeptropolis.frogspawn.graphs.traversal.EdgeConsumer;
+import org.apache.commons.lang3.time.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * <p>Build compressed sparse graphs from replayable edge sources</p>
+ * <p>The first pass over all edges counts vertex degrees, which allows for allocating the final CSR arrays exactly.
+ * The second pass scatters all edges directly into their adjacency lists. Afterwards, only the individual adjacency
+ * lists need to be sorted and reduced, which happens in parallel. In contrast to {@link CompressedSparseGraphBuilder},
+ * there is neither a global sort nor any buffer reallocation.</p>
+ * <p>The resulting graph is identical to the one created by <code>CompressedSparseGraphBuilder</code> from the same
+ * edges, except for an optionally provided graph order.</p>
+ */
+
+public class TwoPassGraphBuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TwoPassGraphBuilder.class.getSimpleName());
+  private static final int INITIAL_ORDER = 1 << 16;
+
+  private final EdgeSource source;
+  private final double minWeight;
+  private GraphBuildSettings settings = GraphBuildSettings.DEFAULT;
+  private int order = -1;
+
+  /**
+   * Constructor
+   *
+   * @param source    Replayable source of undirected edges
+   * @param minWeight Minimum edge weight. Weights below this value cause a <code>GraphConstructionException</code>
+   */
+
+  public TwoPassGraphBuilder(EdgeSource source, double minWeight) {
+    this.source = source;
+    this.minWeight = minWeight;
+  }
+
+  /**
+   * Constructor using a minimum edge weight of 1
+   *
+   * @param source Replayable source of undirected edges
+   */
+
+  public TwoPassGraphBuilder(EdgeSource source) {
+    this(source, 1d);
+  }
+
+  /**
+   * Announce the number of vertices in advance. All vertex ids need to be smaller than this value. Vertices without
+   * any edges are part of the graph nonetheless.
+   *
+   * @param order Number of vertices
+   * @return this
+   */
+
+  public TwoPassGraphBuilder withOrder(int order) {
+    this.order = order;
+    return this;
+  }
+
+  /**
+   * Set the weight storage and logging of the resulting graph. Default is <code>GraphBuildSettings.DEFAULT</code>
+   *
+   * @param settings Build settings. Vertex ordering, sparsification and pruning are not supported
+   * @return this
+   * @throws GraphConstructionException if the settings request vertex ordering, sparsification or pruning
+   * @see CompressedSparseGraphBuilder#withSettings(GraphBuildSettings)
+   */
+
+  public TwoPassGraphBuilder withSettings(GraphBuildSettings settings) {
+    if (settings.restructures()) {
+      throw new GraphConstructionException("TwoPassGraphBuilder does not support vertex ordering, sparsification or pruning");
+    }
+    this.settings = settings;
+    return this;
+  }
+
+  /**
+   * Build the graph
+   *
+   * @return A new immutable Graph instance
+   */
+
+  public CompressedSparseGraph build() {
+    return new CompressedSparseGraph(buildDatastore());
+  }
+
+  /**
+   * Build the main datastore
+   *
+   * @return a new graph datastore
+   */
+
+  CompressedSparseGraphDatastore buildDatastore() {
+    StopWatch stopWatch = new StopWatch();
+    stopWatch.start();
+    long[] pointers = countDegrees();
+    int graphSize = pointers.length - 1;
+    long numEdges = pointers[graphSize];
+    BigInts edges = new BigInts(numEdges);
+    BigDoubles weights = new BigDoubles(numEdges);
+    scatter(pointers, edges, weights);
+    long[] degrees = sortAndReduce(pointers, edges, weights);
+    numEdges = compact(pointers, degrees, edges, weights);
+    stopWatch.stop();
+    if (settings.isVerboseLogging()) {
+      LOG.info("Finished building graph with {} vertices and {} edges in {}", graphSize, numEdges, stopWatch);
+    } else {
+      LOG.debug("Finished building graph with {} vertices and {} edges in {}", graphSize, numEdges, stopWatch);
+    }
+    return new CompressedSparseGraphDatastore(graphSize, numEdges, pointers, edges, settings.getWeightStorage().store(weights));
+  }
+
+  /**
+   * First pass: count the number of edge entries per vertex
+   *
+   * @return Vertex pointers for the unreduced adjacency lists
+   */
+
+  private long[] countDegrees() {
+    long[][] counts = {new long[(order >= 0 ? order : INITIAL_ORDER) + 1]};
+    int[] maxVertex = {-1};
+    source.forEachEdge((u, v, weight) -> {
+      if (weight < minWeight) {
+        throw new GraphConstructionException(String.format("Tried to add an edge with weight < %.3f", minWeight));
+      }
+      int max = Math.max(u, v);
+      if (max + 1 >= counts[0].length) {
+        if (order >= 0) {
+          throw new GraphConstructionException(String.format("Vertex id %d exceeds the graph order %d", max, order));
+        }
+        counts[0] = Arrays.copyOf(counts[0], Math.max(2 * counts[0].length, max + 2));
+      }
+      maxVertex[0] = Math.max(maxVertex[0], max);
+      counts[0][u + 1]++;
+      if (u != v) counts[0][v + 1]++;
+    });
+    int graphSize = (order >= 0) ? order : maxVertex[0] + 1;
+    long[] pointers = (counts[0].length == graphSize + 1) ? counts[0] : Arrays.copyOf(counts[0], graphSize + 1);
+    for (int u = 0; u < graphSize; u++) {
+      pointers[u + 1] += pointers[u];
+    }
+    return pointers;
+  }
+
+  /**
+   * Second pass: scatter all edges into their adjacency lists
+   *
+   * @param pointers Vertex pointers
+   * @param edges    Right endpoints
+   * @param weights  Edge weights
+   */
+
+  private void scatter(long[] pointers, BigInts edges, BigDoubles weights) {
+    long[] cursors = Arrays.copyOf(pointers, pointers.length - 1);
+    source.forEachEdge((u, v, weight) -> {
+      scatter(pointers, cursors, edges, weights, u, v, weight);
+      if (u != v) scatter(pointers, cursors, edges, weights, v, u, weight);
+    });
+    for (int u = 0; u < cursors.length; u++) {
+      if (cursors[u] != pointers[u + 1]) {
+        throw new GraphConstructionException("Edge source returned fewer edges on its second pass");
+      }
+    }
+  }
+
+  /**
+   * Place a single directed edge into its adjacency list
+   *
+   * @param pointers Vertex pointers
+   * @param cursors  Next free slot within every adjacency list
+   * @param edges    Right endpoints
+   * @param weights  Edge weights
+   * @param u        Left endpoint
+   * @param v        Right endpoint
+   * @param weight   Edge weight
+   */
+
+  private static void scatter(long[] pointers, long[] cursors, BigInts edges, BigDoubles weights, int u, int v, double weight) {
+    if (u >= cursors.length || cursors[u] >= pointers[u + 1]) {
+      throw new GraphConstructionException("Edge source returned different edges on its second pass");
+    }
+    long idx = cursors[u]++;
+    edges.set(idx, v);
+    weights.set(idx, weight);
+  }
+
+  /**
+   * Sort all adjacency lists (by right endpoint and weight) in parallel and reduce multiple instances of the same edge
+   * to a single instance with accumulated weights
+   *
+   * @param pointers Vertex pointers
+   * @param edges    Right endpoints
+   * @param weights  Edge weights
+   * @return Array containing the reduced degree of every vertex
+   */
+
+  private static long[] sortAndReduce(long[] pointers, BigInts edges, BigDoubles weights) {
+    long[] degrees = new long[pointers.length - 1];
+    IntStream.range(0, degrees.length).parallel().forEach(u -> {
+      long low = pointers[u];
+      long high = pointers[u + 1];
+      if (high - low > 1) {
+        BigArrays.quickSort(low, high, (i, j) -> {
+          int c = edges.compare(i, j);
+          return (c != 0) ? c : weights.compare(i, j);
+        }, (i, j) -> {
+          edges.swap(i, j);
+          weights.swap(i, j);
+        });
+      }
+      long writePtr = low;
+      for (long ptr = low; ptr < high; ptr++) {
+        if (writePtr > low && edges.get(writePtr - 1) == edges.get(ptr)) {
+          weights.set(writePtr - 1, weights.get(writePtr - 1) + weights.get(ptr));
+        } else {
+          edges.set(writePtr, edges.get(ptr));
+          weights.set(writePtr, weights.get(ptr));
+          writePtr++;
+        }
+      }
+      degrees[u] = writePtr - low;
+    });
+    return degrees;
+  }
+
+  /**
+   * Move all reduced adjacency lists next to each other and update the vertex pointers accordingly
+   *
+   * @param pointers Vertex pointers. Will be updated in place.
+   * @param degrees  Reduced vertex degrees
+   * @param edges    Right endpoints
+   * @param weights  Edge weights
+   * @return Number of remaining edges
+   */
+
+  private static long compact(long[] pointers, long[] degrees, BigInts edges, BigDoubles weights) {
+    long writePtr = 0;
+    for (int u = 0; u < degrees.length; u++) {
+      long low = pointers[u];
+      pointers[u] = writePtr;
+      if (writePtr < low) {
+        for (long ptr = low; ptr < low + degrees[u]; ptr++, writePtr++) {
+          edges.set(writePtr, edges.get(ptr));
+          weights.set(writePtr, weights.get(ptr));
+        }
+      } else {
+        writePtr += degrees[u];
+      }
+    }
+    pointers[degrees.length] = writePtr;
+    edges.resize(writePtr);
+    weights.resize(writePtr);
+    return writePtr;
+  }
+
+  /**
+   * A source of undirected edges that can be traversed at least twice, yielding the same edges each time
+   */
+
+  @FunctionalInterface
+  public interface EdgeSource {
+
+    /**
+     * Emit all edges
+     *
+     * @param consumer Edge consumer
+     */
+
+    void forEachEdge(EdgeConsumer consumer);
+
+  }
+
+}
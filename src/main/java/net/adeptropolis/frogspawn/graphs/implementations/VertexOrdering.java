@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ReadableBigInts;
+
+/**
+ * <p>Vertex orderings that may be applied when building a graph</p>
+ * <p>Sparse matrix-vector products (as being used in all graph operators) access the entries of their argument vector
+ * in the order of the adjacency lists. Placing adjacent vertices close to each other keeps those accesses local.</p>
+ */
+
+public enum VertexOrdering {
+
+  /**
+   * Keep the original vertex ids
+   */
+
+  NONE {
+    @Override
+    int[] order(long[] pointers, ReadableBigInts edges, int size) {
+      return null;
+    }
+  },
+
+  /**
+   * Sort vertices by descending degree, such that the vector entries of frequently accessed hub vertices share
+   * a small number of cache lines
+   */
+
+  DEGREE {
+    @Override
+    int[] order(long[] pointers, ReadableBigInts edges, int size) {
+      int[] order = identity(size);
+      IntArrays.mergeSort(order, (u, v) -> Long.compare(degree(pointers, v), degree(pointers, u)));
+      return order;
+    }
+  },
+
+  /**
+   * Breadth-first order, starting a new search from the smallest unvisited vertex id for every connected component
+   */
+
+  BFS {
+    @Override
+    int[] order(long[] pointers, ReadableBigInts edges, int size) {
+      return breadthFirstOrder(pointers, edges, size, false);
+    }
+  },
+
+  /**
+   * Reverse Cuthill-McKee order. Breadth-first order where every search starts from a vertex of minimum degree and
+   * neighbours are being visited by ascending degree. The final order is reversed. This is the classic heuristic for
+   * minimizing the bandwidth of sparse matrices.
+   */
+
+  REVERSE_CUTHILL_MCKEE {
+    @Override
+    int[] order(long[] pointers, ReadableBigInts edges, int size) {
+      int[] order = breadthFirstOrder(pointers, edges, size, true);
+      for (int i = 0, j = size - 1; i < j; i++, j--) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+      }
+      return order;
+    }
+  };
+
+  /**
+   * Compute the vertex order for a graph
+   *
+   * @param pointers Vertex pointers
+   * @param edges    Right endpoints of all edges
+   * @param size     Number of vertices
+   * @return Array whose i-th entry is the original id of the vertex that should receive id i. <code>null</code> if
+   * the original order should be retained.
+   */
+
+  abstract int[] order(long[] pointers, ReadableBigInts edges, int size);
+
+  /**
+   * Compute the permutation for a graph
+   *
+   * @param pointers Vertex pointers
+   * @param edges    Right endpoints of all edges
+   * @param size     Number of vertices
+   * @return Array whose i-th entry is the new id of the vertex with original id i. <code>null</code> if the original
+   * order should be retained.
+   */
+
+  int[] permutation(long[] pointers, ReadableBigInts edges, int size) {
+    int[] order = order(pointers, edges, size);
+    if (order == null) {
+      return null;
+    }
+    int[] permutation = new int[size];
+    for (int i = 0; i < size; i++) {
+      permutation[order[i]] = i;
+    }
+    return permutation;
+  }
+
+  /**
+   * Breadth-first vertex order over all connected components
+   *
+   * @param pointers  Vertex pointers
+   * @param edges     Right endpoints of all edges
+   * @param size      Number of vertices
+   * @param byDegree  Whether searches should start from vertices of minimum degree and visit neighbours by ascending
+   *                  degree. Otherwise, the vertex id order is being used.
+   * @return Array whose i-th entry is the original id of the i-th visited vertex
+   */
+
+  private static int[] breadthFirstOrder(long[] pointers, ReadableBigInts edges, int size, boolean byDegree) {
+    int[] candidates = identity(size);
+    if (byDegree) {
+      IntArrays.mergeSort(candidates, (u, v) -> Long.compare(degree(pointers, u), degree(pointers, v)));
+    }
+    boolean[] visited = new boolean[size];
+    int[] queue = new int[size];
+    int head = 0;
+    int tail = 0;
+    for (int start : candidates) {
+      if (visited[start]) {
+        continue;
+      }
+      visited[start] = true;
+      queue[tail++] = start;
+      while (head < tail) {
+        int u = queue[head++];
+        int first = tail;
+        for (long ptr = pointers[u]; ptr < pointers[u + 1]; ptr++) {
+          int v = edges.get(ptr);
+          if (!visited[v]) {
+            visited[v] = true;
+            queue[tail++] = v;
+          }
+        }
+        if (byDegree) {
+          IntArrays.mergeSort(queue, first, tail, (x, y) -> Long.compare(degree(pointers, x), degree(pointers, y)));
+        }
+      }
+    }
+    return queue;
+  }
+
+  /**
+   * @param pointers Vertex pointers
+   * @param v        A vertex
+   * @return Degree of the vertex
+   */
+
+  private static long degree(long[] pointers, int v) {
+    return pointers[v + 1] - pointers[v];
+  }
+
+  /**
+   * @param size Number of vertices
+   * @return Identity order
+   */
+
+  private static int[] identity(int size) {
+    int[] ids = new int[size];
+    for (int i = 0; i < size; i++) {
+      ids[i] = i;
+    }
+    return ids;
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigDoubles;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigFloats;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.QuantizedBigDoubles;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ReadableBigDoubles;
+
+/**
+ * Storage representation of edge weights within a graph datastore
+ */
+
+public enum WeightStorage {
+
+  /**
+   * Double precision (8 bytes per edge). Exact.
+   */
+
+  DOUBLE {
+    @Override
+    ReadableBigDoubles store(BigDoubles weights) {
+      return weights;
+    }
+  },
+
+  /**
+   * Single precision (4 bytes per edge)
+   */
+
+  FLOAT {
+    @Override
+    ReadableBigDoubles store(BigDoubles weights) {
+      return BigFloats.of(weights);
+    }
+  },
+
+  /**
+   * 16-bit codes referring to a per-graph codebook with up to 65536 entries (2 bytes per edge)
+   */
+
+  QUANTIZED_16 {
+    @Override
+    ReadableBigDoubles store(BigDoubles weights) {
+      return QuantizedBigDoubles.quantize(weights, 16);
+    }
+  },
+
+  /**
+   * 8-bit codes referring to a per-graph codebook with up to 256 entries (1 byte per edge)
+   */
+
+  QUANTIZED_8 {
+    @Override
+    ReadableBigDoubles store(BigDoubles weights) {
+      return QuantizedBigDoubles.quantize(weights, 8);
+    }
+  };
+
+  /**
+   * Convert the builder's weights into their final storage representation
+   *
+   * @param weights Sorted and compacted edge weights
+   * @return Weights in storage representation
+   */
+
+  abstract ReadableBigDoubles store(BigDoubles weights);
+
+}
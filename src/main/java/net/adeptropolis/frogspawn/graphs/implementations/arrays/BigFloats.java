@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations.arrays;
+
+import java.io.Serializable;
+
+/**
+ * A big (i.e. long-indexed) array of values stored in single precision. Requires half the memory of
+ * <code>BigDoubles</code> at the cost of ~7 significant decimal digits.
+ */
+
+public class BigFloats implements ReadableBigDoubles, Serializable {
+
+  static final long serialVersionUID = 7946211734126593312L;
+
+  public static final int BIN_BITS = 17;
+  private static final int BIN_MASK = (1 << BIN_BITS) - 1;
+
+  private final float[][] data;
+  private final long size;
+
+  /**
+   * Constructor
+   *
+   * @param size Number of values
+   */
+
+  public BigFloats(long size) {
+    this.size = size;
+    this.data = new float[(int) ((size + BIN_MASK) >> BIN_BITS)][];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = new float[(int) Math.min(1L << BIN_BITS, size - ((long) i << BIN_BITS))];
+    }
+  }
+
+  /**
+   * Create a single-precision copy of a given array
+   *
+   * @param values Any big array of doubles
+   * @return new BigFloats instance
+   */
+
+  public static BigFloats of(ReadableBigDoubles values) {
+    BigFloats floats = new BigFloats(values.size());
+    for (long i = 0; i < values.size(); i++) {
+      floats.set(i, (float) values.get(i));
+    }
+    return floats;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public double get(long idx) {
+    return data[(int) (idx >> BIN_BITS)][(int) (idx & BIN_MASK)];
+  }
+
+  /**
+   * Set value
+   *
+   * @param idx   Index. Must be smaller than <code>size()</code>
+   * @param value Value
+   */
+
+  public void set(long idx, float value) {
+    data[(int) (idx >> BIN_BITS)][(int) (idx & BIN_MASK)] = value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+}
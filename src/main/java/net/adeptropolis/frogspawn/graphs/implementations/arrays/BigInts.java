@@ -18,7 +18,7 @@ import java.util.stream.LongStream;
  * A big (i.e. long-indexed) array of ints.
  */
 
-public class BigInts implements LongComparator, BigSwapper, Serializable {
+public class BigInts implements ReadableBigInts, LongComparator, BigSwapper, Serializable {
 
   public static final int BIN_BITS = 17;
   private static final int BIN_MASK = (1 << BIN_BITS) - 1;
@@ -59,11 +59,11 @@ public class BigInts implements LongComparator, BigSwapper, Serializable {
   public void resize(long capacity) {
     int currentBins = (data != null) ? data.length : 0;
     int requestedBins = Math.max(1, (int) (((capacity - 1) >> BIN_BITS) + 1));
+    if (capacity < size) size = capacity;
     if (requestedBins == currentBins) return;
     int[][] newData = new int[requestedBins][];
     if (data != null) System.arraycopy(data, 0, newData, 0, Math.min(currentBins, requestedBins));
     for (int i = currentBins; i < requestedBins; i++) newData[i] = new int[1 << BIN_BITS];
-    if (currentBins > requestedBins) size = capacity;
     data = newData;
   }
 
@@ -74,6 +74,7 @@ public class BigInts implements LongComparator, BigSwapper, Serializable {
    * @return Value at index idx
    */
 
+  @Override
   public int get(long idx) {
     return data[(int) (idx >> BIN_BITS)][(int) (idx & BIN_MASK)];
   }
@@ -98,6 +99,7 @@ public class BigInts implements LongComparator, BigSwapper, Serializable {
    * @return Largest stored index + 1
    */
 
+  @Override
   public long size() {
     return size;
   }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations.arrays;
+
+import java.io.Serializable;
+
+/**
+ * A big (i.e. long-indexed) array whose entries all share the same value. Requires no storage at all.
+ */
+
+public class ConstantBigDoubles implements ReadableBigDoubles, Serializable {
+
+  static final long serialVersionUID = -3591784205936117206L;
+
+  private final double value;
+  private final long size;
+
+  /**
+   * Constructor
+   *
+   * @param value Value of all entries
+   * @param size  Number of entries
+   */
+
+  public ConstantBigDoubles(double value, long size) {
+    this.value = value;
+    this.size = size;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public double get(long idx) {
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+}
@@ -16,7 +16,7 @@ public class InterpolationSearch {
   }
 
   /**
-   * Search in BigInts
+   * Search in big int arrays
    *
    * @param ints Big integer array
    * @param key  Search key
@@ -25,7 +25,7 @@ public class InterpolationSearch {
    * @return Index of the first item matching the key. -1 otherwise.
    */
 
-  public static long search(BigInts ints, int key, long low, long high) {
+  public static long search(ReadableBigInts ints, int key, long low, long high) {
 
     int lowVal = ints.get(low);
 
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations.arrays;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>A big (i.e. long-indexed) array of doubles, backed by a read-only memory-mapped file region.</p>
+ * <p>The data resides in the OS page cache instead of the Java heap. Thus, it does not contribute to GC pressure
+ * and may be shared between multiple processes. Values are expected to be stored in little-endian byte order.</p>
+ */
+
+public class MappedBigDoubles implements ReadableBigDoubles, Serializable {
+
+  static final long serialVersionUID = -2674310955262187063L;
+
+  /**
+   * Number of bits for addressing values within a single mapping
+   */
+
+  public static final int BIN_BITS = 27;
+  private static final long BIN_MASK = (1L << BIN_BITS) - 1;
+
+  private final transient DoubleBuffer[] bins;
+  private final long size;
+
+  /**
+   * Private constructor
+   *
+   * @param bins Mapped bins
+   * @param size Number of values
+   */
+
+  private MappedBigDoubles(DoubleBuffer[] bins, long size) {
+    this.bins = bins;
+    this.size = size;
+  }
+
+  /**
+   * Map a region of a file
+   *
+   * @param channel File channel. May be closed after mapping.
+   * @param offset  Byte offset of the first value
+   * @param size    Number of values
+   * @return new MappedBigDoubles instance
+   * @throws IOException if the region could not be mapped
+   */
+
+  public static MappedBigDoubles map(FileChannel channel, long offset, long size) throws IOException {
+    DoubleBuffer[] bins = new DoubleBuffer[(int) ((size + BIN_MASK) >> BIN_BITS)];
+    for (int i = 0; i < bins.length; i++) {
+      long count = Math.min(1L << BIN_BITS, size - ((long) i << BIN_BITS));
+      long position = offset + ((long) i << BIN_BITS) * Double.BYTES;
+      bins[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, count * Double.BYTES)
+              .order(ByteOrder.LITTLE_ENDIAN)
+              .asDoubleBuffer();
+    }
+    return new MappedBigDoubles(bins, size);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public double get(long idx) {
+    return bins[(int) (idx >> BIN_BITS)].get((int) (idx & BIN_MASK));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Serialized instances are being replaced by an on-heap copy
+   *
+   * @return A <code>BigDoubles</code> copy of this array
+   * @throws ObjectStreamException never
+   */
+
+  private Object writeReplace() throws ObjectStreamException {
+    BigDoubles doubles = new BigDoubles(size);
+    for (long i = 0; i < size; i++) {
+      doubles.set(i, get(i));
+    }
+    return doubles;
+  }
+
+}
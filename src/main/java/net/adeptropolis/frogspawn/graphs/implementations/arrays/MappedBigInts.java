@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations.arrays;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>A big (i.e. long-indexed) array of ints, backed by a read-only memory-mapped file region.</p>
+ * <p>The data resides in the OS page cache instead of the Java heap. Thus, it does not contribute to GC pressure
+ * and may be shared between multiple processes. Values are expected to be stored in little-endian byte order.</p>
+ */
+
+public class MappedBigInts implements ReadableBigInts, Serializable {
+
+  static final long serialVersionUID = 4211207402416178539L;
+
+  /**
+   * Number of bits for addressing values within a single mapping
+   */
+
+  public static final int BIN_BITS = 27;
+  private static final long BIN_MASK = (1L << BIN_BITS) - 1;
+
+  private final transient IntBuffer[] bins;
+  private final long size;
+
+  /**
+   * Private constructor
+   *
+   * @param bins Mapped bins
+   * @param size Number of values
+   */
+
+  private MappedBigInts(IntBuffer[] bins, long size) {
+    this.bins = bins;
+    this.size = size;
+  }
+
+  /**
+   * Map a region of a file
+   *
+   * @param channel File channel. May be closed after mapping.
+   * @param offset  Byte offset of the first value
+   * @param size    Number of values
+   * @return new MappedBigInts instance
+   * @throws IOException if the region could not be mapped
+   */
+
+  public static MappedBigInts map(FileChannel channel, long offset, long size) throws IOException {
+    IntBuffer[] bins = new IntBuffer[(int) ((size + BIN_MASK) >> BIN_BITS)];
+    for (int i = 0; i < bins.length; i++) {
+      long count = Math.min(1L << BIN_BITS, size - ((long) i << BIN_BITS));
+      long position = offset + ((long) i << BIN_BITS) * Integer.BYTES;
+      bins[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, count * Integer.BYTES)
+              .order(ByteOrder.LITTLE_ENDIAN)
+              .asIntBuffer();
+    }
+    return new MappedBigInts(bins, size);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public int get(long idx) {
+    return bins[(int) (idx >> BIN_BITS)].get((int) (idx & BIN_MASK));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Serialized instances are being replaced by an on-heap copy
+   *
+   * @return A <code>BigInts</code> copy of this array
+   * @throws ObjectStreamException never
+   */
+
+  private Object writeReplace() throws ObjectStreamException {
+    BigInts ints = new BigInts(size);
+    for (long i = 0; i < size; i++) {
+      ints.set(i, get(i));
+    }
+    return ints;
+  }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations.arrays;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.doubles.DoubleOpenHashSet;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * <p>A big (i.e. long-indexed) array of quantized values</p>
+ * <p>Every value is being replaced by the nearest entry of a codebook with at most <code>2^bits</code> entries and
+ * stored as 8- or 16-bit code. If the original array contains no more distinct values than the codebook size, the
+ * quantization is lossless. Otherwise, if all values are positive (e.g. TF-IDF weights), the codebook entries are
+ * spaced geometrically between the smallest and the largest value, which bounds the relative error of every single
+ * value. In all other cases, the codebook consists of equidistant quantiles of the value distribution.</p>
+ */
+
+public abstract class QuantizedBigDoubles implements ReadableBigDoubles, Serializable {
+
+  static final long serialVersionUID = -5138563216250096044L;
+
+  public static final int BIN_BITS = 17;
+  static final int BIN_MASK = (1 << BIN_BITS) - 1;
+  private static final int MAX_SAMPLE_SIZE = 1 << 20;
+
+  final double[] codebook;
+  private final long size;
+
+  /**
+   * Constructor
+   *
+   * @param codebook Sorted codebook
+   * @param size     Number of values
+   */
+
+  QuantizedBigDoubles(double[] codebook, long size) {
+    this.codebook = codebook;
+    this.size = size;
+  }
+
+  /**
+   * Quantize a big array of doubles
+   *
+   * @param values Any big array of doubles
+   * @param bits   Code size. Either 8 or 16
+   * @return A new quantized array
+   */
+
+  public static QuantizedBigDoubles quantize(ReadableBigDoubles values, int bits) {
+    Preconditions.checkArgument(bits == 8 || bits == 16, "Unsupported code size: %s", bits);
+    double[] codebook = codebook(values, 1 << bits);
+    QuantizedBigDoubles quantized = (bits == 8) ? new Quantized8(codebook, values.size()) : new Quantized16(codebook, values.size());
+    for (long i = 0; i < values.size(); i++) {
+      quantized.setCode(i, encode(codebook, values.get(i)));
+    }
+    return quantized;
+  }
+
+  /**
+   * Create a codebook for a given array of values
+   *
+   * @param values   Any big array of doubles
+   * @param maxCodes Maximum codebook size
+   * @return Sorted codebook without duplicates
+   */
+
+  static double[] codebook(ReadableBigDoubles values, int maxCodes) {
+    DoubleOpenHashSet distinct = new DoubleOpenHashSet();
+    for (long i = 0; i < values.size() && distinct.size() <= maxCodes; i++) {
+      distinct.add(values.get(i));
+    }
+    if (distinct.size() <= maxCodes) {
+      double[] codebook = distinct.toDoubleArray();
+      Arrays.sort(codebook);
+      return codebook;
+    }
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    for (long i = 0; i < values.size(); i++) {
+      min = Math.min(min, values.get(i));
+      max = Math.max(max, values.get(i));
+    }
+    return (min > 0) ? geometricCodebook(min, max, maxCodes) : quantileCodebook(values, maxCodes);
+  }
+
+  /**
+   * Create a codebook whose entries are spaced geometrically between the smallest and largest value. This bounds the
+   * relative quantization error by <code>((max / min)^(1 / (maxCodes - 1)) - 1) / 2</code>.
+   *
+   * @param min      Smallest value. Must be positive
+   * @param max      Largest value
+   * @param maxCodes Codebook size
+   * @return Sorted codebook
+   */
+
+  private static double[] geometricCodebook(double min, double max, int maxCodes) {
+    double[] codebook = new double[maxCodes];
+    double logRatio = Math.log(max / min);
+    for (int i = 0; i < maxCodes; i++) {
+      codebook[i] = min * Math.exp(logRatio * i / (maxCodes - 1));
+    }
+    codebook[maxCodes - 1] = max;
+    return Arrays.stream(codebook).distinct().toArray();
+  }
+
+  /**
+   * Create a codebook from equidistant quantiles of a sample of the values, including the smallest and largest one
+   *
+   * @param values   Any big array of doubles
+   * @param maxCodes Maximum codebook size
+   * @return Sorted codebook without duplicates
+   */
+
+  private static double[] quantileCodebook(ReadableBigDoubles values, int maxCodes) {
+    long stride = Math.max(1L, values.size() / MAX_SAMPLE_SIZE);
+    double[] sample = new double[(int) ((values.size() + stride - 1) / stride)];
+    for (int i = 0; i < sample.length; i++) {
+      sample[i] = values.get(i * stride);
+    }
+    Arrays.sort(sample);
+    double[] quantiles = new double[maxCodes];
+    for (int i = 0; i < maxCodes; i++) {
+      quantiles[i] = sample[(int) ((long) i * (sample.length - 1) / (maxCodes - 1))];
+    }
+    return Arrays.stream(quantiles).distinct().toArray();
+  }
+
+  /**
+   * Find the code of the codebook entry that is nearest to a given value
+   *
+   * @param codebook Sorted codebook
+   * @param value    Value
+   * @return Code
+   */
+
+  static int encode(double[] codebook, double value) {
+    int idx = Arrays.binarySearch(codebook, value);
+    if (idx >= 0) {
+      return idx;
+    }
+    int upper = -idx - 1;
+    if (upper == 0) {
+      return 0;
+    } else if (upper == codebook.length) {
+      return codebook.length - 1;
+    }
+    return (value - codebook[upper - 1] <= codebook[upper] - value) ? upper - 1 : upper;
+  }
+
+  /**
+   * Set the code at a given index
+   *
+   * @param idx  Index
+   * @param code Code
+   */
+
+  abstract void setCode(long idx, int code);
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  /**
+   * @param size Number of values
+   * @return Number of bins required for a given size
+   */
+
+  static int bins(long size) {
+    return (int) ((size + BIN_MASK) >> BIN_BITS);
+  }
+
+  /**
+   * @param size Number of values
+   * @param bin  Bin index
+   * @return Size of the given bin
+   */
+
+  static int binSize(long size, int bin) {
+    return (int) Math.min(1L << BIN_BITS, size - ((long) bin << BIN_BITS));
+  }
+
+  /**
+   * Quantized array using 8-bit codes
+   */
+
+  private static final class Quantized8 extends QuantizedBigDoubles {
+
+    static final long serialVersionUID = 2930183371462204734L;
+
+    private final byte[][] codes;
+
+    Quantized8(double[] codebook, long size) {
+      super(codebook, size);
+      codes = new byte[bins(size)][];
+      for (int i = 0; i < codes.length; i++) {
+        codes[i] = new byte[binSize(size, i)];
+      }
+    }
+
+    @Override
+    public double get(long idx) {
+      return codebook[codes[(int) (idx >> BIN_BITS)][(int) (idx & BIN_MASK)] & 0xFF];
+    }
+
+    @Override
+    void setCode(long idx, int code) {
+      codes[(int) (idx >> BIN_BITS)][(int) (idx & BIN_MASK)] = (byte) code;
+    }
+
+  }
+
+  /**
+   * Quantized array using 16-bit codes
+   */
+
+  private static final class Quantized16 extends QuantizedBigDoubles {
+
+    static final long serialVersionUID = -8400710627316442865L;
+
+    private final short[][] codes;
+
+    Quantized16(double[] codebook, long size) {
+      super(codebook, size);
+      codes = new short[bins(size)][];
+      for (int i = 0; i < codes.length; i++) {
+        codes[i] = new short[binSize(size, i)];
+      }
+    }
+
+    @Override
+    public double get(long idx) {
+      return codebook[codes[(int) (idx >> BIN_BITS)][(int) (idx & BIN_MASK)] & 0xFFFF];
+    }
+
+    @Override
+    void setCode(long idx, int code) {
+      codes[(int) (idx >> BIN_BITS)][(int) (idx & BIN_MASK)] = (short) code;
+    }
+
+  }
+
+}
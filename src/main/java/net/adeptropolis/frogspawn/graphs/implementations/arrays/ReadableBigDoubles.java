@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations.arrays;
+
+/**
+ * Read-only view on a big (i.e. long-indexed) array of doubles
+ */
+
+public interface ReadableBigDoubles {
+
+  /**
+   * Retrieve value
+   *
+   * @param idx Index
+   * @return Value at index idx
+   */
+
+  double get(long idx);
+
+  /**
+   * Return size
+   *
+   * @return Number of stored values
+   */
+
+  long size();
+
+}
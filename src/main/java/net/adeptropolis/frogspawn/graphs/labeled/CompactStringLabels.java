@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.labeled;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Compact storage for string labels</p>
+ * <p>All labels are being stored as UTF-8 bytes, concatenated into a small number of large pages. Every label is
+ * being addressed by a single packed <code>long</code> holding its page and its offset within that page. Labels never
+ * span multiple pages, so a label ends where its successor starts or at the end of its page. Compared to one
+ * <code>String</code> object per vertex, this saves the per-object overhead of both the string and its backing
+ * array. Strings are only being materialized upon lookup.</p>
+ * <p><code>null</code> labels (e.g. of ids that never made it into the graph) take no space. Their position is being
+ * flagged with the sign bit, while still pointing at their successor's start.</p>
+ */
+
+final class CompactStringLabels implements Serializable {
+
+  static final long serialVersionUID = 3142470921853328315L;
+
+  private static final int OFFSET_BITS = 31;
+  private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+  private static final long NULL_FLAG = Long.MIN_VALUE;
+  private static final int DEFAULT_PAGE_SIZE = 1 << 26;
+
+  private final byte[][] pages;
+  private final long[] positions;
+
+  /**
+   * Constructor
+   *
+   * @param pages     Pages of concatenated UTF-8 encoded labels
+   * @param positions Packed page index and offset for every label
+   */
+
+  private CompactStringLabels(byte[][] pages, long[] positions) {
+    this.pages = pages;
+    this.positions = positions;
+  }
+
+  /**
+   * Create a compact store from an array of labels
+   *
+   * @param labels Array of labels, indexed by vertex id
+   * @return A new compact label store
+   */
+
+  static CompactStringLabels of(String[] labels) {
+    return of(labels, DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Create a compact store from an array of labels
+   *
+   * @param labels   Array of labels, indexed by vertex id. May contain <code>null</code> entries
+   * @param pageSize Target size of a single page in bytes. Pages may be larger if a single label exceeds this size.
+   * @return A new compact label store
+   */
+
+  static CompactStringLabels of(String[] labels, int pageSize) {
+    List<byte[]> pages = new ArrayList<>();
+    long[] positions = new long[labels.length];
+    byte[] page = new byte[pageSize];
+    int pagePtr = 0;
+    for (int i = 0; i < labels.length; i++) {
+      if (labels[i] == null) {
+        positions[i] = NULL_FLAG | ((long) pages.size() << OFFSET_BITS) | pagePtr;
+        continue;
+      }
+      byte[] bytes = labels[i].getBytes(StandardCharsets.UTF_8);
+      if (pagePtr + bytes.length > page.length) {
+        pages.add(Arrays.copyOf(page, pagePtr));
+        page = new byte[Math.max(pageSize, bytes.length)];
+        pagePtr = 0;
+      }
+      positions[i] = ((long) pages.size() << OFFSET_BITS) | pagePtr;
+      System.arraycopy(bytes, 0, page, pagePtr, bytes.length);
+      pagePtr += bytes.length;
+    }
+    pages.add(Arrays.copyOf(page, pagePtr));
+    return new CompactStringLabels(pages.toArray(new byte[0][]), positions);
+  }
+
+  /**
+   * @param vertexId Vertex id
+   * @return The label for a particular vertex id or <code>null</code> if the label has been <code>null</code>
+   */
+
+  String get(int vertexId) {
+    long position = positions[vertexId];
+    if ((position & NULL_FLAG) != 0) {
+      return null;
+    }
+    int page = page(position);
+    int start = (int) (position & OFFSET_MASK);
+    int end = pages[page].length;
+    if (vertexId + 1 < positions.length && page(positions[vertexId + 1]) == page) {
+      end = (int) (positions[vertexId + 1] & OFFSET_MASK);
+    }
+    return new String(pages[page], start, end - start, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param position A packed position
+   * @return Page index of the position
+   */
+
+  private static int page(long position) {
+    return (int) ((position & ~NULL_FLAG) >>> OFFSET_BITS);
+  }
+
+  /**
+   * @return Number of labels
+   */
+
+  int size() {
+    return positions.length;
+  }
+
+  /**
+   * Materialize all labels
+   *
+   * @return Array of labels, indexed by vertex id
+   */
+
+  String[] toArray() {
+    String[] labels = new String[positions.length];
+    Arrays.parallelSetAll(labels, this::get);
+    return labels;
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.labeled;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * <p>Thread-safe dictionary assigning dense, consecutive ids to labels</p>
+ * <p>Labels are being distributed over a number of independently locked stripes by their hash codes, such that
+ * concurrent lookups only contend if their labels happen to fall into the same stripe. Ids are being drawn from a
+ * single shared counter whenever a new label is being inserted into its stripe, so they are always in
+ * <code>[0, size())</code>. If labels are only being added by a single thread, ids are assigned in order of first
+ * appearance.</p>
+ *
+ * @param <V> Label type
+ */
+
+class LabelDictionary<V> {
+
+  private final Object2IntOpenHashMap<V>[] stripes;
+  private final int stripeShift;
+  private final AtomicInteger nextId = new AtomicInteger();
+
+  /**
+   * Constructor
+   *
+   * @param concurrencyLevel Expected number of concurrently writing threads
+   */
+
+  @SuppressWarnings("unchecked")
+  LabelDictionary(int concurrencyLevel) {
+    int numStripes = HashCommon.nextPowerOfTwo(Math.max(1, 4 * concurrencyLevel));
+    this.stripes = (Object2IntOpenHashMap<V>[]) new Object2IntOpenHashMap<?>[numStripes];
+    this.stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(numStripes);
+    for (int i = 0; i < numStripes; i++) {
+      stripes[i] = new Object2IntOpenHashMap<>();
+    }
+  }
+
+  /**
+   * Default constructor, sized for the number of available processors
+   */
+
+  LabelDictionary() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Resolve a label, assigning a new id if it has not been seen before. This method may be called concurrently.
+   *
+   * @param label A label
+   * @return Unique id for this label
+   */
+
+  int id(V label) {
+    Object2IntOpenHashMap<V> stripe = stripes[stripe(label)];
+    synchronized (stripe) {
+      return stripe.computeIntIfAbsent(label, x -> nextId.getAndIncrement());
+    }
+  }
+
+  /**
+   * @return Number of distinct labels
+   */
+
+  int size() {
+    return nextId.get();
+  }
+
+  /**
+   * Create the inverse mapping from ids to labels. Stripes are being processed in parallel. This method may not be
+   * called concurrently with {@link #id(Object)}.
+   *
+   * @param labelClass  Label class
+   * @param permutation Mapping that has been applied to the ids or <code>null</code>. Labels mapped to -1 are being
+   *                    discarded.
+   * @param size        Number of ids after applying the mapping. Labels whose (mapped) ids are out of range, e.g. those
+   *                    of edges that have been rejected by the graph builder, are being discarded.
+   * @return Array of labels, indexed by (mapped) id
+   */
+
+  V[] invert(Class<V> labelClass, int[] permutation, int size) {
+    @SuppressWarnings("unchecked")
+    V[] labels = (V[]) Array.newInstance(labelClass, size);
+    IntStream.range(0, stripes.length).parallel().forEach(i -> stripes[i].forEach((label, id) -> {
+      int mappedId = (permutation == null) ? id : (id < permutation.length) ? permutation[id] : -1;
+      if (mappedId >= 0 && mappedId < size) labels[mappedId] = label;
+    }));
+    return labels;
+  }
+
+  /**
+   * Select a stripe by the label's high hash bits, which are independent of the slots used within the stripe itself
+   *
+   * @param label A label
+   * @return Stripe index
+   */
+
+  private int stripe(V label) {
+    return (stripeShift == Integer.SIZE) ? 0 : HashCommon.mix(label.hashCode()) >>> stripeShift;
+  }
+
+}
@@ -15,6 +15,8 @@ import java.io.Serializable;
  * More precisely, this is merely a wrapper object for regular sparse graphs
  * together with a mapping from int vertex indices to labels.
  * </p>
+ * <p>String labels may alternatively be kept in a compact byte representation (see
+ * {@link LabeledGraphBuilder#withCompactLabels()}). In that case, label objects are only being created upon lookup.</p>
  *
  * @param <V> Label type
  */
@@ -25,6 +27,7 @@ public class LabeledGraph<V extends Serializable> implements Serializable {
 
   private final CompressedSparseGraph graph;
   private final V[] labels;
+  private final CompactStringLabels compactLabels;
 
   /**
    * Constructor
@@ -36,6 +39,32 @@ public class LabeledGraph<V extends Serializable> implements Serializable {
   LabeledGraph(CompressedSparseGraph graph, V[] labels) {
     this.graph = graph;
     this.labels = labels;
+    this.compactLabels = null;
+  }
+
+  /**
+   * Constructor for graphs with compact string labels
+   *
+   * @param graph         A graph
+   * @param compactLabels Compact label storage
+   */
+
+  private LabeledGraph(CompressedSparseGraph graph, CompactStringLabels compactLabels) {
+    this.graph = graph;
+    this.labels = null;
+    this.compactLabels = compactLabels;
+  }
+
+  /**
+   * Create a labeled graph with compact string labels
+   *
+   * @param graph  A graph
+   * @param labels Array of labels, indexed by vertex id. The array is not being retained.
+   * @return A new labeled graph
+   */
+
+  static LabeledGraph<String> compact(CompressedSparseGraph graph, String[] labels) {
+    return new LabeledGraph<>(graph, CompactStringLabels.of(labels));
   }
 
   /**
@@ -51,15 +80,26 @@ public class LabeledGraph<V extends Serializable> implements Serializable {
    * @return The label for a particular vertex id
    */
 
+  @SuppressWarnings("unchecked")
   public V getLabel(int vertexId) {
-    return labels[vertexId];
+    return (labels != null) ? labels[vertexId] : (V) compactLabels.get(vertexId);
   }
 
   /**
-   * @return All vertex-label mappings
+   * @return All vertex-label mappings. For compact labels, this creates a new array of label objects on every call.
+   * Use {@link #getLabel(int)} for individual lookups instead.
    */
 
+  @SuppressWarnings("unchecked")
   public V[] getLabels() {
-    return labels;
+    return (labels != null) ? labels : (V[]) compactLabels.toArray();
+  }
+
+  /**
+   * @return Whether the labels are being stored in compact form
+   */
+
+  public boolean hasCompactLabels() {
+    return compactLabels != null;
   }
 }
@@ -5,24 +5,29 @@
 
 package net.adeptropolis.frogspawn.graphs.labeled;
 
-import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraph;
 import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraphBuilder;
+import net.adeptropolis.frogspawn.graphs.implementations.GraphBuildSettings;
+import net.adeptropolis.frogspawn.graphs.implementations.GraphConstructionException;
+import net.adeptropolis.frogspawn.graphs.implementations.ShardedGraphBuilder;
 
 import java.io.Serializable;
-import java.lang.reflect.Array;
 
 /**
- * Provides a convenient builder for compressed sparse graphs from labels instead of integers.
+ * <p>Provides a convenient builder for compressed sparse graphs from labels instead of integers.</p>
+ * <p>Builders created by {@link #concurrent(Class)} accept edges from multiple threads at once. Their vertex ids are
+ * still dense, but depend on the order in which labels first appear across all threads.</p>
  *
  * @param <V> Label type
  */
 
 public class LabeledGraphBuilder<V extends Serializable> {
 
-  private final Object2IntOpenHashMap<V> vertexMap;
+  private final LabelDictionary<V> vertexMap;
   private final CompressedSparseGraphBuilder builder;
+  private final ShardedGraphBuilder shardedBuilder;
   private final Class<V> labelClass;
+  private boolean compactLabels = false;
 
   /**
    * Constructor
@@ -33,8 +38,23 @@ public class LabeledGraphBuilder<V extends Serializable> {
 
   public LabeledGraphBuilder(Class<V> labelClass, long initialCapacity) {
     this.labelClass = labelClass;
-    this.vertexMap = new Object2IntOpenHashMap<>();
+    this.vertexMap = new LabelDictionary<>();
     this.builder = (initialCapacity >= 0) ? new CompressedSparseGraphBuilder(initialCapacity, 1d) : new CompressedSparseGraphBuilder(1d);
+    this.shardedBuilder = null;
+  }
+
+  /**
+   * Constructor for thread-safe builders
+   *
+   * @param labelClass     Label class
+   * @param shardedBuilder Thread-safe builder for the underlying graph
+   */
+
+  private LabeledGraphBuilder(Class<V> labelClass, ShardedGraphBuilder shardedBuilder) {
+    this.labelClass = labelClass;
+    this.vertexMap = new LabelDictionary<>();
+    this.builder = null;
+    this.shardedBuilder = shardedBuilder;
   }
 
   /**
@@ -47,9 +67,58 @@ public class LabeledGraphBuilder<V extends Serializable> {
     this(labelClass, -1);
   }
 
+  /**
+   * Create a builder whose <code>add</code> method may be called concurrently. Both label resolution and edge
+   * buffering are being spread over independent stripes and shards.
+   *
+   * @param labelClass Label class
+   * @param <V>        Label type
+   * @return A new thread-safe builder instance
+   * @see ShardedGraphBuilder
+   */
+
+  public static <V extends Serializable> LabeledGraphBuilder<V> concurrent(Class<V> labelClass) {
+    return new LabeledGraphBuilder<>(labelClass, new ShardedGraphBuilder());
+  }
 
   /**
-   * Add a new undirected edge to the graph.
+   * Set the weight storage, vertex ordering, sparsification and pruning of the resulting graph. Labels are being
+   * remapped accordingly and the labels of removed vertices are being discarded.
+   *
+   * @param settings Build settings
+   * @return this
+   * @see CompressedSparseGraphBuilder#withSettings(GraphBuildSettings)
+   */
+
+  public LabeledGraphBuilder<V> withSettings(GraphBuildSettings settings) {
+    if (shardedBuilder != null) {
+      shardedBuilder.withSettings(settings);
+    } else {
+      builder.withSettings(settings);
+    }
+    return this;
+  }
+
+  /**
+   * Store the labels of the resulting graph in compact form, i.e. as concatenated UTF-8 bytes instead of individual
+   * string objects. Only supported for <code>String</code> labels.
+   *
+   * @return this
+   * @throws GraphConstructionException if the label type is not <code>String</code>
+   * @see LabeledGraph#getLabel(int)
+   */
+
+  public LabeledGraphBuilder<V> withCompactLabels() {
+    if (labelClass != String.class) {
+      throw new GraphConstructionException("Compact labels are only supported for String labels");
+    }
+    this.compactLabels = true;
+    return this;
+  }
+
+  /**
+   * Add a new undirected edge to the graph. This method may only be called concurrently on builders created by
+   * {@link #concurrent(Class)}.
    *
    * @param left   left vertex label
    * @param right  right vertex label
@@ -58,41 +127,64 @@ public class LabeledGraphBuilder<V extends Serializable> {
    */
 
   public LabeledGraphBuilder<V> add(V left, V right, double weight) {
-    builder.add(vertexId(left), vertexId(right), weight);
+    addResolved(vertexId(left), vertexId(right), weight);
     return this;
   }
 
   /**
-   * Build the labeled graph
+   * Resolve a label, assigning a new vertex id if it has not been seen before. Concurrency constraints are the same as
+   * for {@link #add(Serializable, Serializable, double)}.
    *
-   * @return A new immutable LabeledGraph instance
+   * @param label A label
+   * @return Vertex id of the label
    */
 
-  public LabeledGraph<V> build() {
-    CompressedSparseGraph graph = builder.build();
-    V[] labels = invertLabels();
-    return new LabeledGraph<>(graph, labels);
+  int vertexId(V label) {
+    return vertexMap.id(label);
   }
 
   /**
-   * @return Mapping between vertex ids and labels
+   * Add a new undirected edge between two vertices whose labels have already been resolved using
+   * {@link #vertexId(Serializable)}. Concurrency constraints are the same as for
+   * {@link #add(Serializable, Serializable, double)}.
+   *
+   * @param u      left vertex id
+   * @param v      right vertex id
+   * @param weight edge weight
    */
 
-  private V[] invertLabels() {
-    @SuppressWarnings("unchecked")
-    V[] map = (V[]) Array.newInstance(labelClass, vertexMap.size());
-    vertexMap.forEach((label, id) -> map[id] = label);
-    return map;
+  void addResolved(int u, int v, double weight) {
+    if (shardedBuilder != null) {
+      shardedBuilder.add(u, v, weight);
+    } else {
+      builder.add(u, v, weight);
+    }
   }
 
   /**
-   * @param label A label
-   * @return Unique vertex id for this label
+   * Build the labeled graph
+   *
+   * @return A new immutable LabeledGraph instance
    */
 
-  private int vertexId(V label) {
-    return vertexMap.computeIntIfAbsent(label, x -> vertexMap.size());
+  public LabeledGraph<V> build() {
+    CompressedSparseGraph graph = (shardedBuilder != null) ? shardedBuilder.build() : builder.build();
+    int[] permutation = (shardedBuilder != null) ? shardedBuilder.getPermutation() : builder.getPermutation();
+    V[] labels = vertexMap.invert(labelClass, permutation, graph.order());
+    return compactLabels ? compact(graph, labels) : new LabeledGraph<>(graph, labels);
   }
 
+  /**
+   * Create a labeled graph with compact string labels
+   *
+   * @param graph  A graph
+   * @param labels Array of string labels, indexed by vertex id
+   * @return A new labeled graph
+   */
+
+  @SuppressWarnings("unchecked")
+  private LabeledGraph<V> compact(CompressedSparseGraph graph, V[] labels) {
+    return (LabeledGraph<V>) (LabeledGraph<?>) LabeledGraph.compact(graph, (String[]) labels);
+  }
 
 }
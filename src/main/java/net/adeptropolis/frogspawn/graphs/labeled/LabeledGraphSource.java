@@ -5,16 +5,37 @@
 
 package net.adeptropolis.frogspawn.graphs.labeled;
 
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.adeptropolis.frogspawn.graphs.implementations.BinaryEdgeListFile;
+import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraphBuilder;
+import net.adeptropolis.frogspawn.graphs.implementations.GraphConstructionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
- * Parser(s) for labeled graphs. Right now, only TSV is supported
+ * Parser(s) for labeled graphs. Supports TSV and binary edge lists with separate label files
  */
 
 public class LabeledGraphSource {
 
+  private static final long CHUNK_SIZE = 1 << 24;
+  private static final long LINE_OVERHANG = 1 << 16;
   private static final Pattern TSVParsePattern = Pattern.compile("\\s*(?<weight>[0-9.]+)\t+(?<u>[^\t]+)\t+(?<v>.+)\\s*");
 
   /**
@@ -45,4 +66,256 @@ public class LabeledGraphSource {
     return builder.build();
   }
 
+  /**
+   * <p>Read a labeled graph from a UTF-8 encoded Tab-delimited file</p>
+   * <p>The file is being memory-mapped and split into chunks at line boundaries, which are being parsed in parallel.
+   * The edges of all chunks are being added to a thread-safe builder in parallel as well. Accepted lines, labels and
+   * vertex ids are the same as for {@link #fromTSV(Stream)} with the file's lines.</p>
+   *
+   * @param path Path to the file
+   * @return A new weighted graph
+   * @throws IOException if the file could not be read
+   */
+
+  public static LabeledGraph<String> fromTSV(Path path) throws IOException {
+    return fromTSV(path, false);
+  }
+
+  /**
+   * <p>Read a labeled graph from a UTF-8 encoded Tab-delimited file, optionally resolving labels concurrently</p>
+   * <p>By default, the labels of all chunks are being resolved in file order, which is the only sequential step of
+   * reading a file. With <code>concurrentLabels</code>, every chunk resolves its labels right away using the builder's
+   * concurrent label dictionary instead. The resulting graph is isomorphic to the default one, but its vertex ids
+   * depend on thread timing and are thus not reproducible.</p>
+   *
+   * @param path             Path to the file
+   * @param concurrentLabels Whether to resolve labels concurrently
+   * @return A new weighted graph
+   * @throws IOException if the file could not be read
+   * @see LabeledGraphBuilder#concurrent(Class)
+   */
+
+  public static LabeledGraph<String> fromTSV(Path path, boolean concurrentLabels) throws IOException {
+    return fromTSV(path, CHUNK_SIZE, concurrentLabels);
+  }
+
+  /**
+   * Read a labeled graph from a UTF-8 encoded Tab-delimited file
+   *
+   * @param path             Path to the file
+   * @param chunkSize        Chunk size in bytes
+   * @param concurrentLabels Whether to resolve labels concurrently
+   * @return A new weighted graph
+   * @throws IOException if the file could not be read
+   */
+
+  static LabeledGraph<String> fromTSV(Path path, long chunkSize, boolean concurrentLabels) throws IOException {
+    LabeledGraphBuilder<String> builder = LabeledGraphBuilder.concurrent(String.class);
+    scanTSV(path, chunkSize, builder::vertexId, builder::addResolved, concurrentLabels ? ScanMode.CONCURRENT : ScanMode.ORDERED_LABELS);
+    return builder.build();
+  }
+
+  /**
+   * <p>Convert a UTF-8 encoded Tab-delimited file into a binary edge list and a label file</p>
+   * <p>Vertex ids are the same as for {@link #fromTSV(Path)}. The label file contains one label per line, ordered by
+   * vertex id.</p>
+   *
+   * @param tsv             Path to the TSV file
+   * @param edgeFile        Output edge list file
+   * @param labelFile       Output label file
+   * @param singlePrecision Whether weights should be stored as float instead of double
+   * @throws IOException if any of the files could not be read or written
+   * @see BinaryEdgeListFile
+   */
+
+  public static void convertTSV(Path tsv, File edgeFile, Path labelFile, boolean singlePrecision) throws IOException {
+    Object2IntOpenHashMap<String> vertexMap = new Object2IntOpenHashMap<>();
+    List<String> labels = new ArrayList<>();
+    try (BinaryEdgeListFile.Writer writer = BinaryEdgeListFile.writer(edgeFile, singlePrecision)) {
+      scanTSV(tsv, CHUNK_SIZE, label -> vertexMap.computeIntIfAbsent(label, x -> registerLabel(labels, label)),
+              writer::add, ScanMode.SEQUENTIAL);
+    }
+    Files.write(labelFile, labels, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read a labeled graph from a binary edge list and a label file, as being created by
+   * {@link #convertTSV(Path, File, Path, boolean)}
+   *
+   * @param edgeFile  Edge list file
+   * @param labelFile Label file
+   * @return A new weighted graph
+   * @throws IOException if any of the files could not be read
+   */
+
+  public static LabeledGraph<String> fromBinary(File edgeFile, Path labelFile) throws IOException {
+    String[] labels = Files.readAllLines(labelFile, StandardCharsets.UTF_8).toArray(new String[0]);
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(1d);
+    BinaryEdgeListFile.read(edgeFile, builder);
+    return new LabeledGraph<>(builder.build(), labels);
+  }
+
+  /**
+   * Append a label to the list of known labels
+   *
+   * @param labels List of labels
+   * @param label  New label
+   * @return Vertex id of the new label
+   */
+
+  private static int registerLabel(List<String> labels, String label) {
+    labels.add(label);
+    return labels.size() - 1;
+  }
+
+  /**
+   * <p>Scan all edges of a UTF-8 encoded Tab-delimited file</p>
+   * <p>The file is being processed in batches of chunks. All chunks of a batch are being parsed in parallel. Unless
+   * labels are being resolved concurrently, the distinct labels of all chunks are then being resolved in file order,
+   * such that vertex ids are assigned in order of first appearance. Finally, the edges are being passed to the
+   * consumer.</p>
+   *
+   * @param path      Path to the file
+   * @param chunkSize Chunk size in bytes
+   * @param resolver  Resolves labels to vertex ids. Needs to be thread-safe for <code>ScanMode.CONCURRENT</code>
+   * @param consumer  Consumer for all edges. Needs to be thread-safe unless mode is <code>ScanMode.SEQUENTIAL</code>
+   * @param mode      Which steps may be run concurrently
+   * @throws IOException if the file could not be read
+   */
+
+  private static void scanTSV(Path path, long chunkSize, ToIntFunction<String> resolver, EdgeConsumer consumer,
+                              ScanMode mode) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      int numChunks = (int) ((size + chunkSize - 1) / chunkSize);
+      int batchSize = Runtime.getRuntime().availableProcessors();
+      for (int batchStart = 0; batchStart < numChunks; batchStart += batchSize) {
+        IntStream batch = IntStream.range(batchStart, Math.min(batchStart + batchSize, numChunks)).parallel();
+        if (mode == ScanMode.CONCURRENT) {
+          batch.forEach(chunk -> {
+            TSVChunkParser parser = parseChunk(channel, size, chunk * chunkSize, chunkSize);
+            emit(parser, resolve(parser, resolver), consumer);
+          });
+          continue;
+        }
+        List<TSVChunkParser> parsers = batch
+                .mapToObj(chunk -> parseChunk(channel, size, chunk * chunkSize, chunkSize))
+                .collect(Collectors.toList());
+        List<int[]> vertexIds = parsers.stream().map(parser -> resolve(parser, resolver)).collect(Collectors.toList());
+        IntStream chunks = IntStream.range(0, parsers.size());
+        (mode == ScanMode.ORDERED_LABELS ? chunks.parallel() : chunks)
+                .forEach(i -> emit(parsers.get(i), vertexIds.get(i), consumer));
+      }
+    }
+  }
+
+  /**
+   * Resolve the distinct labels of a parsed chunk in order of their first appearance
+   *
+   * @param parser   Parsed chunk
+   * @param resolver Resolves labels to vertex ids
+   * @return Array mapping chunk-local label ids to vertex ids
+   */
+
+  private static int[] resolve(TSVChunkParser parser, ToIntFunction<String> resolver) {
+    int[] vertexIds = new int[parser.numLabels()];
+    for (int i = 0; i < vertexIds.length; i++) {
+      vertexIds[i] = resolver.applyAsInt(parser.label(i));
+    }
+    return vertexIds;
+  }
+
+  /**
+   * Pass all edges of a parsed chunk to a consumer
+   *
+   * @param parser    Parsed chunk
+   * @param vertexIds Vertex ids of the chunk's labels
+   * @param consumer  Edge consumer
+   */
+
+  private static void emit(TSVChunkParser parser, int[] vertexIds, EdgeConsumer consumer) {
+    for (int i = 0; i < parser.size(); i++) {
+      consumer.accept(vertexIds[parser.leftId(i)], vertexIds[parser.rightId(i)], parser.weight(i));
+    }
+  }
+
+  /**
+   * Map and parse a single chunk. The mapped region starts one byte before the chunk in order to detect line boundaries
+   * and extends by a small overhang beyond the chunk's end, which usually covers the chunk's last line. If that line
+   * runs into the end of the mapped region, the chunk is being parsed again with twice the overhang.
+   *
+   * @param channel    File channel
+   * @param size       File size
+   * @param chunkStart Offset of the chunk within the file
+   * @param chunkSize  Chunk size in bytes
+   * @return Parser containing all edges of the chunk
+   */
+
+  private static TSVChunkParser parseChunk(FileChannel channel, long size, long chunkStart, long chunkSize) {
+    long start = Math.max(0L, chunkStart - 1);
+    long end = Math.min(size, chunkStart + chunkSize);
+    long overhang = LINE_OVERHANG;
+    try {
+      while (true) {
+        long mappedSize = Math.min(size, end + overhang) - start;
+        if (mappedSize > Integer.MAX_VALUE) {
+          throw new GraphConstructionException(String.format("Line at offset %d exceeds the maximum length", end));
+        }
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, start, mappedSize);
+        TSVChunkParser parser = new TSVChunkParser(buf, (int) (chunkStart - start), (int) (end - start)).parse();
+        if (!parser.isTruncated() || start + mappedSize == size) {
+          return parser;
+        }
+        overhang *= 2;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Concurrency of scanning a file. Parsing always takes place in parallel.
+   */
+
+  private enum ScanMode {
+
+    /**
+     * Resolve labels in file order and pass edges to the consumer in file order
+     */
+
+    SEQUENTIAL,
+
+    /**
+     * Resolve labels in file order, but pass edges to the consumer concurrently
+     */
+
+    ORDERED_LABELS,
+
+    /**
+     * Resolve labels and pass edges to the consumer concurrently
+     */
+
+    CONCURRENT
+
+  }
+
+  /**
+   * Consumer for edges between resolved vertex ids
+   */
+
+  @FunctionalInterface
+  private interface EdgeConsumer {
+
+    /**
+     * Accept a new edge
+     *
+     * @param u      Left vertex id
+     * @param v      Right vertex id
+     * @param weight Edge weight
+     */
+
+    void accept(int u, int v, double weight);
+
+  }
+
 }
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.labeled;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Hand-written scanner for a chunk of a UTF-8 encoded TSV file</p>
+ * <p>The scanner accepts exactly the same lines as the pattern used by {@link LabeledGraphSource#fromTSV(java.util.stream.Stream)}
+ * and extracts the same fields. Lines are being separated by <code>\n</code> or <code>\r</code>. A chunk covers all
+ * lines that start within its byte range, i.e. chunks may be parsed independently of each other.</p>
+ * <p>Every distinct label of a chunk is being stored only once and assigned a chunk-local id in order of first
+ * appearance. Edges refer to their endpoints by these local ids.</p>
+ */
+
+class TSVChunkParser {
+
+  private static final double[] POWERS_OF_TEN = {
+          1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+          1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+  private final ByteBuffer buf;
+  private final int chunkStart;
+  private final int chunkEnd;
+  private final Object2IntOpenHashMap<String> localIds = new Object2IntOpenHashMap<>();
+  private final ObjectArrayList<String> labels = new ObjectArrayList<>();
+  private final IntArrayList leftIds = new IntArrayList();
+  private final IntArrayList rightIds = new IntArrayList();
+  private final DoubleArrayList weights = new DoubleArrayList();
+  private boolean truncated = false;
+
+  /**
+   * Constructor
+   *
+   * @param buf        Buffer containing the chunk. Needs to extend to the end of the chunk's last line.
+   * @param chunkStart Offset of the chunk within the buffer. The buffer must contain the preceding byte if this is not 0.
+   * @param chunkEnd   End of the chunk within the buffer (exclusive)
+   */
+
+  TSVChunkParser(ByteBuffer buf, int chunkStart, int chunkEnd) {
+    this.buf = buf;
+    this.chunkStart = chunkStart;
+    this.chunkEnd = chunkEnd;
+  }
+
+  /**
+   * Parse all lines starting within the chunk
+   *
+   * @return this
+   */
+
+  TSVChunkParser parse() {
+    int limit = buf.limit();
+    int pos = chunkStart;
+    if (pos > 0 && !isLineSeparator(buf.get(pos - 1))) {
+      while (pos < limit && !isLineSeparator(buf.get(pos))) pos++;
+      pos++;
+    }
+    while (pos < chunkEnd && pos < limit) {
+      int end = pos;
+      while (end < limit && !isLineSeparator(buf.get(end))) end++;
+      truncated = (end == limit);
+      parseLine(pos, end);
+      pos = end + 1;
+    }
+    return this;
+  }
+
+  /**
+   * @return Number of parsed edges
+   */
+
+  int size() {
+    return weights.size();
+  }
+
+  /**
+   * @return Whether the last line of the chunk ran into the end of the buffer, i.e. may be incomplete unless the buffer
+   * ends with the file
+   */
+
+  boolean isTruncated() {
+    return truncated;
+  }
+
+  /**
+   * @return Number of distinct labels within the chunk
+   */
+
+  int numLabels() {
+    return labels.size();
+  }
+
+  /**
+   * @param localId Chunk-local label id
+   * @return Label
+   */
+
+  String label(int localId) {
+    return labels.get(localId);
+  }
+
+  /**
+   * @param i Edge index
+   * @return Chunk-local label id of the i-th edge's left endpoint
+   */
+
+  int leftId(int i) {
+    return leftIds.getInt(i);
+  }
+
+  /**
+   * @param i Edge index
+   * @return Chunk-local label id of the i-th edge's right endpoint
+   */
+
+  int rightId(int i) {
+    return rightIds.getInt(i);
+  }
+
+  /**
+   * @param i Edge index
+   * @return Left label of the i-th edge
+   */
+
+  String leftLabel(int i) {
+    return label(leftId(i));
+  }
+
+  /**
+   * @param i Edge index
+   * @return Right label of the i-th edge
+   */
+
+  String rightLabel(int i) {
+    return label(rightId(i));
+  }
+
+  /**
+   * @param i Edge index
+   * @return Weight of the i-th edge
+   */
+
+  double weight(int i) {
+    return weights.getDouble(i);
+  }
+
+  /**
+   * Parse a single line. Every maximal run of digits and dots is being tried as weight field (leftmost first), since the
+   * original pattern is not anchored.
+   *
+   * @param from Start of the line
+   * @param to   End of the line (exclusive)
+   */
+
+  private void parseLine(int from, int to) {
+    int pos = from;
+    while (pos < to) {
+      if (!isWeightChar(buf.get(pos))) {
+        pos++;
+        continue;
+      }
+      int weightEnd = pos;
+      while (weightEnd < to && isWeightChar(buf.get(weightEnd))) weightEnd++;
+      if (parseFields(pos, weightEnd, to)) {
+        return;
+      }
+      pos = weightEnd;
+    }
+  }
+
+  /**
+   * Try to parse the fields following a candidate weight
+   *
+   * @param weightStart Start of the weight field
+   * @param weightEnd   End of the weight field (exclusive)
+   * @param to          End of the line (exclusive)
+   * @return <code>true</code> if the line could be parsed
+   */
+
+  private boolean parseFields(int weightStart, int weightEnd, int to) {
+    int pos = skipTabs(weightEnd, to);
+    if (pos == weightEnd || pos == to) {
+      return false;
+    }
+    int leftStart = pos;
+    while (pos < to && buf.get(pos) != '\t') pos++;
+    if (pos == to) {
+      return false;
+    }
+    int leftEnd = pos;
+    pos = skipTabs(pos, to);
+    int rightStart = pos;
+    int rightEnd = pos;
+    while (rightEnd < to && terminatorLength(rightEnd, to) == 0) rightEnd++;
+    if (rightEnd == rightStart) {
+      if (rightStart - leftEnd < 2) {
+        return false;
+      }
+      rightStart--; // Nothing but tabs left: the right label is the last tab
+    }
+    leftIds.add(localId(decode(leftStart, leftEnd)));
+    rightIds.add(localId(decode(rightStart, rightEnd)));
+    weights.add(parseWeight(weightStart, weightEnd));
+    return true;
+  }
+
+  /**
+   * @param label A label
+   * @return Chunk-local id of the label
+   */
+
+  private int localId(String label) {
+    return localIds.computeIntIfAbsent(label, x -> {
+      labels.add(label);
+      return labels.size() - 1;
+    });
+  }
+
+  /**
+   * @param pos Current position
+   * @param to  End of the line (exclusive)
+   * @return Position of the first non-tab character
+   */
+
+  private int skipTabs(int pos, int to) {
+    while (pos < to && buf.get(pos) == '\t') pos++;
+    return pos;
+  }
+
+  /**
+   * Check for one of the line terminators that aren't matched by the <code>.</code> regex character class. Within a
+   * line, only <code>U+0085</code>, <code>U+2028</code> and <code>U+2029</code> may occur.
+   *
+   * @param pos Current position
+   * @param to  End of the line (exclusive)
+   * @return Number of bytes of the UTF-8 encoded terminator at the given position or 0
+   */
+
+  private int terminatorLength(int pos, int to) {
+    byte b = buf.get(pos);
+    if (b == (byte) 0xC2 && pos + 1 < to && buf.get(pos + 1) == (byte) 0x85) {
+      return 2;
+    }
+    if (b == (byte) 0xE2 && pos + 2 < to && buf.get(pos + 1) == (byte) 0x80
+            && (buf.get(pos + 2) == (byte) 0xA8 || buf.get(pos + 2) == (byte) 0xA9)) {
+      return 3;
+    }
+    return 0;
+  }
+
+  /**
+   * Parse a weight. As long as the digits form an integer below 2^53 and there are at most 22 fractional digits,
+   * a single (correctly rounded) division yields the same result as <code>Double.parseDouble</code>, which is being
+   * used as fallback otherwise.
+   *
+   * @param from Start of the weight field
+   * @param to   End of the weight field (exclusive)
+   * @return Weight
+   * @throws NumberFormatException if the field is no valid number
+   */
+
+  private double parseWeight(int from, int to) {
+    long mantissa = 0;
+    int fractionDigits = 0;
+    boolean dot = false;
+    boolean digits = false;
+    for (int pos = from; pos < to; pos++) {
+      byte b = buf.get(pos);
+      if (b == '.') {
+        if (dot) {
+          return Double.parseDouble(decode(from, to));
+        }
+        dot = true;
+      } else {
+        mantissa = 10 * mantissa + (b - '0');
+        if (mantissa >= MAX_EXACT_MANTISSA) {
+          return Double.parseDouble(decode(from, to));
+        }
+        digits = true;
+        if (dot) fractionDigits++;
+      }
+    }
+    if (!digits || fractionDigits >= POWERS_OF_TEN.length) {
+      return Double.parseDouble(decode(from, to));
+    }
+    return mantissa / POWERS_OF_TEN[fractionDigits];
+  }
+
+  /**
+   * @param from Start
+   * @param to   End (exclusive)
+   * @return Decoded UTF-8 string
+   */
+
+  private String decode(int from, int to) {
+    byte[] bytes = new byte[to - from];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buf.get(from + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param b A byte
+   * @return Whether the byte may be part of a weight
+   */
+
+  private static boolean isWeightChar(byte b) {
+    return (b >= '0' && b <= '9') || b == '.';
+  }
+
+  /**
+   * @param b A byte
+   * @return Whether the byte separates lines
+   */
+
+  private static boolean isLineSeparator(byte b) {
+    return b == '\n' || b == '\r';
+  }
+
+}
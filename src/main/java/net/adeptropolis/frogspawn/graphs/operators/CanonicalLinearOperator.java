@@ -51,6 +51,11 @@ public class CanonicalLinearOperator implements LinearGraphOperator, EdgeConsume
     return graph.order();
   }
 
+  @Override
+  public Graph getGraph() {
+    return graph;
+  }
+
   /**
    * Internal: Callback for graph traversal
    *
@@ -5,6 +5,8 @@
 
 package net.adeptropolis.frogspawn.graphs.operators;
 
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.helpers.Vectors;
 
 /**
  * <p>A linear graph operator</p>
@@ -19,8 +21,30 @@ public interface LinearGraphOperator {
 
   double[] apply(double[] argument);
 
+  /**
+   * Apply the given operator to the argument vector and store the normalized result in a given buffer. Implementations
+   * may override this to fuse normalization with the operator application.
+   *
+   * @param argument A vertex-indexed vector
+   * @param target   Buffer for the normalized result. Must not be identical to the argument
+   */
+
+  default void applyNormalized(double[] argument, double[] target) {
+    System.arraycopy(apply(argument), 0, target, 0, size());
+    Vectors.normalize2(target);
+  }
+
   /**
    * @return Size of the operator
    */
   int size();
+
+  /**
+   * @return The underlying graph or <code>null</code> if there is none. Solvers may use it to run vector operations
+   * through the graph's parallel vertex traversals. Defaults to <code>null</code>
+   */
+
+  default Graph getGraph() {
+    return null;
+  }
 }
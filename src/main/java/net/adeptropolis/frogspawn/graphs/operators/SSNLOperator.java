@@ -7,7 +7,7 @@ package net.adeptropolis.frogspawn.graphs.operators;
 
 import com.google.common.annotations.VisibleForTesting;
 import net.adeptropolis.frogspawn.graphs.Graph;
-import net.adeptropolis.frogspawn.helpers.Vectors;
+import net.adeptropolis.frogspawn.graphs.traversal.RowReducer;
 
 /**
  * <p>A spectrally shifted normalized laplacian operator</p>
@@ -23,15 +23,36 @@ import net.adeptropolis.frogspawn.helpers.Vectors;
  * </ul>
  * <p>This implementation does not validate any of those requirements. Any result stemming from ignoring one of the above
  * is simply undefined.</p>
+ * <p>The inverse square roots of all vertex weights are being computed once upon construction. Every application of
+ * the operator then takes two parallel passes: the first one scales the argument and computes its projection onto the
+ * trivial eigenvector, the second one performs the matrix-vector product row by row and immediately unscales, shifts and
+ * deflates each row. The second pass also yields the squared norm of the result, which allows for normalization
+ * without another full reduction (see {@link #applyNormalized(double[], double[])}). Both reductions sum up their
+ * partial results along a task tree that only depends on the graph, so results do not depend on the parallelism.</p>
+ * <p>Instances hold preallocated buffers and are therefore not thread-safe, i.e. every thread needs its own
+ * operator.</p>
  */
 
 public class SSNLOperator implements LinearGraphOperator {
 
+  /**
+   * Lower bound of the operator's spectrum. The normalized laplacian's spectrum lies within [0, 2], hence <code>2I - L</code>
+   * has non-negative eigenvalues, and the trivial eigenvector is being deflated to 0.
+   */
+
+  public static final double SPECTRUM_LOWER_BOUND = 0;
+
+  /**
+   * Upper bound of the operator's spectrum
+   */
+
+  public static final double SPECTRUM_UPPER_BOUND = 2;
+
   private final Graph graph;
-  private final double[] weights;
-  private final double[] argument;
-  private final CanonicalLinearOperator linOp;
+  private final double[] invSqrtWeights;
   private final double[] v0;
+  private final double[] scaledArgument;
+  private final double[] result;
 
   /**
    * <p>Creates a new SSNLOperator instance.</p>
@@ -41,10 +62,10 @@ public class SSNLOperator implements LinearGraphOperator {
 
   public SSNLOperator(Graph graph) {
     this.graph = graph;
-    this.weights = graph.weights();
+    this.invSqrtWeights = computeInvSqrtWeights(graph);
     this.v0 = computeV0(graph);
-    this.argument = new double[graph.order()];
-    this.linOp = new CanonicalLinearOperator(graph);
+    this.scaledArgument = new double[graph.order()];
+    this.result = new double[graph.order()];
   }
 
   /**
@@ -65,25 +86,63 @@ public class SSNLOperator implements LinearGraphOperator {
     return v0;
   }
 
+  /**
+   * Compute the inverse square roots of all vertex weights
+   *
+   * @param graph A graph
+   * @return Vertex-indexed inverse square roots of the weights
+   */
+
+  private static double[] computeInvSqrtWeights(Graph graph) {
+    double[] weights = graph.weights();
+    double[] invSqrtWeights = new double[graph.order()];
+    for (int i = 0; i < graph.order(); i++) {
+      invSqrtWeights[i] = 1 / Math.sqrt(weights[i]);
+    }
+    return invSqrtWeights;
+  }
+
   /**
    * Apply the spectrally shifted normalized laplacian
    *
    * @param x A normalized vertex-indexed vector
-   * @return The result of applying the spectrally shifted normalized laplacian to the given argument x.
+   * @return The result of applying the spectrally shifted normalized laplacian to the given argument x. Note that the
+   * returned array is being reused by subsequent calls.
    */
 
   public double[] apply(double[] x) {
-    double mu = 2 * Vectors.scalarProduct(v0, x);
-    for (int i = 0; i < graph.order(); i++) {
-      argument[i] = x[i] / Math.sqrt(weights[i]);
-    }
-    double[] result = linOp.apply(argument);
-    for (int i = 0; i < graph.order(); i++) {
-      result[i] = x[i] + result[i] / Math.sqrt(weights[i]) - mu * v0[i];
-    }
+    apply(x, result);
     return result;
   }
 
+  /**
+   * Apply the spectrally shifted normalized laplacian and normalize the result. Normalization only takes a single
+   * additional pass, since the squared norm is being accumulated while computing the result.
+   *
+   * @param x      A normalized vertex-indexed vector
+   * @param target Buffer for the normalized result. Must not be identical to <code>x</code>
+   */
+
+  @Override
+  public void applyNormalized(double[] x, double[] target) {
+    double scale = 1.0 / Math.sqrt(apply(x, target));
+    graph.traverseVerticesParallel(i -> target[i] *= scale);
+  }
+
+  /**
+   * Apply the operator to a given argument
+   *
+   * @param x      A normalized vertex-indexed vector
+   * @param target Buffer for the result. Must not be identical to <code>x</code>
+   * @return Squared norm of the result
+   */
+
+  private double apply(double[] x, double[] target) {
+    Kernel kernel = new Kernel(x, target);
+    kernel.mu = 2 * graph.reduceVerticesParallel(kernel::prescale);
+    return graph.reduceRowsParallel(kernel);
+  }
+
   /**
    * @return Size of the operator
    */
@@ -93,4 +152,67 @@ public class SSNLOperator implements LinearGraphOperator {
     return graph.order();
   }
 
+  @Override
+  public Graph getGraph() {
+    return graph;
+  }
+
+  /**
+   * Internal: State of a single operator application
+   */
+
+  private class Kernel implements RowReducer {
+
+    private final double[] argument;
+    private final double[] target;
+    private double mu;
+
+    Kernel(double[] argument, double[] target) {
+      this.argument = argument;
+      this.target = target;
+    }
+
+    /**
+     * First pass: Scale a single entry of the argument by the inverse square root of its vertex weight and clear the
+     * corresponding entry of the result
+     *
+     * @param i Local vertex id
+     * @return Contribution of the entry to the projection of the argument onto the trivial eigenvector
+     */
+
+    double prescale(int i) {
+      scaledArgument[i] = argument[i] * invSqrtWeights[i];
+      target[i] = 0;
+      return v0[i] * argument[i];
+    }
+
+    /**
+     * Second pass: Accumulate a single entry of the adjacency matrix-vector product
+     *
+     * @param u      Left endpoint
+     * @param v      Right endpoint
+     * @param weight Edge weight
+     */
+
+    @Override
+    public void accept(int u, int v, double weight) {
+      target[u] += weight * scaledArgument[v];
+    }
+
+    /**
+     * Second pass: Unscale, shift and deflate a single row of the result once all of its entries have been accumulated
+     *
+     * @param u Local vertex id
+     * @return Squared entry of the result
+     */
+
+    @Override
+    public double reduceRow(int u) {
+      double y = argument[u] + target[u] * invSqrtWeights[u] - mu * v0[u];
+      target[u] = y;
+      return y * y;
+    }
+
+  }
+
 }
\ No newline at end of file
@@ -6,7 +6,7 @@
 package net.adeptropolis.frogspawn.graphs.similarity;
 
 import net.adeptropolis.frogspawn.graphs.Graph;
-import net.adeptropolis.frogspawn.graphs.traversal.ParallelEdgeOps;
+import net.adeptropolis.frogspawn.graphs.traversal.EdgeAccumulator;
 
 import java.util.Arrays;
 
@@ -37,21 +37,8 @@ public class NormalizedCutMetric implements GraphSimilarityMetric {
   }
 
   /**
-   * Create new accumulators
-   *
-   * @return Array of new accumulators
-   */
-
-  private Accumulator[] createAccumulators() {
-    Accumulator[] accumulators = new Accumulator[ParallelEdgeOps.slices()];
-    for (int i = 0; i < ParallelEdgeOps.slices(); i++) {
-      accumulators[i] = new Accumulator();
-    }
-    return accumulators;
-  }
-
-  /**
-   * Traverse the graph and accumulate weights
+   * Traverse the graph and accumulate weights. Every traversal task collects its own partial sums, which are being
+   * merged afterwards. This allows for lock-free parallel traversal without any vertex-indexed buffers.
    *
    * @param supergraph A graph
    * @param subgraph   Subgraph
@@ -60,22 +47,7 @@ public class NormalizedCutMetric implements GraphSimilarityMetric {
 
   private Accumulator collectWeights(Graph supergraph, Graph subgraph) {
     boolean[] sub = subgraphMap(supergraph, subgraph);
-    Accumulator[] accumulators = createAccumulators();
-    supergraph.traverseParallel((u, v, weight) -> {
-      Accumulator acc = accumulators[ParallelEdgeOps.slice(u)];
-      if (!sub[u] && !sub[v]) {
-        acc.complementWeights += weight;
-      } else {
-        if (sub[u] && sub[v]) {
-          acc.subgraphWeights += weight;
-        } else {
-          acc.subgraphWeights += weight;
-          acc.complementWeights += weight;
-          acc.cuts += weight;
-        }
-      }
-    });
-    return reduce(accumulators);
+    return supergraph.accumulateParallel(() -> new Accumulator(sub));
   }
 
   /**
@@ -120,23 +92,6 @@ public class NormalizedCutMetric implements GraphSimilarityMetric {
 
   }
 
-  /**
-   * Reduce multiple accumulators into a single instance by just adding values
-   *
-   * @param accumulators Array of accumulators
-   * @return Single accumulator with summed up values
-   */
-
-  private static Accumulator reduce(Accumulator[] accumulators) {
-    Accumulator acc = new Accumulator();
-    for (int i = 0; i < ParallelEdgeOps.slices(); i++) {
-      acc.subgraphWeights += accumulators[i].subgraphWeights;
-      acc.complementWeights += accumulators[i].complementWeights;
-      acc.cuts += accumulators[i].cuts;
-    }
-    return acc;
-  }
-
   /**
    * @return Just the simple name
    */
@@ -148,15 +103,62 @@ public class NormalizedCutMetric implements GraphSimilarityMetric {
 
 
   /**
-   * Per-thread accumulator
+   * Accumulator for the total weights
    */
 
-  private static class Accumulator {
+  private static class Accumulator implements EdgeAccumulator<Accumulator> {
 
+    private final boolean[] sub;
     double subgraphWeights = 0;
     double complementWeights = 0;
     double cuts = 0;
 
+    /**
+     * Constructor
+     *
+     * @param sub Lookup table for the subgraph's vertices
+     */
+
+    Accumulator(boolean[] sub) {
+      this.sub = sub;
+    }
+
+    /**
+     * Accumulate the weight of a single edge
+     *
+     * @param u      Left endpoint
+     * @param v      Right endpoint
+     * @param weight Edge weight
+     */
+
+    @Override
+    public void accept(int u, int v, double weight) {
+      if (!sub[u] && !sub[v]) {
+        complementWeights += weight;
+      } else {
+        if (sub[u] && sub[v]) {
+          subgraphWeights += weight;
+        } else {
+          subgraphWeights += weight;
+          complementWeights += weight;
+          cuts += weight;
+        }
+      }
+    }
+
+    /**
+     * Add the weights of another accumulator
+     *
+     * @param other Accumulator of the subsequent vertex range
+     */
+
+    @Override
+    public void merge(Accumulator other) {
+      subgraphWeights += other.subgraphWeights;
+      complementWeights += other.complementWeights;
+      cuts += other.cuts;
+    }
+
   }
 
 }
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.traversal;
+
+/**
+ * <p>Edge consumer for reductions that yield more than a single value</p>
+ * <p>Every leaf task of a parallel traversal obtains its own accumulator, which receives all edges of the task's
+ * vertex range. Partial results are being merged along the same task tree that has been used for splitting. Thus,
+ * accumulators don't require any synchronization and their results are reproducible for any degree of
+ * parallelism.</p>
+ *
+ * @param <A> Accumulator type
+ */
+
+public interface EdgeAccumulator<A extends EdgeAccumulator<A>> extends EdgeConsumer {
+
+  /**
+   * Merge the partial result of the adjacent subsequent vertex range into this accumulator
+   *
+   * @param other Accumulator of the subsequent vertex range
+   */
+
+  void merge(A other);
+
+}
@@ -5,33 +5,59 @@
 
 package net.adeptropolis.frogspawn.graphs.traversal;
 
+import com.google.common.annotations.VisibleForTesting;
 import net.adeptropolis.frogspawn.graphs.Graph;
 
-import java.util.concurrent.CountDownLatch;
+import java.nio.LongBuffer;
+import java.util.function.Supplier;
 
 /**
- * Parallel Edge Operations
+ * <p>Parallel Edge Operations</p>
+ * <p>If the graph provides cumulative traversal costs (see {@link Graph#traversalCosts()}), the vertex range is
+ * partitioned by workload instead of vertex count. This keeps tasks balanced on graphs with heavily skewed degree
+ * distributions.</p>
+ * <p>Besides plain traversals, edges may be reduced row-wise (see {@link RowReducer}) or accumulated per task (see
+ * {@link EdgeAccumulator}).</p>
  */
 
-public final class ParallelEdgeOps extends ParallelOps implements Runnable {
+@SuppressWarnings("serial")
+public final class ParallelEdgeOps extends ParallelOps {
+
+  /**
+   * Minimum workload per task when splitting by traversal costs
+   */
+  static final long MIN_COST_GRANULARITY = 4096;
 
   private final EdgeConsumer consumer;
+  private final RowReducer reducer;
+  private final Supplier<? extends EdgeAccumulator<?>> accumulators;
   private final TraversalMode mode;
+  private final LongBuffer costs;
+  private EdgeAccumulator<?> accumulator;
 
   /**
    * Constructor
    *
-   * @param graph    Graph whose edges should be traversed
-   * @param consumer Instance of EdgeConsumer
-   * @param slice    Slice (essentially an identifier for the individual thread workload)
-   * @param mode     Selected traversal mode
-   * @param latch    Countdown latch
+   * @param graph       Graph whose edges should be traversed
+   * @param consumer    Instance of EdgeConsumer
+   * @param reducer      Row reducer. Either identical to <code>consumer</code> or <code>null</code> for plain traversals
+   * @param accumulators Supplier of per-task accumulators or <code>null</code> if not accumulating
+   * @param mode         Selected traversal mode
+   * @param costs        Cumulative traversal costs. May be <code>null</code>
+   * @param from         First local vertex id of the range processed by this task
+   * @param to           Last local vertex id of the range processed by this task (exclusive)
+   * @param tasks        Number of leaf tasks that the range should be split into
    */
 
-  private ParallelEdgeOps(Graph graph, EdgeConsumer consumer, int slice, TraversalMode mode, CountDownLatch latch) {
-    super(graph, slice, latch);
+  private ParallelEdgeOps(Graph graph, EdgeConsumer consumer, RowReducer reducer,
+                          Supplier<? extends EdgeAccumulator<?>> accumulators, TraversalMode mode, LongBuffer costs,
+                          int from, int to, int tasks) {
+    super(graph, from, to, tasks);
     this.consumer = consumer;
+    this.reducer = reducer;
+    this.accumulators = accumulators;
     this.mode = mode;
+    this.costs = costs;
   }
 
   /**
@@ -43,68 +69,209 @@ public final class ParallelEdgeOps extends ParallelOps implements Runnable {
    */
 
   public static void traverse(Graph graph, EdgeConsumer consumer, TraversalMode mode) {
-    if (graph.order() >= PARALLELIZATION_THRESHOLD) {
-      traverseParallel(graph, mode, consumer);
-    } else {
-      for (int i = 0; i < graph.order(); i++) {
-        graph.traverseIncidentEdges(i, consumer, mode);
-      }
-    }
+    run(graph, consumer, null, null, mode);
   }
 
   /**
-   * Parallel traversal over all edges of a given graph
+   * Parallel row-wise reduction over all edges of a given graph
    *
-   * @param graph    Graph
-   * @param mode     Traversal mode
-   * @param consumer Instance of EdgeConsumer
+   * @param graph   Graph
+   * @param reducer Instance of RowReducer
+   * @param mode    Traversal mode
+   * @return Sum of all values returned by {@link RowReducer#reduceRow(int)}
    */
 
-  private static void traverseParallel(Graph graph, TraversalMode mode, EdgeConsumer consumer) {
-    CountDownLatch latch = new CountDownLatch(THREAD_POOL_SIZE);
-    for (int i = 0; i < THREAD_POOL_SIZE; i++) {
-      EXECUTOR.submit(new ParallelEdgeOps(graph, consumer, i, mode, latch));
-    }
-    try {
-      latch.await();
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      throw new ParallelOpsException(e);
-    }
+  public static double reduce(Graph graph, RowReducer reducer, TraversalMode mode) {
+    return run(graph, reducer, reducer, null, mode).reduction;
   }
 
   /**
-   * Return the slice a vertex will fall into during traversal.
+   * Parallel traversal over all edges of a given graph that accumulates an arbitrary result per task
+   *
+   * @param graph        Graph
+   * @param accumulators Supplier of new, empty accumulators
+   * @param mode         Traversal mode
+   * @param <A>          Accumulator type
+   * @return Accumulator holding the merged result of all vertices
+   */
+
+  @SuppressWarnings("unchecked")
+  public static <A extends EdgeAccumulator<A>> A accumulate(Graph graph, Supplier<A> accumulators, TraversalMode mode) {
+    return (A) run(graph, null, null, accumulators, mode).accumulator;
+  }
+
+  /**
+   * Return the slice a vertex would have fallen into with the former thread-per-slice traversal.
    *
    * @param v Local vertex id
    * @return Slice index
+   * @deprecated Traversals are now split into fork/join tasks over vertex ranges, so slices no longer correspond to
+   * the threads that process a vertex and must not be used to index per-thread storage. Use
+   * {@link Graph#accumulateParallel(Supplier)} or {@link Graph#reduceRowsParallel(RowReducer)} instead.
    */
 
+  @Deprecated
   public static int slice(int v) {
-    return v % THREAD_POOL_SIZE;
+    return v % slices();
   }
 
   /**
    * Return the maximum number of slices
    *
    * @return Maximum slice index (exclusive)
+   * @deprecated See {@link #slice(int)}
    */
 
+  @Deprecated
   public static int slices() {
-    return THREAD_POOL_SIZE;
+    return POOL.getParallelism();
+  }
+
+  /**
+   * Run a traversal, either in parallel or single-threaded for small graphs
+   *
+   * @param graph        Graph
+   * @param consumer     Instance of EdgeConsumer or <code>null</code> if accumulating
+   * @param reducer      Row reducer. Either identical to <code>consumer</code> or <code>null</code> for plain traversals
+   * @param accumulators Supplier of per-task accumulators or <code>null</code> if not accumulating
+   * @param mode         Traversal mode
+   * @return Completed root task, holding the reduction and accumulator over all vertices
+   */
+
+  private static ParallelEdgeOps run(Graph graph, EdgeConsumer consumer, RowReducer reducer,
+                                     Supplier<? extends EdgeAccumulator<?>> accumulators, TraversalMode mode) {
+    if (graph.order() >= PARALLELIZATION_THRESHOLD) {
+      ParallelEdgeOps root = rootTask(graph, consumer, reducer, accumulators, mode);
+      execute(root);
+      return root;
+    } else {
+      ParallelEdgeOps task = new ParallelEdgeOps(graph, consumer, reducer, accumulators, mode, null, 0, graph.order(), 1);
+      task.reduction = task.traverseRange();
+      return task;
+    }
+  }
+
+  /**
+   * Create the root task of a parallel traversal
+   *
+   * @param graph        Graph
+   * @param consumer     Instance of EdgeConsumer or <code>null</code> if accumulating
+   * @param reducer      Row reducer. Either identical to <code>consumer</code> or <code>null</code> for plain traversals
+   * @param accumulators Supplier of per-task accumulators or <code>null</code> if not accumulating
+   * @param mode         Traversal mode
+   * @return Root task covering all vertices of the graph
+   */
+
+  @VisibleForTesting
+  static ParallelEdgeOps rootTask(Graph graph, EdgeConsumer consumer, RowReducer reducer,
+                                  Supplier<? extends EdgeAccumulator<?>> accumulators, TraversalMode mode) {
+    LongBuffer costs = graph.traversalCosts();
+    int tasks = (costs != null)
+            ? tasks(costs.get(graph.order()) - costs.get(0), MIN_COST_GRANULARITY)
+            : tasks(graph.order(), MIN_GRANULARITY);
+    return new ParallelEdgeOps(graph, consumer, reducer, accumulators, mode, costs, 0, graph.order(), tasks);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  ParallelOps subtask(int from, int to, int tasks) {
+    return new ParallelEdgeOps(graph, consumer, reducer, accumulators, mode, costs, from, to, tasks);
   }
 
   /**
-   * Runnable entry point. Traverse all edges from the current slice and decrease the latch upon completion.
+   * {@inheritDoc}
    */
 
   @Override
-  public void run() {
-    int v;
-    for (int i = 0; (v = i * THREAD_POOL_SIZE + slice) < graph.order(); i++) {
-      graph.traverseIncidentEdges(v, consumer, mode);
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  void combine(ParallelOps left, ParallelOps right) {
+    super.combine(left, right);
+    if (accumulators != null) {
+      accumulator = ((ParallelEdgeOps) left).accumulator;
+      ((EdgeAccumulator) accumulator).merge(((ParallelEdgeOps) right).accumulator);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  long workload(int from, int to) {
+    return (costs != null) ? costs.get(to) - costs.get(from) : super.workload(from, to);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  int splitPoint(int from, int to, int numerator, int denominator) {
+    return (costs != null)
+            ? balancedSplitPoint(costs, from, to, numerator, denominator)
+            : super.splitPoint(from, to, numerator, denominator);
+  }
+
+  /**
+   * Find the split point of a range such that the traversal costs of the first subrange are as close as possible to
+   * the given fraction of the range's total traversal costs
+   *
+   * @param costs       Cumulative traversal costs
+   * @param from        First local vertex id of the range
+   * @param to          Last local vertex id of the range (exclusive). Must be larger than <code>from + 1</code>
+   * @param numerator   Numerator of the fraction
+   * @param denominator Denominator of the fraction
+   * @return Split point within <code>(from, to)</code>
+   */
+
+  static int balancedSplitPoint(LongBuffer costs, int from, int to, int numerator, int denominator) {
+    long target = costs.get(from) + (costs.get(to) - costs.get(from)) * numerator / denominator;
+    int low = from + 1;
+    int high = to - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (costs.get(mid) < target) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    if (low > from + 1 && target - costs.get(low - 1) < costs.get(low) - target) {
+      return low - 1;
+    }
+    return low;
+  }
+
+  /**
+   * Traverse all edges incident to the vertices of this task's range
+   *
+   * @return Reduction over all vertices of the range or 0 for plain and accumulating traversals
+   */
+
+  @Override
+  double traverseRange() {
+    if (accumulators != null) {
+      accumulator = accumulators.get();
+      for (int v = from; v < to; v++) {
+        graph.traverseIncidentEdges(v, accumulator, mode);
+      }
+      return 0;
+    }
+    if (reducer == null) {
+      for (int v = from; v < to; v++) {
+        graph.traverseIncidentEdges(v, consumer, mode);
+      }
+      return 0;
+    }
+    double sum = 0;
+    for (int v = from; v < to; v++) {
+      graph.traverseIncidentEdges(v, reducer, mode);
+      sum += reducer.reduceRow(v);
     }
-    latch.countDown();
+    return sum;
   }
 
 }
@@ -5,67 +5,203 @@
 
 package net.adeptropolis.frogspawn.graphs.traversal;
 
+import com.google.common.annotations.VisibleForTesting;
 import net.adeptropolis.frogspawn.graphs.Graph;
 
-import java.lang.Thread.UncaughtExceptionHandler;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
- * Base class for parallel graph traversal operations
+ * <p>Base class for parallel graph traversal operations</p>
+ * <p>Traversals are implemented as fork/join tasks over ranges of local vertex ids. The number of leaf tasks is
+ * derived from the total workload upfront. Every task then recursively splits its range and its share of leaf tasks
+ * into two subranges whose workloads are proportional to their shares of leaf tasks. Thus, all leaf tasks carry
+ * (roughly) the same workload, while idle workers are still able to steal work from busy ones. Note that every vertex
+ * is always processed by exactly one task, i.e. consumers may safely write to vertex-indexed storage without further
+ * synchronization.</p>
+ * <p>Tasks may also compute a reduction, i.e. the sum of per-vertex values. Partial sums are being combined along the
+ * same task tree that has been used for splitting. Since task boundaries only depend on the workload and never on the
+ * executing pool, reductions are bitwise reproducible for any degree of parallelism. The same holds for edge
+ * traversals that merge per-task accumulators along that tree (see {@link EdgeAccumulator}).</p>
+ * <p>If a traversal is started from within a fork/join pool (e.g. when running multiple bisections at once), its
+ * tasks are forked into that very pool. Otherwise, a shared pool is being used.</p>
  */
 
-abstract class ParallelOps {
+@SuppressWarnings("serial")
+abstract class ParallelOps extends RecursiveAction {
 
   /**
    * Minimum number of vertices required to allow for parallel traversal (as opposed to single-threaded)
    */
   static final int PARALLELIZATION_THRESHOLD = 128;
 
-  static final int THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
-  static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
-          THREAD_POOL_SIZE, THREAD_POOL_SIZE, Long.MAX_VALUE, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new DaemonThreadOps());
+  /**
+   * Minimum workload per task
+   */
+  static final long MIN_GRANULARITY = 64;
+
+  /**
+   * Maximum number of leaf tasks per traversal. Provides plenty of slack for load balancing via work stealing on any
+   * common number of cores.
+   */
+  static final int MAX_TASKS = 256;
+
+  static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
   final Graph graph;
-  final int slice;
-  final CountDownLatch latch;
+  final int from;
+  final int to;
+  final int tasks;
+  double reduction;
 
   /**
    * Constructor
    *
    * @param graph The graph that whose edge are to be traversed
-   * @param slice Graph slice processed by this thread
-   * @param latch CountDown latch
+   * @param from  First local vertex id of the range processed by this task
+   * @param to    Last local vertex id of the range processed by this task (exclusive)
+   * @param tasks Number of leaf tasks that the range should be split into
    */
 
-  ParallelOps(Graph graph, int slice, CountDownLatch latch) {
+  ParallelOps(Graph graph, int from, int to, int tasks) {
     this.graph = graph;
-    this.slice = slice;
-    this.latch = latch;
+    this.from = from;
+    this.to = to;
+    this.tasks = tasks;
   }
 
-  static class DaemonThreadOps implements ThreadFactory, UncaughtExceptionHandler {
-
-    private final AtomicInteger threadId;
+  /**
+   * Run a traversal task, either within the current fork/join pool or the shared one.
+   *
+   * @param task Root traversal task
+   * @return Reduction over all vertices of the task's range
+   */
 
-    DaemonThreadOps() {
-      threadId = new AtomicInteger();
+  static double execute(ParallelOps task) {
+    if (ForkJoinTask.inForkJoinPool()) {
+      task.invoke();
+    } else {
+      POOL.invoke(task);
     }
+    return task.reduction;
+  }
+
+  /**
+   * Compute a sensible number of leaf tasks for a given total workload. Note that this deliberately ignores the
+   * parallelism of the executing pool, such that the task tree (and hence the summation order of reductions) is
+   * identical on every machine and for every clustering parallelism.
+   *
+   * @param totalWorkload  Total workload of a traversal
+   * @param minGranularity Minimum workload per task
+   * @return Number of leaf tasks
+   */
 
-    @Override
-    @SuppressWarnings("NullableProblems")
-    public Thread newThread(Runnable runnable) {
-      Thread thread = new Thread(runnable, String.format("worker-thread-%d", threadId.getAndIncrement()));
-      thread.setDaemon(true);
-      thread.setPriority(5);
-      thread.setUncaughtExceptionHandler(this);
-      return thread;
+  static int tasks(long totalWorkload, long minGranularity) {
+    return (int) Math.max(1, Math.min(MAX_TASKS, totalWorkload / minGranularity));
+  }
+
+  /**
+   * Fork/join entry point. Either process the full range or split it into two subtasks.
+   */
+
+  @Override
+  protected void compute() {
+    if (isLeaf()) {
+      reduction = traverseRange();
+    } else {
+      int leftTasks = tasks / 2;
+      int mid = splitPoint(from, to, leftTasks, tasks);
+      ParallelOps left = subtask(from, mid, leftTasks);
+      ParallelOps right = subtask(mid, to, tasks - leftTasks);
+      invokeAll(left, right);
+      combine(left, right);
     }
+  }
+
+  /**
+   * Combine the results of two subtasks that have been completed
+   *
+   * @param left  Subtask covering the first subrange
+   * @param right Subtask covering the second subrange
+   */
+
+  void combine(ParallelOps left, ParallelOps right) {
+    reduction = left.reduction + right.reduction;
+  }
+
+  /**
+   * @return Whether this task processes its range sequentially instead of splitting it any further
+   */
+
+  boolean isLeaf() {
+    return tasks <= 1 || to - from <= 1;
+  }
+
+  /**
+   * Collect the workloads of all leaf tasks of this task's tree (in range order) without running any of them
+   *
+   * @param workloads List of leaf workloads
+   */
 
-    @Override
-    public void uncaughtException(Thread thread, Throwable throwable) {
-      throw new ParallelOpsException(throwable);
+  @VisibleForTesting
+  void collectLeafWorkloads(List<Long> workloads) {
+    if (isLeaf()) {
+      workloads.add(workload(from, to));
+    } else {
+      int leftTasks = tasks / 2;
+      int mid = splitPoint(from, to, leftTasks, tasks);
+      subtask(from, mid, leftTasks).collectLeafWorkloads(workloads);
+      subtask(mid, to, tasks - leftTasks).collectLeafWorkloads(workloads);
     }
   }
 
+  /**
+   * Workload of a given range. By default, all vertices are considered to be equally expensive.
+   *
+   * @param from First local vertex id of the range
+   * @param to   Last local vertex id of the range (exclusive)
+   * @return Workload
+   */
+
+  long workload(int from, int to) {
+    return (long) to - from;
+  }
+
+  /**
+   * Split point for a given range such that the workload of the first subrange is roughly the given fraction of the
+   * range's total workload
+   *
+   * @param from        First local vertex id of the range. Must be smaller than <code>to - 1</code>
+   * @param to          Last local vertex id of the range (exclusive)
+   * @param numerator   Numerator of the fraction
+   * @param denominator Denominator of the fraction
+   * @return Split point, i.e. the first vertex of the second subrange. Guaranteed to be within <code>(from, to)</code>
+   */
+
+  int splitPoint(int from, int to, int numerator, int denominator) {
+    int mid = from + (int) ((long) (to - from) * numerator / denominator);
+    return Math.max(from + 1, Math.min(to - 1, mid));
+  }
+
+  /**
+   * Create a new task for a subrange
+   *
+   * @param from  First local vertex id of the subrange
+   * @param to    Last local vertex id of the subrange (exclusive)
+   * @param tasks Number of leaf tasks that the subrange should be split into
+   * @return A new task
+   */
+
+  abstract ParallelOps subtask(int from, int to, int tasks);
+
+  /**
+   * Sequentially process all vertices of this task's range
+   *
+   * @return Reduction over all vertices of the range. Plain traversals return 0.
+   */
+
+  abstract double traverseRange();
+
 }
@@ -1,14 +0,0 @@
-/*
- * Copyright (c) Florian Schaefer 2020.
- * SPDX-License-Identifier: Apache-2.0
- */
-
-package net.adeptropolis.frogspawn.graphs.traversal;
-
-class ParallelOpsException extends RuntimeException {
-
-  ParallelOpsException(Throwable cause) {
-    super(cause);
-  }
-
-}
@@ -7,28 +7,42 @@ package net.adeptropolis.frogspawn.graphs.traversal;
 
 import net.adeptropolis.frogspawn.graphs.Graph;
 
-import java.util.concurrent.CountDownLatch;
-
 /**
  * Parallel Vertex Operations
  */
 
-public final class ParallelVertexOps extends ParallelOps implements Runnable {
+@SuppressWarnings("serial")
+public final class ParallelVertexOps extends ParallelOps {
+
+  /**
+   * Minimum number of vertices per task for range reductions. Range reducers are meant for cheap per-vertex work, so
+   * smaller tasks would be dominated by scheduling overhead.
+   */
+
+  static final long MIN_RANGE_GRANULARITY = 4096;
 
   private final VertexConsumer consumer;
+  private final VertexReducer reducer;
+  private final VertexRangeReducer rangeReducer;
 
   /**
    * Constructor
    *
-   * @param graph    Graph whose vertices should be traversed
-   * @param consumer Instance of VertexConsumer
-   * @param slice    Slice (essentially an identifier for the individual thread workload)
-   * @param latch    Countdown latch
+   * @param graph       Graph whose vertices should be traversed
+   * @param consumer     Instance of VertexConsumer. Ignored if a reducer is given
+   * @param reducer      Vertex reducer or <code>null</code> for plain traversals
+   * @param rangeReducer Vertex range reducer. Takes precedence over all other callbacks if given
+   * @param from        First local vertex id of the range processed by this task
+   * @param to          Last local vertex id of the range processed by this task (exclusive)
+   * @param tasks       Number of leaf tasks that the range should be split into
    */
 
-  private ParallelVertexOps(Graph graph, VertexConsumer consumer, int slice, CountDownLatch latch) {
-    super(graph, slice, latch);
+  private ParallelVertexOps(Graph graph, VertexConsumer consumer, VertexReducer reducer, VertexRangeReducer rangeReducer,
+                            int from, int to, int tasks) {
+    super(graph, from, to, tasks);
     this.consumer = consumer;
+    this.reducer = reducer;
+    this.rangeReducer = rangeReducer;
   }
 
   /**
@@ -40,46 +54,84 @@ public final class ParallelVertexOps extends ParallelOps implements Runnable {
    */
 
   public static void traverse(Graph graph, VertexConsumer consumer) {
-    if (graph.order() >= PARALLELIZATION_THRESHOLD) {
-      traverseParallel(graph, consumer);
-    } else {
-      for (int i = 0; i < graph.order(); i++) {
-        consumer.accept(i);
-      }
-    }
+    run(graph, consumer, null, null);
   }
 
   /**
-   * Parallel traversal over all vertices of a given graph
+   * Sum up per-vertex values over all vertices of a given graph. Graphs larger than
+   * <code>PARALLELIZATION_THRESHOLD</code> will be traversed in parallel.
+   *
+   * @param graph   Graph
+   * @param reducer Instance of VertexReducer
+   * @return Sum of all values returned by the reducer
+   */
+
+  public static double reduce(Graph graph, VertexReducer reducer) {
+    return run(graph, null, reducer, null);
+  }
+
+  /**
+   * Sum up values over all vertices of a given graph, one leaf task's range of vertices at a time. Ranges only depend on
+   * the graph's order, so the result is reproducible. Graphs larger than <code>PARALLELIZATION_THRESHOLD</code> will
+   * be traversed in parallel.
+   *
+   * @param graph   Graph
+   * @param reducer Instance of VertexRangeReducer
+   * @return Sum of all values returned by the reducer
+   */
+
+  public static double reduceRanges(Graph graph, VertexRangeReducer reducer) {
+    return run(graph, null, null, reducer);
+  }
+
+  /**
+   * Run a traversal, either in parallel or single-threaded for small graphs
    *
    * @param graph    Graph
-   * @param consumer Instance of VertexConsumer
+   * @param consumer     Instance of VertexConsumer. Ignored if a reducer is given
+   * @param reducer      Vertex reducer or <code>null</code> for plain traversals
+   * @param rangeReducer Vertex range reducer. Takes precedence over all other callbacks if given
+   * @return Reduction over all vertices
    */
 
-  private static void traverseParallel(Graph graph, VertexConsumer consumer) {
-    CountDownLatch latch = new CountDownLatch(THREAD_POOL_SIZE);
-    for (int i = 0; i < THREAD_POOL_SIZE; i++) {
-      EXECUTOR.submit(new ParallelVertexOps(graph, consumer, i, latch));
-    }
-    try {
-      latch.await();
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      throw new ParallelOpsException(e);
-    }
+  private static double run(Graph graph, VertexConsumer consumer, VertexReducer reducer, VertexRangeReducer rangeReducer) {
+    long granularity = (rangeReducer != null) ? MIN_RANGE_GRANULARITY : MIN_GRANULARITY;
+    int tasks = (graph.order() >= PARALLELIZATION_THRESHOLD) ? tasks(graph.order(), granularity) : 1;
+    ParallelVertexOps root = new ParallelVertexOps(graph, consumer, reducer, rangeReducer, 0, graph.order(), tasks);
+    return (tasks > 1) ? execute(root) : root.traverseRange();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+
+  @Override
+  ParallelOps subtask(int from, int to, int tasks) {
+    return new ParallelVertexOps(graph, consumer, reducer, rangeReducer, from, to, tasks);
   }
 
   /**
-   * Runnable entry point. Traverse all vertices from the current slice and decrease the latch upon completion.
+   * Traverse all vertices of this task's range
+   *
+   * @return Reduction over all vertices of the range or 0 for plain traversals
    */
 
   @Override
-  public void run() {
-    int v;
-    for (int i = 0; (v = i * THREAD_POOL_SIZE + slice) < graph.order(); i++) {
-      consumer.accept(v);
+  double traverseRange() {
+    if (rangeReducer != null) {
+      return rangeReducer.reduceRange(from, to);
+    }
+    if (reducer == null) {
+      for (int v = from; v < to; v++) {
+        consumer.accept(v);
+      }
+      return 0;
+    }
+    double sum = 0;
+    for (int v = from; v < to; v++) {
+      sum += reducer.reduce(v);
     }
-    latch.countDown();
+    return sum;
   }
 
 }
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.traversal;
+
+/**
+ * <p>Edge consumer for row-wise reductions</p>
+ * <p>All edges incident to a vertex are being passed to {@link #accept(int, int, double)} by the same thread, immediately
+ * followed by a call to {@link #reduceRow(int)} for that very vertex. This allows for finalizing per-vertex results
+ * (e.g. the rows of a matrix-vector product) within the same pass. The returned values are being summed up over all
+ * vertices.</p>
+ */
+
+public interface RowReducer extends EdgeConsumer {
+
+  /**
+   * Finalize a vertex after all of its incident edges have been accepted
+   *
+   * @param u Local vertex id
+   * @return The vertex' contribution to the reduction
+   */
+
+  double reduceRow(int u);
+
+}
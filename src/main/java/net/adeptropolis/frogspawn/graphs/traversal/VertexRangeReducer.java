@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.traversal;
+
+/**
+ * <p>Reducer for vertex traversals that processes whole ranges of local vertex ids at once</p>
+ * <p>Unlike {@link VertexReducer}, this doesn't require a callback per vertex and is therefore suited for cheap
+ * per-vertex work like vector arithmetic.</p>
+ */
+
+@FunctionalInterface
+public interface VertexRangeReducer {
+
+  /**
+   * Process a range of vertices
+   *
+   * @param from First local vertex id of the range
+   * @param to   Last local vertex id of the range (exclusive)
+   * @return The range's contribution to the reduction
+   */
+
+  double reduceRange(int from, int to);
+
+}
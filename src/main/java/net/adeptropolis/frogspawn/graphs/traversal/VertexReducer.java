@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.traversal;
+
+/**
+ * Consumer for vertex traversals that additionally computes the sum of per-vertex values
+ */
+
+@FunctionalInterface
+public interface VertexReducer {
+
+  /**
+   * Process a vertex
+   *
+   * @param u Local vertex id
+   * @return The vertex' contribution to the reduction
+   */
+
+  double reduce(int u);
+
+}
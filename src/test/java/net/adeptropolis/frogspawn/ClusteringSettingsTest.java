@@ -8,7 +8,9 @@ package net.adeptropolis.frogspawn;
 import net.adeptropolis.frogspawn.clustering.affiliation.RelativeWeightVertexAffiliationMetric;
 import net.adeptropolis.frogspawn.graphs.Graph;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.ConstantSigTrailConvergence;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.LanczosIteration;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.PartialConvergenceCriterion;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.PowerIteration;
 import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraph;
 import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraphBuilder;
 import org.junit.Before;
@@ -40,6 +42,11 @@ public class ClusteringSettingsTest extends SettingsTestBase {
     assertThat(defaultSettings.getMinClusterSize(), is(50));
     assertThat(defaultSettings.getMaxIterations(), is(540));
     assertThat(defaultSettings.getRandomSeed(), is(42133742L));
+    assertThat(defaultSettings.getParallelism(), is(Runtime.getRuntime().availableProcessors()));
+    assertThat(defaultSettings.getMaterializationBudget(), is(0L));
+    assertThat(defaultSettings.isWarmStart(), is(false));
+    assertThat(defaultSettings.getEigenSolver(), is(PowerIteration.SOLVER));
+    assertThat(defaultSettings.getMultilevelThreshold(), is(0));
     validateConvergenceCriterion(defaultSettings, 20, 95);
 
   }
@@ -69,6 +76,42 @@ public class ClusteringSettingsTest extends SettingsTestBase {
     assertThat(clusteringSettings.getRandomSeed(), is(23857L));
   }
 
+  @Test
+  public void parallelism() {
+    assertThat(clusteringSettings.getParallelism(), is(13));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nonPositiveParallelism() {
+    ClusteringSettings.builder().withParallelism(0);
+  }
+
+  @Test
+  public void materializationBudget() {
+    assertThat(clusteringSettings.getMaterializationBudget(), is(4711L));
+  }
+
+  @Test
+  public void warmStart() {
+    assertThat(clusteringSettings.isWarmStart(), is(true));
+  }
+
+  @Test
+  public void multilevelThreshold() {
+    assertThat(clusteringSettings.getMultilevelThreshold(), is(65536));
+  }
+
+  @Test
+  public void eigenSolver() {
+    assertThat(clusteringSettings.getEigenSolver(), instanceOf(LanczosIteration.class));
+  }
+
+  @Test
+  public void eigenSolverNames() {
+    assertThat(PowerIteration.SOLVER.toString(), is("PowerIteration"));
+    assertThat(new LanczosIteration(8, 2).toString(), is("LanczosIteration[basisSize=8,ritzInterval=2]"));
+  }
+
   @Test
   public void convergenceCriterion() {
     validateConvergenceCriterion(clusteringSettings, 783, 74);
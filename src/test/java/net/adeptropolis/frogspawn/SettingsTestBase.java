@@ -7,6 +7,7 @@ package net.adeptropolis.frogspawn;
 
 import net.adeptropolis.frogspawn.clustering.affiliation.VertexAffiliationMetric;
 import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.LanczosIteration;
 
 public class SettingsTestBase {
 
@@ -19,6 +20,11 @@ public class SettingsTestBase {
             .withTrailSize(783)
             .withConvergenceThreshold(0.74)
             .withRandomSeed(23857L)
+            .withParallelism(13)
+            .withMaterializationBudget(4711L)
+            .withWarmStart(true)
+            .withEigenSolver(new LanczosIteration(8))
+            .withMultilevelThreshold(65536)
             .build();
   }
 
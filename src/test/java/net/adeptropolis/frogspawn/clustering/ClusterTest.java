@@ -162,4 +162,16 @@ public class ClusterTest {
     assertThat(root.remainderLabels(graph.getLabels()).collect(Collectors.joining(", ")), is("B, C"));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void remainderLabelsWithCompactLabels() {
+    LabeledGraph<String> graph = new LabeledGraphBuilder<>(String.class)
+            .withCompactLabels()
+            .add("A", "B", 3)
+            .add("B", "C", 4)
+            .build();
+    Cluster root = new Cluster(graph.getGraph());
+    root.addToRemainder(IntIterators.wrap(new int[]{1, 2}));
+    assertThat(root.remainderLabels(graph::getLabel).collect(Collectors.joining(", ")), is("B, C"));
+  }
+
+}
@@ -110,6 +110,55 @@ public class RecursiveClusteringTest {
     verifyDeterminism(graph, settings, 5);
   }
 
+  @Test
+  public void parallelismDoesNotAffectResult() {
+    ClusteringSettings sequentialSettings = ClusteringSettings.builder()
+            .withMinClusterSize(50)
+            .withMinVertexAffiliation(0.1)
+            .withParallelism(1)
+            .build();
+    ClusteringSettings parallelSettings = ClusteringSettings.builder()
+            .withMinClusterSize(50)
+            .withMinVertexAffiliation(0.1)
+            .withParallelism(4)
+            .build();
+    long sequentialFp = fingerprintWithPostprocessing(defaultGraph, sequentialSettings);
+    long parallelFp = fingerprintWithPostprocessing(defaultGraph, parallelSettings);
+    assertThat(parallelFp, is(sequentialFp));
+  }
+
+  @Test
+  public void warmStartPreservesVertices() {
+    ClusteringSettings settings = ClusteringSettings.builder()
+            .withMinClusterSize(50)
+            .withMinVertexAffiliation(0.1)
+            .withWarmStart(true)
+            .build();
+    Cluster root = RecursiveClustering.run(defaultGraph, settings);
+    IntOpenHashSet allClusterVertices = new IntOpenHashSet(root.aggregateVertices().iterator());
+    assertThat(allClusterVertices, is(new IntOpenHashSet(defaultGraph.collectVertices())));
+    assertThat(root.aggregateVertices().size(), is(allClusterVertices.size()));
+    assertThat(root.aggregateClusters().size(), greaterThan(1));
+  }
+
+  @Test
+  public void warmStartDeterminismAndParallelism() {
+    ClusteringSettings settings = ClusteringSettings.builder()
+            .withMinClusterSize(50)
+            .withMinVertexAffiliation(0.1)
+            .withWarmStart(true)
+            .withParallelism(4)
+            .build();
+    ClusteringSettings sequentialSettings = ClusteringSettings.builder()
+            .withMinClusterSize(50)
+            .withMinVertexAffiliation(0.1)
+            .withWarmStart(true)
+            .withParallelism(1)
+            .build();
+    verifyDeterminism(defaultGraph, settings, 3);
+    assertThat(fingerprintWithPostprocessing(defaultGraph, settings), is(fingerprintWithPostprocessing(defaultGraph, sequentialSettings)));
+  }
+
   @Test
   public void problematicSmallGraph() {
     CompressedSparseGraph graph = new CompressedSparseGraphBuilder()
@@ -71,6 +71,20 @@ public class VertexAffiliationGuardTest extends GraphTestBase {
     assertThat(cluster.getRemainder(), is(IntArrayList.wrap(new int[]{50, 51, 52, 53})));
   }
 
+  @Test
+  public void sizeReachesThresholdDuringIteration() {
+    CompressedSparseGraph graph = defaultGraph();
+    Cluster cluster = new Cluster(graph);
+    Graph candidate = defaultCandidate(graph);
+    VertexAffiliationGuard vertexAffiliationGuard = new VertexAffiliationGuard(METRIC, graph, 3, 0.75);
+    Graph subgraphWithGuaranteedAffiliations = vertexAffiliationGuard.ensure(cluster, candidate);
+    assertThat(subgraphWithGuaranteedAffiliations, is(notNullValue()));
+    assertThat(cluster.getRemainder(), is(IntArrayList.wrap(new int[]{53})));
+    IntArrayList vertices = new IntArrayList(subgraphWithGuaranteedAffiliations.collectVertices());
+    vertices.sort(NATURAL_COMPARATOR);
+    assertThat(vertices, is(IntArrayList.wrap(new int[]{50, 51, 52})));
+  }
+
   private CompressedSparseGraph defaultGraph() {
     return new CompressedSparseGraphBuilder(0)
             .add(50, 51, 10)
@@ -144,4 +144,14 @@ public class ClusterDigesterTest {
     assertThat(digestFingerprint, is("[5]|91.0|0.858,[4]|75.0|0.852,[9]|61.0|1.000"));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void labeledMappingWithLookup() {
+    String digestFingerprint = new ClusterDigester(aggregate3Settings)
+            .digest(c2)
+            .map((label, weight, score) -> String.format(Locale.US, "%s|%.1f|%.3f", label, weight, score),
+                    (int i) -> String.format("[%d]", i))
+            .collect(Collectors.joining(","));
+    assertThat(digestFingerprint, is("[5]|91.0|0.858,[4]|75.0|0.852,[9]|61.0|1.000"));
+  }
+
+}
@@ -16,10 +16,14 @@ import org.junit.Before;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
 public class GraphTestBase {
 
   /*
@@ -301,6 +305,28 @@ public class GraphTestBase {
     return b.build();
   }
 
+  /**
+   * Random edges with reproducible weights. About 30% of all edges are followed by another instance of the same edge
+   * with a different weight.
+   *
+   * @param numEdges    Number of distinct random edges
+   * @param numVertices Number of vertices
+   * @return List of <code>(u, v, weight)</code> triples
+   */
+
+  public static List<double[]> randomEdges(int numEdges, int numVertices) {
+    Random random = new Random(1337L);
+    List<double[]> edges = new ArrayList<>();
+    for (int i = 0; i < numEdges; i++) {
+      double[] edge = {random.nextInt(numVertices), random.nextInt(numVertices), random.nextDouble()};
+      edges.add(edge);
+      if (random.nextDouble() < 0.3) {
+        edges.add(new double[]{edge[0], edge[1], random.nextDouble()});
+      }
+    }
+    return edges;
+  }
+
   @Before
   public void init() {
     consumer.reset();
@@ -414,6 +440,35 @@ public class GraphTestBase {
     }
   }
 
+  /**
+   * Assert that two graphs have the same vertices and edges (in traversal order)
+   *
+   * @param expected Expected graph
+   * @param graph    Actual graph
+   */
+
+  protected void verifyGraph(Graph expected, Graph graph) {
+    assertThat(graph.order(), is(expected.order()));
+    assertThat(graph.size(), is(expected.size()));
+    assertThat(graph.collectVertices(), is(expected.collectVertices()));
+    assertThat(collectEdges(graph), is(collectEdges(expected)));
+  }
+
+  /**
+   * Collect all edges of a graph by sequentially traversing the incident edges of every vertex
+   *
+   * @param graph A graph
+   * @return List of all edges in traversal order
+   */
+
+  protected List<Edge> collectEdges(Graph graph) {
+    CollectingEdgeConsumer graphEdgeConsumer = new CollectingEdgeConsumer();
+    for (int i = 0; i < graph.order(); i++) {
+      graph.traverseIncidentEdges(i, graphEdgeConsumer, TraversalMode.DEFAULT);
+    }
+    return graphEdgeConsumer.getEdges();
+  }
+
   public static class CollectingEdgeConsumer implements EdgeConsumer {
 
     private final List<Edge> edges = new ArrayList<>();
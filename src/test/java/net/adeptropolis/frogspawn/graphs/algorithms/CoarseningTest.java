@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.algorithms;
+
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.GraphTestBase;
+import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraphBuilder;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class CoarseningTest extends GraphTestBase {
+
+  private static Graph weightedPath() {
+    return new CompressedSparseGraphBuilder(0)
+            .add(0, 1, 1)
+            .add(1, 2, 5)
+            .add(2, 3, 1)
+            .add(3, 4, 2)
+            .build();
+  }
+
+  @Test
+  public void contractsHeaviestUnmatchedNeighbours() {
+    Graph coarseGraph = Coarsening.heavyEdgeMatching(weightedPath()).getCoarseGraph();
+    assertThat(coarseGraph.order(), is(3));
+    assertThat(coarseGraph.weights(), is(new double[]{7, 9, 2}));
+    assertThat(coarseGraph.totalWeight(), closeTo(weightedPath().totalWeight(), 1E-9));
+  }
+
+  @Test
+  public void halvesCompleteGraphs() {
+    Coarsening coarsening = Coarsening.heavyEdgeMatching(completeGraph(100));
+    assertThat(coarsening.getCoarseGraph().order(), is(50));
+  }
+
+  @Test
+  public void prolongationHasOrthonormalColumns() {
+    Coarsening coarsening = Coarsening.heavyEdgeMatching(weightedPath());
+    double[] restricted = coarsening.restrict(coarsening.prolong(new double[]{1, -2, 3}));
+    assertThat(restricted[0], closeTo(1, 1E-9));
+    assertThat(restricted[1], closeTo(-2, 1E-9));
+    assertThat(restricted[2], closeTo(3, 1E-9));
+  }
+
+  @Test
+  public void prolongationPreservesTrivialEigenvector() {
+    Graph graph = weightedPath();
+    Coarsening coarsening = Coarsening.heavyEdgeMatching(graph);
+    double[] prolonged = coarsening.prolong(trivialEigenvector(coarsening.getCoarseGraph()));
+    double[] expected = trivialEigenvector(graph);
+    for (int i = 0; i < graph.order(); i++) {
+      assertThat(prolonged[i], closeTo(expected[i], 1E-9));
+    }
+  }
+
+  private static double[] trivialEigenvector(Graph graph) {
+    double[] v0 = new double[graph.order()];
+    for (int i = 0; i < graph.order(); i++) {
+      v0[i] = Math.sqrt(graph.weights()[i] / graph.totalWeight());
+    }
+    return v0;
+  }
+
+}
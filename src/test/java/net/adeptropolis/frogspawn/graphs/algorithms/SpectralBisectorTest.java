@@ -5,17 +5,29 @@
 
 package net.adeptropolis.frogspawn.graphs.algorithms;
 
+import it.unimi.dsi.fastutil.ints.IntIterators;
 import net.adeptropolis.frogspawn.ClusteringSettings;
+import net.adeptropolis.frogspawn.graphs.Graph;
 import net.adeptropolis.frogspawn.graphs.GraphTestBase;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.ChebyshevIteration;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.LanczosIteration;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.PowerIteration;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.PowerIterationException;
 import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.RandomInitialVectorsSource;
+import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraphBuilder;
+import net.adeptropolis.frogspawn.helpers.Vectors;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertThrows;
 
 public class SpectralBisectorTest extends GraphTestBase {
@@ -39,6 +51,69 @@ public class SpectralBisectorTest extends GraphTestBase {
     assertThat(partitions.get(1), containsInAnyOrder(5, 6, 7, 8));
   }
 
+  @Test
+  public void completeBipartiteGraphsWithLanczos() throws PowerIterationException {
+    ClusteringSettings lanczosSettings = ClusteringSettings.builder()
+            .withMinClusterSize(0)
+            .withMinVertexAffiliation(0)
+            .withTrailSize(100)
+            .withConvergenceThreshold(0.999)
+            .withEigenSolver(new LanczosIteration())
+            .build();
+    SpectralBisector bisector = new SpectralBisector(lanczosSettings);
+    SubgraphCollectingConsumer c = new SubgraphCollectingConsumer();
+    bisector.bisect(completeBipartiteWithWeakLink(), 100000, IV_SOURCE, c);
+    List<List<Integer>> partitions = c.vertices();
+    assertThat(partitions.get(0), containsInAnyOrder(0, 1, 2, 3, 4));
+    assertThat(partitions.get(1), containsInAnyOrder(5, 6, 7, 8));
+  }
+
+  @Test
+  public void completeBipartiteGraphsWithChebyshev() throws PowerIterationException {
+    ClusteringSettings chebyshevSettings = ClusteringSettings.builder()
+            .withMinClusterSize(0)
+            .withMinVertexAffiliation(0)
+            .withTrailSize(100)
+            .withConvergenceThreshold(0.999)
+            .withEigenSolver(new ChebyshevIteration())
+            .build();
+    SpectralBisector bisector = new SpectralBisector(chebyshevSettings);
+    SubgraphCollectingConsumer c = new SubgraphCollectingConsumer();
+    bisector.bisect(completeBipartiteWithWeakLink(), 100000, IV_SOURCE, c);
+    List<List<Integer>> partitions = c.vertices();
+    assertThat(partitions.get(0), containsInAnyOrder(0, 1, 2, 3, 4));
+    assertThat(partitions.get(1), containsInAnyOrder(5, 6, 7, 8));
+  }
+
+  @Test
+  public void multilevelBisection() throws PowerIterationException {
+    ClusteringSettings multilevelSettings = ClusteringSettings.builder()
+            .withMinClusterSize(0)
+            .withMinVertexAffiliation(0)
+            .withMultilevelThreshold(100)
+            .build();
+    SpectralBisector bisector = new SpectralBisector(multilevelSettings);
+    SubgraphCollectingConsumer c = new SubgraphCollectingConsumer();
+    bisector.bisect(denseClustersWithWeakLinks(1000), 100000, IV_SOURCE, c);
+    List<List<Integer>> partitions = c.vertices();
+    assertThat(partitions.get(0), is(IntStream.range(0, 500).boxed().collect(Collectors.toList())));
+    assertThat(partitions.get(1), is(IntStream.range(500, 1000).boxed().collect(Collectors.toList())));
+  }
+
+  private static Graph denseClustersWithWeakLinks(int n) {
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(0);
+    for (int i = 0; i < n; i++) {
+      for (int j = i + 1; j < n; j++) {
+        if ((i < n / 2) == (j < n / 2)) {
+          if ((i * 31 + j * 17) % 7 < 3) builder.add(i, j, 1 + (i + j) % 3);
+        } else if ((i * 13 + j * 7) % 97 == 0) {
+          builder.add(i, j, 1);
+        }
+      }
+    }
+    return builder.build();
+  }
+
   @Test
   public void iterationExcessYieldsException() {
     SpectralBisector bisector = new SpectralBisector(settings);
@@ -48,4 +123,47 @@ public class SpectralBisectorTest extends GraphTestBase {
     });
   }
 
-}
\ No newline at end of file
+  @Test
+  public void warmStartFromParentVector() throws PowerIterationException {
+    SpectralBisector bisector = new SpectralBisector(settings);
+    Graph graph = completeBipartiteWithWeakLink();
+    double[] iv = SpectralBisector.warmStartVector(graph, IV_SOURCE.generate(graph.order()), IV_SOURCE);
+    assertThat(Vectors.norm2(iv), closeTo(1, 1E-9));
+    SubgraphCollectingConsumer c = new SubgraphCollectingConsumer();
+    bisector.bisect(graph, 100000, iv, c);
+    List<List<Integer>> partitions = c.vertices();
+    assertThat(partitions.get(0), containsInAnyOrder(0, 1, 2, 3, 4));
+    assertThat(partitions.get(1), containsInAnyOrder(5, 6, 7, 8));
+  }
+
+  @Test
+  public void warmStartVectorIsOrthogonalToTrivialEigenvector() {
+    Graph graph = largeCircle();
+    double[] restricted = new double[graph.order()];
+    for (int i = 0; i < restricted.length; i++) {
+      restricted[i] = i;
+    }
+    double[] iv = SpectralBisector.warmStartVector(graph, restricted, new RandomInitialVectorsSource(42L));
+    assertThat(Vectors.norm2(iv), closeTo(1, 1E-9));
+    assertThat(trivialEigenvectorProjection(graph, restricted), greaterThan(0.5));
+    assertThat(trivialEigenvectorProjection(graph, iv), lessThan(0.12));
+  }
+
+  private static double trivialEigenvectorProjection(Graph graph, double[] v) {
+    double projection = 0;
+    double norm = Math.sqrt(graph.totalWeight());
+    for (int i = 0; i < graph.order(); i++) {
+      projection += v[i] * Math.sqrt(graph.weights()[i]) / norm;
+    }
+    return Math.abs(projection) / Vectors.norm2(v);
+  }
+
+  @Test
+  public void restrict() {
+    Graph graph = completeBipartiteWithWeakLink();
+    Graph subgraph = graph.localInducedSubgraph(IntIterators.wrap(new int[]{1, 3, 6}));
+    double[] restricted = SpectralBisector.restrict(graph, new double[]{0, 1, 2, 3, 4, 5, 6, 7, 8}, subgraph);
+    assertThat(restricted, is(new double[]{1, 3, 6}));
+  }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.algorithms.power_iteration;
+
+import net.adeptropolis.frogspawn.graphs.GraphTestBase;
+import net.adeptropolis.frogspawn.graphs.operators.SSNLOperator;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThrows;
+
+public class ChebyshevIterationTest extends GraphTestBase {
+
+  private static final RandomInitialVectorsSource RANDOM_IV = new RandomInitialVectorsSource(42133742L);
+
+  @Test
+  public void normalizedLaplacian() throws PowerIteration.MaxIterationsExceededException {
+    double[] expected = new double[]{0.33423, 0.18452, -0.59518, 0.33423, 0.18452, -0.59518};
+    SSNLOperator op = new SSNLOperator(EIGEN_REF_GRAPH);
+    double[] r = new ChebyshevIteration().apply(op, new DeltaNormConvergence(1E-9), RANDOM_IV.generate(op.size()), 1000);
+    double sign = Math.signum(r[0]);
+    for (int i = 0; i < op.size(); i++) {
+      assertThat(sign * r[i], closeTo(expected[i], 1E-5));
+    }
+  }
+
+  @Test
+  public void weightedK20NormalizedLaplacian() throws PowerIteration.MaxIterationsExceededException {
+    SSNLOperator op = new SSNLOperator(WEIGHTED_K20);
+    double[] expected = new double[]{0.422554, -0.102237, 0.287406, 0.100775, -0.178143, -0.115820, -0.033225, -0.029026, -0.107263, -0.208185, -0.271339, 0.262986, 0.152637, 0.060499, 0.319281, -0.189389, -0.366464, 0.155779, 0.221442, -0.318028};
+    double[] r = new ChebyshevIteration(4).apply(op, new DeltaNormConvergence(1E-9), RANDOM_IV.generate(op.size()), 10000);
+    double sign = Math.signum(r[0]);
+    for (int i = 0; i < expected.length; i++) {
+      assertThat(sign * r[i], closeTo(expected[i], 1E-5));
+    }
+  }
+
+  @Test
+  public void fewerIterationsThanPowerMethod() throws PowerIteration.MaxIterationsExceededException {
+    SSNLOperator op = new SSNLOperator(WEIGHTED_K20);
+    double[] iv = RANDOM_IV.generate(op.size());
+    IterationCountingConvergence powerConvergence = new IterationCountingConvergence();
+    PowerIteration.SOLVER.apply(op, powerConvergence, iv.clone(), 10000);
+    IterationCountingConvergence chebyshevConvergence = new IterationCountingConvergence();
+    new ChebyshevIteration().apply(op, chebyshevConvergence, iv.clone(), 10000);
+    assertThat(chebyshevConvergence.iterations, lessThan(powerConvergence.iterations));
+  }
+
+  @Test
+  public void iterationsExcess() {
+    SSNLOperator op = new SSNLOperator(EIGEN_REF_GRAPH);
+    ConvergenceCriterion convergenceCriterion = new DeltaNormConvergence(1E-18);
+    double[] iv = RANDOM_IV.generate(op.size());
+    assertThrows(PowerIteration.MaxIterationsExceededException.class, () -> {
+      new ChebyshevIteration().apply(op, convergenceCriterion, iv, 5);
+    });
+  }
+
+  @Test
+  public void invalidBounds() {
+    assertThrows(IllegalArgumentException.class, () -> new ChebyshevIteration(8, 2, 0));
+  }
+
+  private static class IterationCountingConvergence implements ConvergenceCriterion {
+
+    private final DeltaNormConvergence delegate = new DeltaNormConvergence(1E-9);
+    private int iterations;
+
+    @Override
+    public boolean satisfied(double[] previous, double[] current, int iterations) {
+      this.iterations = iterations;
+      return delegate.satisfied(previous, current, iterations);
+    }
+
+  }
+
+}
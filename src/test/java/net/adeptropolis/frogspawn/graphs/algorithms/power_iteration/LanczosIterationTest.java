@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.algorithms.power_iteration;
+
+import net.adeptropolis.frogspawn.graphs.GraphTestBase;
+import net.adeptropolis.frogspawn.graphs.operators.CanonicalLinearOperator;
+import net.adeptropolis.frogspawn.graphs.operators.LinearGraphOperator;
+import net.adeptropolis.frogspawn.graphs.operators.SSNLOperator;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThrows;
+
+public class LanczosIterationTest extends GraphTestBase {
+
+  private static final RandomInitialVectorsSource RANDOM_IV = new RandomInitialVectorsSource(42133742L);
+
+  @Test
+  public void matrix() throws PowerIteration.MaxIterationsExceededException {
+    double[] expected = new double[]{0.35596, 0.33434, 0.34380, 0.30277, 0.27799, 0.29129, 0.32165, 0.27372, 0.29246, 0.35439};
+    CanonicalLinearOperator op = new CanonicalLinearOperator(SOME_10_GRAPH);
+    double[] r = new LanczosIteration().apply(op, new DeltaNormConvergence(1E-6), RANDOM_IV.generate(10), 10000);
+    double sign = Math.signum(r[0]);
+    for (int i = 0; i < op.size(); i++) {
+      assertThat(sign * r[i], closeTo(expected[i], 1E-5));
+    }
+  }
+
+  @Test
+  public void normalizedLaplacian() throws PowerIteration.MaxIterationsExceededException {
+    double[] expected = new double[]{0.33423, 0.18452, -0.59518, 0.33423, 0.18452, -0.59518};
+    SSNLOperator op = new SSNLOperator(EIGEN_REF_GRAPH);
+    double[] r = new LanczosIteration().apply(op, new DeltaNormConvergence(1E-9), RANDOM_IV.generate(op.size()), 1000);
+    double sign = Math.signum(r[0]);
+    for (int i = 0; i < op.size(); i++) {
+      assertThat(sign * r[i], closeTo(expected[i], 1E-5));
+    }
+  }
+
+  @Test
+  public void restarts() throws PowerIteration.MaxIterationsExceededException {
+    SSNLOperator op = new SSNLOperator(WEIGHTED_K20);
+    double[] expected = new double[]{0.422554, -0.102237, 0.287406, 0.100775, -0.178143, -0.115820, -0.033225, -0.029026, -0.107263, -0.208185, -0.271339, 0.262986, 0.152637, 0.060499, 0.319281, -0.189389, -0.366464, 0.155779, 0.221442, -0.318028};
+    double[] r = new LanczosIteration(3).apply(op, new DeltaNormConvergence(1E-9), RANDOM_IV.generate(op.size()), 10000);
+    double sign = Math.signum(r[0]);
+    for (int i = 0; i < expected.length; i++) {
+      assertThat(sign * r[i], closeTo(expected[i], 1E-5));
+    }
+  }
+
+  @Test
+  public void operatorWithoutGraph() throws PowerIteration.MaxIterationsExceededException {
+    SSNLOperator op = new SSNLOperator(WEIGHTED_K20);
+    LinearGraphOperator plainOp = new LinearGraphOperator() {
+      @Override
+      public double[] apply(double[] argument) {
+        return op.apply(argument);
+      }
+
+      @Override
+      public int size() {
+        return op.size();
+      }
+    };
+    double[] iv = RANDOM_IV.generate(op.size());
+    double[] expected = new LanczosIteration().apply(op, new DeltaNormConvergence(1E-9), iv.clone(), 10000);
+    double[] r = new LanczosIteration().apply(plainOp, new DeltaNormConvergence(1E-9), iv.clone(), 10000);
+    for (int i = 0; i < expected.length; i++) {
+      assertThat(r[i], closeTo(expected[i], 1E-9));
+    }
+  }
+
+  @Test
+  public void fewerIterationsThanPowerMethod() throws PowerIteration.MaxIterationsExceededException {
+    SSNLOperator op = new SSNLOperator(WEIGHTED_K20);
+    double[] iv = RANDOM_IV.generate(op.size());
+    IterationCountingConvergence powerConvergence = new IterationCountingConvergence();
+    PowerIteration.SOLVER.apply(op, powerConvergence, iv.clone(), 10000);
+    IterationCountingConvergence lanczosConvergence = new IterationCountingConvergence();
+    new LanczosIteration().apply(op, lanczosConvergence, iv.clone(), 10000);
+    assertThat(lanczosConvergence.iterations, lessThan(powerConvergence.iterations));
+  }
+
+  @Test
+  public void fasterThanPowerMethod() throws PowerIteration.MaxIterationsExceededException {
+    SSNLOperator op = new SSNLOperator(bandedGraph(1000, 5));
+    double[] iv = RANDOM_IV.generate(op.size());
+    long start = System.nanoTime();
+    new LanczosIteration().apply(op, new DeltaNormConvergence(1E-6), iv.clone(), 1000000);
+    long lanczosTime = System.nanoTime() - start;
+    start = System.nanoTime();
+    PowerIteration.SOLVER.apply(op, new DeltaNormConvergence(1E-6), iv.clone(), 1000000);
+    long powerTime = System.nanoTime() - start;
+    assertThat(lanczosTime, lessThan(powerTime));
+  }
+
+  @Test
+  public void ritzInterval() throws PowerIteration.MaxIterationsExceededException {
+    SSNLOperator op = new SSNLOperator(WEIGHTED_K20);
+    double[] iv = RANDOM_IV.generate(op.size());
+    IterationCountingConvergence everyStep = new IterationCountingConvergence();
+    double[] expected = new LanczosIteration(8).apply(op, everyStep, iv.clone(), 10000);
+    IterationCountingConvergence everyThirdStep = new IterationCountingConvergence();
+    double[] r = new LanczosIteration(8, 3).apply(op, everyThirdStep, iv.clone(), 10000);
+    assertThat(everyThirdStep.calls, lessThan(everyStep.calls));
+    double sign = Math.signum(r[0]) * Math.signum(expected[0]);
+    for (int i = 0; i < expected.length; i++) {
+      assertThat(sign * r[i], closeTo(expected[i], 1E-5));
+    }
+  }
+
+  @Test
+  public void iterationsExcess() {
+    CanonicalLinearOperator op = new CanonicalLinearOperator(SOME_10_GRAPH);
+    ConvergenceCriterion convergenceCriterion = new DeltaNormConvergence(1E-18);
+    double[] iv = RANDOM_IV.generate(10);
+    assertThrows(PowerIteration.MaxIterationsExceededException.class, () -> {
+      new LanczosIteration().apply(op, convergenceCriterion, iv, 5);
+    });
+  }
+
+  @Test
+  public void invariantStartVectorPassesConvergenceCriterion() throws PowerIteration.MaxIterationsExceededException {
+    CanonicalLinearOperator op = new CanonicalLinearOperator(completeGraph(10));
+    double[] iv = new double[op.size()];
+    Arrays.fill(iv, 1 / Math.sqrt(op.size()));
+    CallCountingConvergence convergence = new CallCountingConvergence(3);
+    double[] result = new LanczosIteration().apply(op, convergence, iv, 10000);
+    assertThat(convergence.calls, is(3));
+    for (double x : result) {
+      assertThat(x, closeTo(1 / Math.sqrt(op.size()), 1E-6));
+    }
+  }
+
+  @Test
+  public void tridiagonalEigenvector() {
+    double[] y = LanczosIteration.largestEigenvector(new double[]{2, 2, 2}, new double[]{1, 1}, 3);
+    double sign = Math.signum(y[0]);
+    assertThat(sign * y[0], closeTo(0.5, 1E-9));
+    assertThat(sign * y[1], closeTo(Math.sqrt(0.5), 1E-9));
+    assertThat(sign * y[2], closeTo(0.5, 1E-9));
+  }
+
+  private static class CallCountingConvergence implements ConvergenceCriterion {
+
+    private final int requiredCalls;
+    private int calls;
+
+    CallCountingConvergence(int requiredCalls) {
+      this.requiredCalls = requiredCalls;
+    }
+
+    @Override
+    public boolean satisfied(double[] previous, double[] current, int iterations) {
+      return ++calls >= requiredCalls;
+    }
+
+  }
+
+  private static class IterationCountingConvergence implements ConvergenceCriterion {
+
+    private final DeltaNormConvergence delegate = new DeltaNormConvergence(1E-9);
+    private int iterations;
+    private int calls;
+
+    @Override
+    public boolean satisfied(double[] previous, double[] current, int iterations) {
+      this.iterations = iterations;
+      calls++;
+      return delegate.satisfied(previous, current, iterations);
+    }
+
+  }
+
+}
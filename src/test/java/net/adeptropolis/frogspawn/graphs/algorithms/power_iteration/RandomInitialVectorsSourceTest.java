@@ -40,4 +40,31 @@ public class RandomInitialVectorsSourceTest {
     assertThat(a[0], not(Matchers.closeTo(b[0], 1E-5)));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void derivedSourcesAreReproducible() {
+    double[] a = new RandomInitialVectorsSource(1337).derive(3).generate(2);
+    double[] b = new RandomInitialVectorsSource(1337).derive(3).generate(2);
+    assertThat(a[0], Matchers.closeTo(b[0], 1E-9));
+    assertThat(a[1], Matchers.closeTo(b[1], 1E-9));
+  }
+
+  @Test
+  public void derivedSourcesDoNotDependOnParentState() {
+    RandomInitialVectorsSource parent = new RandomInitialVectorsSource(1337);
+    double[] a = parent.derive(1).generate(2);
+    parent.generate(10);
+    double[] b = parent.derive(1).generate(2);
+    assertThat(a[0], Matchers.closeTo(b[0], 1E-9));
+  }
+
+  @Test
+  public void differentIndicesProduceDifferentValues() {
+    RandomInitialVectorsSource parent = new RandomInitialVectorsSource(1337);
+    assertThat(parent.derive(0).getSeed(), not(parent.derive(1).getSeed()));
+    assertThat(parent.derive(0).getSeed(), not(parent.getSeed()));
+    double[] a = parent.derive(0).generate(2);
+    double[] b = parent.derive(1).generate(2);
+    assertThat(a[0], not(Matchers.closeTo(b[0], 1E-5)));
+  }
+
+}
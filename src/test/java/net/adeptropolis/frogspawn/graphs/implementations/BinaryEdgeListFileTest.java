@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.UUID;
+
+import static net.adeptropolis.frogspawn.graphs.implementations.arrays.Helpers.assertEquals;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class BinaryEdgeListFileTest {
+
+  @Test
+  public void doublePrecision() throws IOException {
+    File file = tmpFile();
+    try (BinaryEdgeListFile.Writer writer = BinaryEdgeListFile.writer(file, false)) {
+      writer.add(2, 1, 3.1).add(0, 1, 2.2).add(2, 2, 7.3);
+    }
+    assertThat(file.length(), is(24L + 3 * 16L));
+    CompressedSparseGraphBuilder builder = CompressedSparseGraph.builder();
+    assertThat(BinaryEdgeListFile.read(file, builder), is(3L));
+    CompressedSparseGraphDatastore datastore = builder.buildDatastore();
+    assertEquals("Vertex pointers", datastore.pointers, 0L, 1L, 3L, 5L);
+    assertEquals("Edges", datastore.edges(), 1, 0, 2, 1, 2);
+    assertEquals("Weights", datastore.weights(), 2.2, 2.2, 3.1, 3.1, 7.3);
+  }
+
+  @Test
+  public void singlePrecision() throws IOException {
+    File file = tmpFile();
+    try (BinaryEdgeListFile.Writer writer = BinaryEdgeListFile.writer(file, true)) {
+      writer.add(0, 1, 1.1);
+    }
+    assertThat(file.length(), is(24L + 12L));
+    CompressedSparseGraphBuilder builder = CompressedSparseGraph.builder();
+    BinaryEdgeListFile.read(file, builder);
+    assertEquals("Weights", builder.buildDatastore().weights(), (float) 1.1, (float) 1.1);
+  }
+
+  @Test
+  public void largeEdgeList() throws IOException {
+    File file = tmpFile();
+    Random random = new Random(1337L);
+    CompressedSparseGraphBuilder expected = CompressedSparseGraph.builder();
+    try (BinaryEdgeListFile.Writer writer = BinaryEdgeListFile.writer(file, false)) {
+      for (int i = 0; i < 200000; i++) {
+        int u = random.nextInt(10000);
+        int v = random.nextInt(10000);
+        double weight = 1 + random.nextDouble();
+        writer.add(u, v, weight);
+        expected.add(u, v, weight);
+      }
+    }
+    CompressedSparseGraphBuilder builder = CompressedSparseGraph.builder();
+    BinaryEdgeListFile.read(file, builder);
+    assertThat(builder.build().weights(), is(expected.build().weights()));
+  }
+
+  @Test
+  public void emptyEdgeList() throws IOException {
+    File file = tmpFile();
+    BinaryEdgeListFile.writer(file, false).close();
+    assertThat(BinaryEdgeListFile.read(file, CompressedSparseGraph.builder()), is(0L));
+  }
+
+  @Test
+  public void repeatedClose() throws IOException {
+    File file = tmpFile();
+    BinaryEdgeListFile.Writer writer = BinaryEdgeListFile.writer(file, false);
+    writer.add(0, 1, 1.5);
+    writer.close();
+    writer.close();
+    assertThat(BinaryEdgeListFile.read(file, CompressedSparseGraph.builder()), is(1L));
+  }
+
+  @Test
+  public void invalidFile() throws IOException {
+    File file = tmpFile();
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.writeLong(42L);
+    }
+    assertThrows(GraphStorageException.class, () -> BinaryEdgeListFile.read(file, CompressedSparseGraph.builder()));
+  }
+
+  @Test
+  public void truncatedFile() throws IOException {
+    File file = tmpFile();
+    try (BinaryEdgeListFile.Writer writer = BinaryEdgeListFile.writer(file, false)) {
+      writer.add(0, 1, 1).add(1, 2, 1);
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(raf.length() - 8);
+    }
+    assertThrows(GraphStorageException.class, () -> BinaryEdgeListFile.read(file, CompressedSparseGraph.builder()));
+  }
+
+  private File tmpFile() throws IOException {
+    File tmpFile = File.createTempFile(UUID.randomUUID().toString(), null);
+    tmpFile.deleteOnExit();
+    return tmpFile;
+  }
+
+}
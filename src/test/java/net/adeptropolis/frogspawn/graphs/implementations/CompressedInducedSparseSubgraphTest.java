@@ -15,6 +15,7 @@ import net.adeptropolis.frogspawn.graphs.VertexIterator;
 import net.adeptropolis.frogspawn.graphs.traversal.TraversalMode;
 import org.junit.Test;
 
+import java.nio.LongBuffer;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -189,4 +190,11 @@ public class CompressedInducedSparseSubgraphTest extends GraphTestBase {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  public void traversalCosts() {
+    assertThat(defaultSubgraph(4, 9, 10).traversalCosts(), is(LongBuffer.wrap(new long[]{0, 4, 6, 8})));
+    assertThat(defaultSubgraph(4, 9).traversalCosts(), is(LongBuffer.wrap(new long[]{0, 3, 5})));
+    assertThat(defaultSubgraph(4, 9).traversalCosts().isReadOnly(), is(true));
+  }
+
+}
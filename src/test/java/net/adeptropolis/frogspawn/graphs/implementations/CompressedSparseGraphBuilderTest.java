@@ -5,13 +5,22 @@
 
 package net.adeptropolis.frogspawn.graphs.implementations;
 
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.ConstantBigDoubles;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
 import static net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraph.builder;
 import static net.adeptropolis.frogspawn.graphs.implementations.arrays.Helpers.assertEquals;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThrows;
 
 public class CompressedSparseGraphBuilderTest {
@@ -33,7 +42,7 @@ public class CompressedSparseGraphBuilderTest {
   }
 
   private static void assertWeightsMatch(CompressedSparseGraphDatastore datastore, double... expected) {
-    assertEquals("Weights", datastore.weights, expected);
+    assertEquals("Weights", datastore.weights(), expected);
   }
 
   @Test
@@ -188,4 +197,227 @@ public class CompressedSparseGraphBuilderTest {
     });
   }
 
-}
\ No newline at end of file
+  @Test
+  public void unweighted() {
+    CompressedSparseGraphDatastore datastore = CompressedSparseGraphBuilder.unweighted()
+            .add(2, 1, 1)
+            .add(0, 1, 1)
+            .add(1, 0, 1)
+            .add(2, 2, 1)
+            .buildDatastore();
+    assertGraphSizeMatches(datastore, 3);
+    assertEdgeCountMatches(datastore, 5L);
+    assertPointersMatch(datastore, 0L, 1L, 3L, 5L);
+    assertEdgesMatch(datastore, 1, 0, 2, 1, 2);
+    assertWeightsMatch(datastore, 1, 1, 1, 1, 1);
+    assertThat(datastore.weights(), instanceOf(ConstantBigDoubles.class));
+  }
+
+  @Test
+  public void publicFieldsHoldHeapStorage() {
+    CompressedSparseGraphDatastore datastore = builder().add(0, 1, 2).buildDatastore();
+    assertThat(datastore.edges, sameInstance(datastore.edges()));
+    assertThat(datastore.weights, sameInstance(datastore.weights()));
+    CompressedSparseGraphDatastore unweighted = CompressedSparseGraphBuilder.unweighted().add(0, 1, 1).buildDatastore();
+    assertThat(unweighted.edges, sameInstance(unweighted.edges()));
+    assertThat(unweighted.weights, nullValue());
+  }
+
+  @Test
+  public void unweightedWeightThrows() {
+    assertThrows(GraphConstructionException.class, () -> {
+      CompressedSparseGraphBuilder.unweighted().add(0, 1, 2);
+    });
+  }
+
+  @Test
+  public void vertexOrdering() {
+    CompressedSparseGraphBuilder builder = builder()
+            .withSettings(GraphBuildSettings.builder().withVertexOrdering(VertexOrdering.DEGREE).build())
+            .add(0, 1, 2)
+            .add(1, 2, 3)
+            .add(1, 3, 4);
+    CompressedSparseGraphDatastore datastore = builder.buildDatastore();
+    assertThat(builder.getPermutation(), is(new int[]{1, 0, 2, 3}));
+    assertGraphSizeMatches(datastore, 4);
+    assertEdgeCountMatches(datastore, 6L);
+    assertPointersMatch(datastore, 0L, 3L, 4L, 5L, 6L);
+    assertEdgesMatch(datastore, 1, 2, 3, 0, 0, 0);
+    assertWeightsMatch(datastore, 2, 3, 4, 2, 3, 4);
+  }
+
+  @Test
+  public void noVertexOrderingPermutation() {
+    CompressedSparseGraphBuilder builder = builder().add(0, 1, 2);
+    builder.build();
+    assertThat(builder.getPermutation(), is((int[]) null));
+  }
+
+  @Test
+  public void pruneByDegree() {
+    CompressedSparseGraphBuilder builder = builder()
+            .withSettings(GraphBuildSettings.builder().withMinDegree(2).build())
+            .add(0, 1, 2)
+            .add(1, 2, 3)
+            .add(0, 2, 4)
+            .add(2, 3, 5)
+            .add(3, 4, 6)
+            .add(4, 4, 7);
+    CompressedSparseGraphDatastore datastore = builder.buildDatastore();
+    assertThat(builder.getPermutation(), is(new int[]{0, 1, 2, -1, -1}));
+    assertGraphSizeMatches(datastore, 3);
+    assertEdgeCountMatches(datastore, 6L);
+    assertPointersMatch(datastore, 0L, 2L, 4L, 6L);
+    assertEdgesMatch(datastore, 1, 2, 0, 2, 0, 1);
+    assertWeightsMatch(datastore, 2, 4, 2, 3, 4, 3);
+  }
+
+  @Test
+  public void pruneByVertexWeight() {
+    CompressedSparseGraphBuilder builder = builder()
+            .withSettings(GraphBuildSettings.builder().withMinVertexWeight(2).build())
+            .add(0, 1, 5)
+            .add(1, 2, 5)
+            .add(0, 3, 1);
+    CompressedSparseGraphDatastore datastore = builder.buildDatastore();
+    assertThat(builder.getPermutation(), is(new int[]{0, 1, 2, -1}));
+    assertGraphSizeMatches(datastore, 3);
+    assertEdgesMatch(datastore, 1, 0, 2, 1);
+  }
+
+  @Test
+  public void pruneEverything() {
+    CompressedSparseGraphBuilder builder = builder()
+            .withSettings(GraphBuildSettings.builder().withMinDegree(2).build())
+            .add(0, 1, 2);
+    CompressedSparseGraphDatastore datastore = builder.buildDatastore();
+    assertThat(builder.getPermutation(), is(new int[]{-1, -1}));
+    assertGraphSizeMatches(datastore, 0);
+    assertEdgeCountMatches(datastore, 0L);
+  }
+
+  @Test
+  public void pruneAndReorder() {
+    CompressedSparseGraphBuilder builder = builder()
+            .withSettings(GraphBuildSettings.builder().withMinDegree(2).withVertexOrdering(VertexOrdering.DEGREE).build())
+            .add(0, 1, 2)
+            .add(1, 2, 3)
+            .add(2, 3, 4)
+            .add(3, 1, 5)
+            .add(1, 4, 6);
+    CompressedSparseGraphDatastore datastore = builder.buildDatastore();
+    assertThat(builder.getPermutation(), is(new int[]{-1, 0, 1, 2, -1}));
+    assertGraphSizeMatches(datastore, 3);
+    assertEdgeCountMatches(datastore, 6L);
+  }
+
+  @Test
+  public void topKEdges() {
+    CompressedSparseGraphDatastore datastore = builder()
+            .withSettings(GraphBuildSettings.builder().withTopKEdges(1).build())
+            .add(0, 1, 1)
+            .add(0, 2, 2)
+            .add(0, 3, 3)
+            .add(1, 2, 5)
+            .add(1, 1, 1)
+            .buildDatastore();
+    assertGraphSizeMatches(datastore, 4);
+    assertPointersMatch(datastore, 0L, 1L, 3L, 4L, 5L);
+    assertEdgesMatch(datastore, 3, 1, 2, 1, 0);
+    assertWeightsMatch(datastore, 3, 1, 5, 5, 3);
+  }
+
+  @Test
+  public void edgeQuantile() {
+    CompressedSparseGraphDatastore datastore = builder()
+            .withSettings(GraphBuildSettings.builder().withEdgeQuantile(0.5).build())
+            .add(0, 1, 1)
+            .add(0, 2, 2)
+            .add(0, 3, 3)
+            .add(1, 2, 5)
+            .buildDatastore();
+    assertGraphSizeMatches(datastore, 4);
+    assertPointersMatch(datastore, 0L, 2L, 3L, 5L, 6L);
+    assertEdgesMatch(datastore, 2, 3, 2, 0, 1, 0);
+    assertWeightsMatch(datastore, 2, 3, 5, 2, 5, 3);
+  }
+
+  @Test
+  public void invalidSparsificationSettingsThrow() {
+    assertThrows(IllegalArgumentException.class, () -> GraphBuildSettings.builder().withMinDegree(-1));
+    assertThrows(IllegalArgumentException.class, () -> GraphBuildSettings.builder().withTopKEdges(-1));
+    assertThrows(IllegalArgumentException.class, () -> GraphBuildSettings.builder().withEdgeQuantile(-0.1));
+    assertThrows(IllegalArgumentException.class, () -> GraphBuildSettings.builder().withEdgeQuantile(1));
+  }
+
+  @Test
+  public void sparsificationIsSymmetric() {
+    Random random = new Random(4711L);
+    CompressedSparseGraphBuilder builder = builder().withSettings(GraphBuildSettings.builder().withTopKEdges(3).build());
+    for (int i = 0; i < 5000; i++) {
+      builder.add(random.nextInt(300), random.nextInt(300), 1 + random.nextInt(100));
+    }
+    CompressedSparseGraph graph = builder.build();
+    Map<Long, Double> edges = new TreeMap<>();
+    graph.traverseParallel((u, v, weight) -> {
+      synchronized (edges) {
+        edges.put(((long) u << 32) | v, weight);
+      }
+    });
+    for (Map.Entry<Long, Double> edge : edges.entrySet()) {
+      long u = edge.getKey() >>> 32;
+      long v = edge.getKey() & 0xFFFFFFFFL;
+      assertThat(edges.get((v << 32) | u), is(edge.getValue()));
+    }
+  }
+
+  @Test
+  public void randomEdgesAreSortedAndReduced() {
+    Random random = new Random(1337L);
+    Map<Long, Double> expected = new TreeMap<>();
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(16, 1d);
+    for (int i = 0; i < 50000; i++) {
+      int u = random.nextInt(2000) * 3;
+      int v = random.nextInt(2000) * 3;
+      double weight = 1 + random.nextInt(5);
+      builder.addDirected(u, v, weight);
+      expected.merge(((long) u << 32) | v, weight, Double::sum);
+    }
+    CompressedSparseGraphDatastore datastore = builder.buildDatastore();
+    assertThat(datastore.edgeCount(), is((long) expected.size()));
+    long idx = 0;
+    for (Map.Entry<Long, Double> edge : expected.entrySet()) {
+      int u = (int) (edge.getKey() >>> 32);
+      assertThat(idx >= datastore.pointers[u] && idx < datastore.pointers[u + 1], is(true));
+      assertThat(datastore.edges().get(idx), is((int) (long) edge.getKey()));
+      assertThat(datastore.weights().get(idx), is(edge.getValue()));
+      idx++;
+    }
+  }
+
+  @Test
+  public void sortMatchesComparisonSort() {
+    Random random = new Random(4711L);
+    int n = 300000;
+    int[][] expected = new int[n][];
+    double[] expectedWeights = new double[n];
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(16, 1d);
+    for (int i = 0; i < n; i++) {
+      int u = random.nextInt(1 << 20);
+      int v = random.nextBoolean() ? random.nextInt(3) : random.nextInt(Integer.MAX_VALUE);
+      double weight = 1 + random.nextInt(100);
+      builder.addDirected(u, v, weight);
+      expected[i] = new int[]{u, v, i};
+      expectedWeights[i] = weight;
+    }
+    Arrays.sort(expected, Comparator.<int[]>comparingInt(e -> e[0]).thenComparingInt(e -> e[1])
+            .thenComparingDouble(e -> expectedWeights[e[2]]));
+    builder.sort();
+    for (int i = 0; i < n; i++) {
+      assertThat(builder.leftEndpoint(i), is(expected[i][0]));
+      assertThat(builder.rightEndpoint(i), is(expected[i][1]));
+      assertThat(builder.weight(i), is(expectedWeights[expected[i][2]]));
+    }
+  }
+
+}
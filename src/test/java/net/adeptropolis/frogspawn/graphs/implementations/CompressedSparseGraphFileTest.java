@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import it.unimi.dsi.fastutil.ints.IntIterators;
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.GraphTestBase;
+import net.adeptropolis.frogspawn.persistence.Serialization;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+public class CompressedSparseGraphFileTest extends GraphTestBase {
+
+  @Test
+  public void weightedGraph() throws IOException {
+    verifyGraph(WEIGHTED_K20, writeAndOpen(WEIGHTED_K20));
+  }
+
+  @Test
+  public void oddNumberOfEdges() throws IOException {
+    CompressedSparseGraph graph = CompressedSparseGraph.builder()
+            .add(0, 1, 2.5)
+            .add(2, 2, 3.5)
+            .build();
+    assertThat(graph.size(), is(3L));
+    verifyGraph(graph, writeAndOpen(graph));
+  }
+
+  @Test
+  public void emptyGraph() throws IOException {
+    CompressedSparseGraph graph = CompressedSparseGraph.builder().build();
+    Graph mapped = writeAndOpen(graph);
+    assertThat(mapped.order(), is(0));
+    assertThat(mapped.size(), is(0L));
+  }
+
+  @Test
+  public void largeGraph() throws IOException {
+    Graph graph = bandedGraph(20000, 20);
+    Graph mapped = writeAndOpen((CompressedSparseGraph) graph);
+    assertThat(mapped.weights(), is(graph.weights()));
+    Graph subgraph = graph.inducedSubgraph(IntIterators.fromTo(1000, 15000));
+    Graph mappedSubgraph = mapped.inducedSubgraph(IntIterators.fromTo(1000, 15000));
+    assertThat(mappedSubgraph.weights(), is(subgraph.weights()));
+  }
+
+  @Test
+  public void subgraph() throws IOException {
+    Graph mapped = writeAndOpen(WEIGHTED_K20);
+    int[] vertices = new int[]{1, 2, 3, 4, 5, 8};
+    verifyGraph(WEIGHTED_K20.inducedSubgraph(IntIterators.wrap(vertices)), mapped.inducedSubgraph(IntIterators.wrap(vertices)));
+  }
+
+  @Test
+  public void serializesToHeapGraph() throws IOException {
+    Graph mapped = writeAndOpen(WEIGHTED_K20);
+    File file = tmpFile();
+    Serialization.save(mapped, file);
+    verifyGraph(WEIGHTED_K20, Serialization.load(file));
+  }
+
+  @Test
+  public void invalidFile() throws IOException {
+    File file = tmpFile();
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.writeLong(42L);
+    }
+    assertThrows(GraphStorageException.class, () -> CompressedSparseGraphFile.open(file));
+  }
+
+  @Test
+  public void truncatedFile() throws IOException {
+    File file = tmpFile();
+    CompressedSparseGraphFile.write(WEIGHTED_K20, file);
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(raf.length() - 8);
+    }
+    assertThrows(GraphStorageException.class, () -> CompressedSparseGraphFile.open(file));
+  }
+
+  private Graph writeAndOpen(CompressedSparseGraph graph) throws IOException {
+    File file = tmpFile();
+    CompressedSparseGraphFile.write(graph, file);
+    return CompressedSparseGraphFile.open(file);
+  }
+
+  private File tmpFile() throws IOException {
+    File tmpFile = File.createTempFile(UUID.randomUUID().toString(), null);
+    tmpFile.deleteOnExit();
+    return tmpFile;
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigFloats;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static net.adeptropolis.frogspawn.graphs.implementations.arrays.Helpers.assertEquals;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+public class ExternalMemoryGraphBuilderTest {
+
+  @Rule
+  public TemporaryFolder tempDir = new TemporaryFolder();
+
+  @Test
+  public void emptyGraph() throws IOException {
+    CompressedSparseGraphDatastore datastore = new ExternalMemoryGraphBuilder(1 << 10, tempDir.newFolder(), 1d)
+            .buildDatastore();
+    assertThat(datastore.size(), is(0));
+    assertThat(datastore.edgeCount(), is(0L));
+  }
+
+  @Test
+  public void mergesRuns() throws IOException {
+    ExternalMemoryGraphBuilder builder = new ExternalMemoryGraphBuilder(3 * 32, tempDir.newFolder(), 1d);
+    builder.add(2, 1, 3)
+            .add(0, 1, 2)
+            .add(1, 0, 5)
+            .add(2, 2, 7)
+            .add(4, 1, 1);
+    assertThat(builder.numRuns(), is(3));
+    CompressedSparseGraphDatastore datastore = builder.buildDatastore();
+    assertThat(datastore.size(), is(5));
+    assertThat(datastore.edgeCount(), is(7L));
+    assertEquals("Vertex pointers", datastore.pointers, 0L, 1L, 4L, 6L, 6L, 7L);
+    assertEquals("Edges", datastore.edges(), 1, 0, 2, 4, 1, 2, 1);
+    assertEquals("Weights", datastore.weights(), 7, 7, 3, 1, 3, 7, 1);
+  }
+
+  @Test
+  public void identicalToCompressedSparseGraphBuilder() throws IOException {
+    Random random = new Random(1337L);
+    ExternalMemoryGraphBuilder builder = new ExternalMemoryGraphBuilder(10000 * 32, tempDir.newFolder(), 1d);
+    CompressedSparseGraphBuilder reference = new CompressedSparseGraphBuilder(1 << 10, 1d);
+    for (int i = 0; i < 100000; i++) {
+      int u = random.nextInt(5000);
+      int v = random.nextInt(5000);
+      double weight = 1 + random.nextInt(10);
+      builder.add(u, v, weight);
+      reference.add(u, v, weight);
+    }
+    assertThat(builder.numRuns(), greaterThan(10));
+    CompressedSparseGraphDatastore expected = reference.buildDatastore();
+    CompressedSparseGraphDatastore actual = builder.buildDatastore();
+    assertThat(actual.size(), is(expected.size()));
+    assertThat(actual.edgeCount(), is(expected.edgeCount()));
+    assertThat(actual.pointers, is(expected.pointers));
+    for (long i = 0; i < expected.edgeCount(); i++) {
+      assertThat(actual.edges().get(i), is(expected.edges().get(i)));
+      assertThat(actual.weights().get(i), is(expected.weights().get(i)));
+    }
+  }
+
+  @Test
+  public void weightStorage() throws IOException {
+    ExternalMemoryGraphBuilder builder = new ExternalMemoryGraphBuilder(32, tempDir.newFolder(), 1d)
+            .withSettings(GraphBuildSettings.builder().withWeightStorage(WeightStorage.FLOAT).build());
+    builder.add(0, 1, 1.5).add(1, 2, 2.5);
+    assertThat(builder.numRuns(), greaterThan(1));
+    CompressedSparseGraphDatastore datastore = builder.buildDatastore();
+    assertThat(datastore.weights(), instanceOf(BigFloats.class));
+    assertEquals("Weights", datastore.weights(), 1.5, 1.5, 2.5, 2.5);
+  }
+
+  @Test
+  public void unsupportedSettingsThrow() throws IOException {
+    ExternalMemoryGraphBuilder builder = new ExternalMemoryGraphBuilder(1 << 10, tempDir.newFolder(), 1d);
+    assertThrows(GraphConstructionException.class, () ->
+            builder.withSettings(GraphBuildSettings.builder().withVertexOrdering(VertexOrdering.DEGREE).build()));
+    assertThrows(GraphConstructionException.class, () ->
+            builder.withSettings(GraphBuildSettings.builder().withEdgeQuantile(0.5).build()));
+    assertThrows(GraphConstructionException.class, () ->
+            builder.withSettings(GraphBuildSettings.builder().withMinVertexWeight(2).build()));
+  }
+
+  @Test
+  public void removesTemporaryFiles() throws IOException {
+    ExternalMemoryGraphBuilder builder = new ExternalMemoryGraphBuilder(32, tempDir.newFolder("runs"), 1d);
+    builder.add(0, 1, 1).add(1, 2, 1).build();
+    assertThat(builder.numRuns(), is(0));
+    assertThat(tempDir.getRoot().toPath().resolve("runs").toFile().list(), emptyArray());
+  }
+
+  @Test
+  public void closeRemovesTemporaryFiles() throws IOException {
+    try (ExternalMemoryGraphBuilder builder = new ExternalMemoryGraphBuilder(32, tempDir.newFolder("runs"), 1d)) {
+      builder.add(0, 1, 1).add(1, 2, 1);
+      assertThat(builder.numRuns(), greaterThan(0));
+      assertThrows(GraphConstructionException.class, () -> builder.add(2, 3, 0.5));
+    }
+    assertThat(tempDir.getRoot().toPath().resolve("runs").toFile().list(), emptyArray());
+  }
+
+}
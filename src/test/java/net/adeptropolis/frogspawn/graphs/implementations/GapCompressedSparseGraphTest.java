@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import it.unimi.dsi.fastutil.ints.IntIterators;
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.GraphTestBase;
+import net.adeptropolis.frogspawn.graphs.traversal.TraversalMode;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class GapCompressedSparseGraphTest extends GraphTestBase {
+
+  @Test
+  public void emptyGraph() {
+    Graph graph = GapCompressedSparseGraph.compress(CompressedSparseGraph.builder().build());
+    assertThat(graph.order(), is(0));
+    assertThat(graph.size(), is(0L));
+    graph.traverseParallel(consumer);
+    assertThat(consumer.getEdges(), is(empty()));
+  }
+
+  @Test
+  public void weightedGraph() {
+    verifyGraph(WEIGHTED_K20, GapCompressedSparseGraph.compress(WEIGHTED_K20));
+  }
+
+  @Test
+  public void largeGaps() {
+    CompressedSparseGraph graph = CompressedSparseGraph.builder()
+            .add(0, 1, 2)
+            .add(0, 200, 3)
+            .add(0, 70000, 5)
+            .add(0, 2200000, 7)
+            .add(2200000, 2199999, 11)
+            .add(70000, 70000, 13)
+            .build();
+    verifyGraph(graph, GapCompressedSparseGraph.compress(graph));
+  }
+
+  @Test
+  public void randomGraph() {
+    Random rand = new Random(1337L);
+    CompressedSparseGraphBuilder builder = CompressedSparseGraphBuilder.unweighted();
+    for (int i = 0; i < 200000; i++) {
+      int u = rand.nextInt(50000);
+      int v = (rand.nextInt(4) == 0) ? rand.nextInt(50000) : Math.min(49999, u + rand.nextInt(20));
+      builder.add(u, v, 1);
+    }
+    CompressedSparseGraph graph = builder.build();
+    GapCompressedSparseGraph compressed = GapCompressedSparseGraph.compress(graph);
+    verifyGraph(graph, compressed);
+    assertThat(compressed.weights(), is(graph.weights()));
+    assertThat(compressed.getAdjacency().bytes(), lessThan(2 * graph.size()));
+  }
+
+  @Test
+  public void subgraph() {
+    Graph graph = bandedGraph(2000, 30);
+    Graph compressed = GapCompressedSparseGraph.compress((CompressedSparseGraph) graph);
+    int[] vertices = new int[]{3, 4, 10, 11, 12, 25, 40, 500, 501, 1999};
+    verifyGraph(graph.inducedSubgraph(IntIterators.wrap(vertices)), compressed.inducedSubgraph(IntIterators.wrap(vertices)));
+    Graph subgraph = graph.inducedSubgraph(IntIterators.fromTo(100, 1900));
+    Graph compressedSubgraph = compressed.inducedSubgraph(IntIterators.fromTo(100, 1900));
+    assertThat(compressedSubgraph, instanceOf(GapCompressedInducedSubgraph.class));
+    assertThat(compressedSubgraph.size(), is(subgraph.size()));
+    assertThat(compressedSubgraph.weights(), is(subgraph.weights()));
+  }
+
+  @Test
+  public void randomSubgraphs() {
+    Graph graph = bandedGraph(3000, 40);
+    Graph compressed = GapCompressedSparseGraph.compress((CompressedSparseGraph) graph);
+    Random rand = new Random(4711L);
+    for (int i = 0; i < 10; i++) {
+      int[] vertices = rand.ints(1 + rand.nextInt(1500), 0, 3000).distinct().toArray();
+      verifyGraph(graph.inducedSubgraph(IntIterators.wrap(vertices)), compressed.inducedSubgraph(IntIterators.wrap(vertices)));
+    }
+  }
+
+  @Test
+  public void buildDirectly() {
+    Random rand = new Random(1337L);
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(0);
+    CompressedSparseGraphBuilder directBuilder = new CompressedSparseGraphBuilder(0)
+            .withSettings(GraphBuildSettings.builder().withWeightStorage(WeightStorage.FLOAT).build());
+    for (int i = 0; i < 100000; i++) {
+      int u = rand.nextInt(20000);
+      int v = Math.min(19999, u + rand.nextInt(50));
+      float weight = rand.nextInt(100) / 4f;
+      builder.add(u, v, weight);
+      directBuilder.add(u, v, weight);
+    }
+    verifyGraph(builder.build(), directBuilder.buildGapCompressed());
+  }
+
+  @Test
+  public void buildEmptyGraphDirectly() {
+    Graph graph = CompressedSparseGraph.builder().buildGapCompressed();
+    assertThat(graph.order(), is(0));
+    assertThat(graph.size(), is(0L));
+  }
+
+  @Test
+  public void buildDirectlyWithSettings() {
+    CompressedSparseGraphBuilder builder = CompressedSparseGraphBuilder.unweighted()
+            .withSettings(GraphBuildSettings.builder().withMinDegree(2).build());
+    for (int i = 0; i < 100; i++) {
+      builder.add(i, (i + 1) % 100, 1);
+    }
+    builder.add(0, 100, 1);
+    GapCompressedSparseGraph graph = builder.buildGapCompressed();
+    assertThat(graph.order(), is(100));
+    assertThat(graph.size(), is(200L));
+    assertThat(builder.getPermutation()[100], is(-1));
+  }
+
+  @Test
+  public void lowerTriangularTraversal() {
+    Graph graph = GapCompressedSparseGraph.compress(completeGraph(150))
+            .inducedSubgraph(IntIterators.fromTo(0, 140));
+    graph.traverseParallel(consumer, TraversalMode.LOWER_TRIANGULAR);
+    assertThat(consumer.getEdges(), hasSize(70 * 139));
+  }
+
+}
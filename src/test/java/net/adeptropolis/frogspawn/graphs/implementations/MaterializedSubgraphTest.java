@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import it.unimi.dsi.fastutil.ints.IntIterators;
+import net.adeptropolis.frogspawn.graphs.Edge;
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.GraphTestBase;
+import net.adeptropolis.frogspawn.graphs.traversal.TraversalMode;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraph.builder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class MaterializedSubgraphTest extends GraphTestBase {
+
+  private static final CompressedSparseGraph defaultGraph = builder()
+          .add(0, 1, 2)
+          .add(1, 2, 3)
+          .add(4, 9, 5)
+          .add(4, 10, 7)
+          .add(4, 11, 11)
+          .build();
+
+  private static Graph defaultSubgraph(int... vertices) {
+    return defaultGraph.inducedSubgraph(IntIterators.wrap(vertices));
+  }
+
+  @Test
+  public void fullTraversal() {
+    Graph graph = MaterializedSubgraph.materialize(defaultSubgraph(1, 2, 4, 9, 10), Long.MAX_VALUE);
+    assertThat(graph.order(), is(5));
+    assertThat(graph.size(), is(6L));
+    graph.traverseParallel(consumer);
+    assertThat(consumer.getEdges(), containsInAnyOrder(
+            Edge.of(0, 1, 3),
+            Edge.of(1, 0, 3),
+            Edge.of(2, 3, 5),
+            Edge.of(3, 2, 5),
+            Edge.of(2, 4, 7),
+            Edge.of(4, 2, 7)));
+  }
+
+  @Test
+  public void emptyGraph() {
+    Graph graph = MaterializedSubgraph.materialize(defaultSubgraph(), Long.MAX_VALUE);
+    assertThat(graph.order(), is(0));
+    graph.traverseParallel(consumer);
+    assertThat(consumer.getEdges(), is(empty()));
+  }
+
+  @Test
+  public void sharesVertexIdsWithOriginalGraph() {
+    Graph subgraph = defaultSubgraph(4, 9, 10, 11);
+    Graph graph = MaterializedSubgraph.materialize(subgraph, Long.MAX_VALUE);
+    assertThat(graph.localVertexId(10), is(subgraph.localVertexId(10)));
+    assertThat(graph.globalVertexId(3), is(11));
+    assertThat(graph.collectVertices(), is(new int[]{4, 9, 10, 11}));
+    assertThat(graph.weights(), is(subgraph.weights()));
+    Graph subsubgraph = graph.localInducedSubgraph(IntIterators.wrap(new int[]{0, 2}));
+    assertThat(subsubgraph, instanceOf(CompressedInducedSparseSubgraph.class));
+    assertThat(subsubgraph.collectVertices(), is(new int[]{4, 10}));
+  }
+
+  @Test
+  public void lowerTriangularTraversal() {
+    Graph graph = MaterializedSubgraph.materialize(completeGraph(150).inducedSubgraph(IntIterators.fromTo(0, 140)), Long.MAX_VALUE);
+    graph.traverseParallel(consumer, TraversalMode.LOWER_TRIANGULAR);
+    assertThat(consumer.getEdges(), hasSize(70 * 139));
+  }
+
+  @Test
+  public void fingerprint() {
+    Graph subgraph = bandedGraph(2000, 20).inducedSubgraph(IntIterators.fromTo(100, 1900));
+    Graph graph = MaterializedSubgraph.materialize(subgraph, Long.MAX_VALUE);
+    assertThat(fingerprint(graph), is(fingerprint(subgraph)));
+  }
+
+  private static long fingerprint(Graph graph) {
+    AtomicLong fp = new AtomicLong();
+    graph.traverseParallel((u, v, weight) -> fp.addAndGet((long) ((u * weight) % (v + 10))));
+    return fp.get();
+  }
+
+  @Test
+  public void memoryBudget() {
+    Graph subgraph = defaultSubgraph(1, 2, 4, 9, 10);
+    long requiredBytes = MaterializedSubgraph.requiredBytes(5, 6);
+    assertThat(MaterializedSubgraph.materialize(subgraph, requiredBytes), notNullValue());
+    assertThat(MaterializedSubgraph.materialize(subgraph, requiredBytes - 1), nullValue());
+    assertThat(MaterializedSubgraph.materialize(subgraph, 0), nullValue());
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static net.adeptropolis.frogspawn.graphs.GraphTestBase.randomEdges;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class ShardedGraphBuilderTest {
+
+  private static final int NUM_THREADS = 8;
+
+  @Test
+  public void emptyGraph() {
+    CompressedSparseGraphDatastore datastore = new ShardedGraphBuilder().buildDatastore();
+    assertThat(datastore.size(), is(0));
+    assertThat(datastore.edgeCount(), is(0L));
+  }
+
+  @Test
+  public void bitIdenticalToSingleThreadedBuilder() throws InterruptedException {
+    List<double[]> edges = randomEdges(200000, 5000);
+    ShardedGraphBuilder shardedBuilder = new ShardedGraphBuilder(1 << 10, 0.0);
+    addConcurrently(shardedBuilder, edges);
+    Collections.shuffle(edges, new Random(4711L));
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(1 << 10, 0.0);
+    for (double[] edge : edges) {
+      builder.add((int) edge[0], (int) edge[1], edge[2]);
+    }
+    assertIdentical(shardedBuilder.buildDatastore(), builder.buildDatastore());
+  }
+
+  @Test
+  public void vertexOrdering() throws InterruptedException {
+    List<double[]> edges = randomEdges(10000, 500);
+    ShardedGraphBuilder shardedBuilder = new ShardedGraphBuilder(1 << 10, 0.0)
+            .withSettings(GraphBuildSettings.builder().withVertexOrdering(VertexOrdering.REVERSE_CUTHILL_MCKEE).build());
+    addConcurrently(shardedBuilder, edges);
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(1 << 10, 0.0)
+            .withSettings(GraphBuildSettings.builder().withVertexOrdering(VertexOrdering.REVERSE_CUTHILL_MCKEE).build());
+    for (double[] edge : edges) {
+      builder.add((int) edge[0], (int) edge[1], edge[2]);
+    }
+    assertIdentical(shardedBuilder.buildDatastore(), builder.buildDatastore());
+    assertThat(shardedBuilder.getPermutation(), is(builder.getPermutation()));
+  }
+
+  @Test
+  public void skewedDegreesWithSettings() throws InterruptedException {
+    List<double[]> edges = randomEdges(200000, 5000);
+    Random random = new Random(42L);
+    for (int i = 0; i < 300000; i++) {
+      edges.add(new double[]{7, random.nextInt(5000), random.nextDouble()});
+    }
+    GraphBuildSettings settings = GraphBuildSettings.builder().withTopKEdges(20).withMinDegree(3).build();
+    ShardedGraphBuilder shardedBuilder = new ShardedGraphBuilder(1 << 10, 0.0).withSettings(settings);
+    addConcurrently(shardedBuilder, edges);
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(1 << 10, 0.0).withSettings(settings);
+    for (double[] edge : edges) {
+      builder.add((int) edge[0], (int) edge[1], edge[2]);
+    }
+    assertIdentical(shardedBuilder.buildDatastore(), builder.buildDatastore());
+    assertThat(shardedBuilder.getPermutation(), is(builder.getPermutation()));
+  }
+
+  @Test
+  public void unweighted() throws InterruptedException {
+    List<double[]> edges = randomEdges(10000, 500);
+    edges.forEach(edge -> edge[2] = 1);
+    ShardedGraphBuilder shardedBuilder = ShardedGraphBuilder.unweighted();
+    addConcurrently(shardedBuilder, edges);
+    CompressedSparseGraphBuilder builder = CompressedSparseGraphBuilder.unweighted();
+    for (double[] edge : edges) {
+      builder.add((int) edge[0], (int) edge[1], 1);
+    }
+    assertIdentical(shardedBuilder.buildDatastore(), builder.buildDatastore());
+  }
+
+  @Test
+  public void edgeWeightBelowMinThrows() {
+    assertThrows(GraphConstructionException.class, () -> new ShardedGraphBuilder().add(0, 1, 0.5));
+  }
+
+  @Test
+  public void addingEdgesAfterBuildThrows() {
+    ShardedGraphBuilder shardedBuilder = new ShardedGraphBuilder(1 << 10, 0.0);
+    shardedBuilder.add(0, 1, 1);
+    shardedBuilder.build();
+    assertThrows(GraphConstructionException.class, () -> shardedBuilder.add(1, 2, 1));
+    assertThrows(GraphConstructionException.class, () -> shardedBuilder.addDirected(1, 2, 1));
+    assertThrows(GraphConstructionException.class, shardedBuilder::build);
+  }
+
+  private static void assertIdentical(CompressedSparseGraphDatastore actual, CompressedSparseGraphDatastore expected) {
+    assertThat(actual.size(), is(expected.size()));
+    assertThat(actual.edgeCount(), is(expected.edgeCount()));
+    assertThat(actual.pointers, is(expected.pointers));
+    for (long i = 0; i < expected.edgeCount(); i++) {
+      assertThat(actual.edges().get(i), is(expected.edges().get(i)));
+      assertThat(Double.doubleToRawLongBits(actual.weights().get(i)), is(Double.doubleToRawLongBits(expected.weights().get(i))));
+    }
+  }
+
+  private static void addConcurrently(ShardedGraphBuilder builder, List<double[]> edges) throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+    for (int t = 0; t < NUM_THREADS; t++) {
+      int offset = t;
+      executor.submit(() -> {
+        for (int i = offset; i < edges.size(); i += NUM_THREADS) {
+          double[] edge = edges.get(i);
+          builder.add((int) edge[0], (int) edge[1], edge[2]);
+        }
+      });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(1, TimeUnit.MINUTES), is(true));
+  }
+
+}
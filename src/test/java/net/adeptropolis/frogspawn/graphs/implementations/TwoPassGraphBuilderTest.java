@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigFloats;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.adeptropolis.frogspawn.graphs.GraphTestBase.randomEdges;
+import static net.adeptropolis.frogspawn.graphs.implementations.arrays.Helpers.assertEquals;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class TwoPassGraphBuilderTest {
+
+  @Test
+  public void emptyGraph() {
+    CompressedSparseGraphDatastore datastore = new TwoPassGraphBuilder(consumer -> { }).buildDatastore();
+    assertThat(datastore.size(), is(0));
+    assertThat(datastore.edgeCount(), is(0L));
+  }
+
+  @Test
+  public void simpleGraph() {
+    CompressedSparseGraphDatastore datastore = new TwoPassGraphBuilder(consumer -> {
+      consumer.accept(2, 1, 3);
+      consumer.accept(0, 1, 2);
+      consumer.accept(1, 0, 5);
+      consumer.accept(2, 2, 7);
+    }).buildDatastore();
+    assertThat(datastore.size(), is(3));
+    assertThat(datastore.edgeCount(), is(5L));
+    assertEquals("Vertex pointers", datastore.pointers, 0L, 1L, 3L, 5L);
+    assertEquals("Edges", datastore.edges(), 1, 0, 2, 1, 2);
+    assertEquals("Weights", datastore.weights(), 7, 7, 3, 3, 7);
+  }
+
+  @Test
+  public void identicalToCompressedSparseGraphBuilder() {
+    List<double[]> edges = randomEdges(100000, 100000);
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(1 << 10, 0.0);
+    for (double[] edge : edges) {
+      builder.add((int) edge[0], (int) edge[1], edge[2]);
+    }
+    CompressedSparseGraphDatastore expected = builder.buildDatastore();
+    CompressedSparseGraphDatastore actual = new TwoPassGraphBuilder(consumer -> {
+      for (double[] edge : edges) {
+        consumer.accept((int) edge[0], (int) edge[1], edge[2]);
+      }
+    }, 0.0).buildDatastore();
+    assertThat(actual.size(), is(expected.size()));
+    assertThat(actual.edgeCount(), is(expected.edgeCount()));
+    assertThat(actual.pointers, is(expected.pointers));
+    for (long i = 0; i < expected.edgeCount(); i++) {
+      assertThat(actual.edges().get(i), is(expected.edges().get(i)));
+      assertThat(Double.doubleToRawLongBits(actual.weights().get(i)), is(Double.doubleToRawLongBits(expected.weights().get(i))));
+    }
+  }
+
+  @Test
+  public void givenOrder() {
+    CompressedSparseGraph graph = new TwoPassGraphBuilder(consumer -> consumer.accept(0, 1, 1))
+            .withOrder(4)
+            .build();
+    assertThat(graph.order(), is(4));
+    assertThat(graph.size(), is(2L));
+  }
+
+  @Test
+  public void weightStorage() {
+    CompressedSparseGraphDatastore datastore = new TwoPassGraphBuilder(consumer -> consumer.accept(0, 1, 1.5))
+            .withSettings(GraphBuildSettings.builder().withWeightStorage(WeightStorage.FLOAT).build())
+            .buildDatastore();
+    assertThat(datastore.weights(), instanceOf(BigFloats.class));
+    assertEquals("Weights", datastore.weights(), 1.5, 1.5);
+  }
+
+  @Test
+  public void unsupportedSettingsThrow() {
+    TwoPassGraphBuilder builder = new TwoPassGraphBuilder(consumer -> consumer.accept(0, 1, 1));
+    assertThrows(GraphConstructionException.class, () ->
+            builder.withSettings(GraphBuildSettings.builder().withVertexOrdering(VertexOrdering.DEGREE).build()));
+    assertThrows(GraphConstructionException.class, () ->
+            builder.withSettings(GraphBuildSettings.builder().withTopKEdges(2).build()));
+    assertThrows(GraphConstructionException.class, () ->
+            builder.withSettings(GraphBuildSettings.builder().withMinDegree(2).build()));
+  }
+
+  @Test
+  public void vertexExceedingOrderThrows() {
+    assertThrows(GraphConstructionException.class, () ->
+            new TwoPassGraphBuilder(consumer -> consumer.accept(0, 4, 1)).withOrder(4).build());
+  }
+
+  @Test
+  public void edgeWeightBelowMinThrows() {
+    assertThrows(GraphConstructionException.class, () ->
+            new TwoPassGraphBuilder(consumer -> consumer.accept(0, 1, 0.5)).build());
+  }
+
+  @Test
+  public void nonReplayableSourceThrows() {
+    AtomicInteger passes = new AtomicInteger();
+    assertThrows(GraphConstructionException.class, () -> new TwoPassGraphBuilder(consumer -> {
+      consumer.accept(0, 1, 1);
+      if (passes.incrementAndGet() == 1) {
+        consumer.accept(1, 2, 1);
+      }
+    }).build());
+  }
+
+}
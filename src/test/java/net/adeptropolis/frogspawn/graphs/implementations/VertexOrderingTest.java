@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class VertexOrderingTest {
+
+  private static final int PATH_LENGTH = 1000;
+
+  @Test
+  public void noReordering() {
+    CompressedSparseGraph graph = shuffledPath(VertexOrdering.NONE);
+    assertThat(VertexOrdering.NONE.permutation(graph.getDatastore().pointers, graph.getDatastore().edges(), graph.order()), nullValue());
+  }
+
+  @Test
+  public void degreeOrdering() {
+    CompressedSparseGraphDatastore datastore = CompressedSparseGraph.builder()
+            .add(0, 1, 1)
+            .add(2, 3, 1)
+            .add(3, 4, 1)
+            .add(3, 1, 1)
+            .buildDatastore();
+    int[] permutation = VertexOrdering.DEGREE.permutation(datastore.pointers, datastore.edges(), datastore.size());
+    assertThat(permutation, is(new int[]{2, 1, 3, 0, 4}));
+  }
+
+  @Test
+  public void breadthFirstOrderingsMinimizeBandwidth() {
+    assertThat(bandwidth(shuffledPath(VertexOrdering.NONE)), greaterThan(PATH_LENGTH / 2));
+    assertThat(bandwidth(shuffledPath(VertexOrdering.BFS)), is(1));
+    assertThat(bandwidth(shuffledPath(VertexOrdering.REVERSE_CUTHILL_MCKEE)), is(1));
+  }
+
+  @Test
+  public void reorderedGraphsAreIsomorphic() {
+    Set<String> reference = edgeSet(bandGraph().build(), null);
+    for (VertexOrdering ordering : VertexOrdering.values()) {
+      CompressedSparseGraphBuilder builder = bandGraph().withSettings(GraphBuildSettings.builder().withVertexOrdering(ordering).build());
+      CompressedSparseGraph graph = builder.build();
+      int[] permutation = builder.getPermutation();
+      if (permutation != null) {
+        assertThat(permutation.length, is(graph.order()));
+        assertThat(isPermutation(permutation), is(true));
+      }
+      assertThat(edgeSet(graph, permutation), is(reference));
+    }
+  }
+
+  private static boolean isPermutation(int[] permutation) {
+    boolean[] seen = new boolean[permutation.length];
+    for (int v : permutation) {
+      if (seen[v]) {
+        return false;
+      }
+      seen[v] = true;
+    }
+    return true;
+  }
+
+  private static Set<String> edgeSet(CompressedSparseGraph graph, int[] permutation) {
+    int[] original = new int[graph.order()];
+    for (int i = 0; i < original.length; i++) {
+      original[(permutation != null) ? permutation[i] : i] = i;
+    }
+    Set<String> edges = Collections.synchronizedSet(new HashSet<>());
+    graph.traverseParallel((u, v, weight) -> edges.add(original[u] + "-" + original[v] + ":" + weight));
+    return edges;
+  }
+
+  private static int bandwidth(CompressedSparseGraph graph) {
+    AtomicInteger bandwidth = new AtomicInteger();
+    graph.traverseParallel((u, v, weight) -> bandwidth.accumulateAndGet(Math.abs(u - v), Math::max));
+    return bandwidth.get();
+  }
+
+  private static CompressedSparseGraphBuilder bandGraph() {
+    Random random = new Random(1337L);
+    CompressedSparseGraphBuilder builder = CompressedSparseGraph.builder();
+    for (int u = 0; u < 500; u++) {
+      for (int v = u + 1; v < Math.min(u + 20, 500); v++) {
+        if (random.nextDouble() < 0.3) {
+          builder.add(u, v, 1 + random.nextInt(10));
+        }
+      }
+    }
+    return builder;
+  }
+
+  private static CompressedSparseGraph shuffledPath(VertexOrdering ordering) {
+    int[] ids = new int[PATH_LENGTH];
+    for (int i = 0; i < PATH_LENGTH; i++) {
+      ids[i] = i;
+    }
+    Random random = new Random(4711L);
+    for (int i = PATH_LENGTH - 1; i > 1; i--) {
+      int j = 1 + random.nextInt(i);
+      int tmp = ids[i];
+      ids[i] = ids[j];
+      ids[j] = tmp;
+    }
+    CompressedSparseGraphBuilder builder = CompressedSparseGraph.builder().withSettings(GraphBuildSettings.builder().withVertexOrdering(ordering).build());
+    for (int i = 1; i < PATH_LENGTH; i++) {
+      builder.add(ids[i - 1], ids[i], 1);
+    }
+    return builder.build();
+  }
+
+}
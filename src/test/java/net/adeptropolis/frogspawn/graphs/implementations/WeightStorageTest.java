@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations;
+
+import net.adeptropolis.frogspawn.graphs.Graph;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.DeltaNormConvergence;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.PowerIteration;
+import net.adeptropolis.frogspawn.graphs.algorithms.power_iteration.RandomInitialVectorsSource;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigDoubles;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.BigFloats;
+import net.adeptropolis.frogspawn.graphs.implementations.arrays.QuantizedBigDoubles;
+import net.adeptropolis.frogspawn.graphs.operators.SSNLOperator;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class WeightStorageTest {
+
+  private static final int COMMUNITY_SIZE = 300;
+
+  @Test
+  public void storageRepresentation() {
+    assertThat(WeightStorage.DOUBLE.store(bigDoubles(1, 2)), instanceOf(BigDoubles.class));
+    assertThat(WeightStorage.FLOAT.store(bigDoubles(1, 2)), instanceOf(BigFloats.class));
+    assertThat(WeightStorage.QUANTIZED_16.store(bigDoubles(1, 2)), instanceOf(QuantizedBigDoubles.class));
+    assertThat(WeightStorage.QUANTIZED_8.store(bigDoubles(1, 2)), instanceOf(QuantizedBigDoubles.class));
+  }
+
+  @Test
+  public void weightsPrecision() {
+    CompressedSparseGraph graph = communityGraph(WeightStorage.DOUBLE);
+    double[] weights = graph.weights();
+    assertThat(maxRelativeError(weights, communityGraph(WeightStorage.FLOAT).weights()), lessThan(1E-6));
+    assertThat(maxRelativeError(weights, communityGraph(WeightStorage.QUANTIZED_16).weights()), lessThan(1E-3));
+    assertThat(maxRelativeError(weights, communityGraph(WeightStorage.QUANTIZED_8).weights()), lessThan(5E-2));
+  }
+
+  @Test
+  public void fiedlerVectorSigns() throws PowerIteration.MaxIterationsExceededException {
+    double[] reference = fiedlerVector(communityGraph(WeightStorage.DOUBLE));
+    assertThat(signAgreement(reference, fiedlerVector(communityGraph(WeightStorage.FLOAT))), is(1.0));
+    assertThat(signAgreement(reference, fiedlerVector(communityGraph(WeightStorage.QUANTIZED_16))), is(1.0));
+    assertThat(signAgreement(reference, fiedlerVector(communityGraph(WeightStorage.QUANTIZED_8))), greaterThanOrEqualTo(0.99));
+  }
+
+  private static BigDoubles bigDoubles(double... values) {
+    return BigDoubles.of(values);
+  }
+
+  private static double[] fiedlerVector(Graph graph) throws PowerIteration.MaxIterationsExceededException {
+    SSNLOperator op = new SSNLOperator(graph);
+    double[] iv = new RandomInitialVectorsSource(42133742L).generate(graph.order());
+    return PowerIteration.apply(op, new DeltaNormConvergence(1E-9), iv, 100000, true);
+  }
+
+  private static double signAgreement(double[] v, double[] w) {
+    int agreements = 0;
+    for (int i = 0; i < v.length; i++) {
+      if (Math.signum(v[i]) == Math.signum(w[i])) {
+        agreements++;
+      }
+    }
+    return Math.max(agreements, v.length - agreements) / (double) v.length;
+  }
+
+  private static double maxRelativeError(double[] expected, double[] actual) {
+    double maxError = 0;
+    for (int i = 0; i < expected.length; i++) {
+      maxError = Math.max(maxError, Math.abs(actual[i] - expected[i]) / expected[i]);
+    }
+    return maxError;
+  }
+
+  private static CompressedSparseGraph communityGraph(WeightStorage storage) {
+    Random rand = new Random(1337L);
+    CompressedSparseGraphBuilder builder = new CompressedSparseGraphBuilder(0).withSettings(GraphBuildSettings.builder().withWeightStorage(storage).build());
+    for (int u = 0; u < 2 * COMMUNITY_SIZE; u++) {
+      for (int v = u + 1; v < 2 * COMMUNITY_SIZE; v++) {
+        boolean sameCommunity = (u < COMMUNITY_SIZE) == (v < COMMUNITY_SIZE);
+        if (rand.nextDouble() < (sameCommunity ? 0.1 : 0.02)) {
+          builder.add(u, v, Math.exp(rand.nextGaussian()));
+        }
+      }
+    }
+    return builder.build();
+  }
+
+}
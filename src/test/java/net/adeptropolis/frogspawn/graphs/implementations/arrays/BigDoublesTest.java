@@ -50,6 +50,15 @@ public class BigDoublesTest {
     for (long i = 0; i < 4 * BIN_SIZE; i++) assertThat(b.get(i), is(2.71 * i));
   }
 
+  @Test
+  public void shrinkResizeWithinBin() {
+    BigDoubles b = new BigDoubles(BIN_SIZE);
+    for (int i = 0; i < 10; i++) b.set(i, i);
+    b.resize(7);
+    assertThat(b.size(), is(7L));
+    assertThat(b.bins(), is(1));
+  }
+
   @Test
   public void equals() {
     BigDoubles b = new BigDoubles(29);
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations.arrays;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class BigFloatsTest {
+
+  private static final long BIN_SIZE = (1 << BigFloats.BIN_BITS);
+
+  @Test
+  public void copy() {
+    BigDoubles values = new BigDoubles(0);
+    for (int i = 0; i < 3 * BIN_SIZE + 10; i++) {
+      values.set(i, Math.PI * i);
+    }
+    BigFloats floats = BigFloats.of(values);
+    assertThat(floats.size(), is(3 * BIN_SIZE + 10));
+    for (long i = 0; i < floats.size(); i++) {
+      assertThat(floats.get(i), closeTo(values.get(i), 1E-6 * values.get(i)));
+    }
+  }
+
+  @Test
+  public void empty() {
+    assertThat(BigFloats.of(new BigDoubles(0)).size(), is(0L));
+  }
+
+}
@@ -50,6 +50,15 @@ public class BigIntsTest {
     for (int i = 0; i < 4 * BIN_SIZE; i++) assertThat(b.get(i), is(271 * i));
   }
 
+  @Test
+  public void shrinkResizeWithinBin() {
+    BigInts b = new BigInts(BIN_SIZE);
+    for (int i = 0; i < 10; i++) b.set(i, i);
+    b.resize(7);
+    assertThat(b.size(), is(7L));
+    assertThat(b.bins(), is(1));
+  }
+
   @Test
   public void equals() {
     BigInts b = new BigInts(29);
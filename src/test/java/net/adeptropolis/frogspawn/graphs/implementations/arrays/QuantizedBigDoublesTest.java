@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.implementations.arrays;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+public class QuantizedBigDoublesTest {
+
+  @Test
+  public void losslessForFewDistinctValues() {
+    BigDoubles values = new BigDoubles(0);
+    for (int i = 0; i < 3 * (1 << BigDoubles.BIN_BITS); i++) {
+      values.set(i, (i % 200) * 0.37);
+    }
+    QuantizedBigDoubles quantized = QuantizedBigDoubles.quantize(values, 8);
+    assertThat(quantized.size(), is(values.size()));
+    for (long i = 0; i < values.size(); i++) {
+      assertThat(quantized.get(i), is(values.get(i)));
+    }
+  }
+
+  @Test
+  public void boundedRelativeError() {
+    Random rand = new Random(1337L);
+    BigDoubles values = new BigDoubles(0);
+    for (int i = 0; i < 500000; i++) {
+      values.set(i, Math.exp(rand.nextGaussian()));
+    }
+    QuantizedBigDoubles q8 = QuantizedBigDoubles.quantize(values, 8);
+    QuantizedBigDoubles q16 = QuantizedBigDoubles.quantize(values, 16);
+    for (long i = 0; i < values.size(); i++) {
+      assertThat(q8.get(i), closeTo(values.get(i), 0.025 * values.get(i)));
+      assertThat(q16.get(i), closeTo(values.get(i), 1E-4 * values.get(i)));
+    }
+  }
+
+  @Test
+  public void nonPositiveValues() {
+    BigDoubles values = new BigDoubles(0);
+    for (int i = 0; i < 1000; i++) {
+      values.set(i, i - 500);
+    }
+    QuantizedBigDoubles quantized = QuantizedBigDoubles.quantize(values, 8);
+    for (long i = 0; i < values.size(); i++) {
+      assertThat(quantized.get(i), closeTo(values.get(i), 2.0));
+    }
+  }
+
+  @Test
+  public void encodeNearest() {
+    double[] codebook = new double[]{1, 2, 4, 8};
+    assertThat(QuantizedBigDoubles.encode(codebook, 0.5), is(0));
+    assertThat(QuantizedBigDoubles.encode(codebook, 2), is(1));
+    assertThat(QuantizedBigDoubles.encode(codebook, 2.9), is(1));
+    assertThat(QuantizedBigDoubles.encode(codebook, 3.1), is(2));
+    assertThat(QuantizedBigDoubles.encode(codebook, 100), is(3));
+  }
+
+  @Test
+  public void invalidCodeSize() {
+    assertThrows(IllegalArgumentException.class, () -> QuantizedBigDoubles.quantize(BigDoubles.of(1, 2), 12));
+  }
+
+}
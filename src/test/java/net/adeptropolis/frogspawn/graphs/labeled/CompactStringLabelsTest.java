@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.labeled;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CompactStringLabelsTest {
+
+  private static final String[] LABELS = {"a", "", "Grüße", "日本語", "", "long label spanning more than a page", "z"};
+
+  @Test
+  public void lookup() {
+    CompactStringLabels labels = CompactStringLabels.of(LABELS);
+    assertThat(labels.size(), is(LABELS.length));
+    for (int i = 0; i < LABELS.length; i++) {
+      assertThat(labels.get(i), is(LABELS[i]));
+    }
+  }
+
+  @Test
+  public void smallPages() {
+    CompactStringLabels labels = CompactStringLabels.of(LABELS, 8);
+    for (int i = 0; i < LABELS.length; i++) {
+      assertThat(labels.get(i), is(LABELS[i]));
+    }
+  }
+
+  @Test
+  public void toArray() {
+    assertThat(CompactStringLabels.of(LABELS, 8).toArray(), is(LABELS));
+  }
+
+  @Test
+  public void nullLabels() {
+    String[] labels = {null, "a", null, null, "bc", "", null, "d", null};
+    assertThat(CompactStringLabels.of(labels).toArray(), is(labels));
+    assertThat(CompactStringLabels.of(labels, 2).toArray(), is(labels));
+  }
+
+  @Test
+  public void empty() {
+    CompactStringLabels labels = CompactStringLabels.of(new String[0]);
+    assertThat(labels.size(), is(0));
+    assertThat(labels.toArray(), is(new String[0]));
+  }
+
+}
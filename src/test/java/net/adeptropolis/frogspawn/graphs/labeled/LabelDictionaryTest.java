@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.labeled;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class LabelDictionaryTest {
+
+  private static final int NUM_THREADS = 8;
+
+  @Test
+  public void idsFollowFirstAppearance() {
+    LabelDictionary<String> dictionary = new LabelDictionary<>();
+    assertThat(dictionary.id("a"), is(0));
+    assertThat(dictionary.id("b"), is(1));
+    assertThat(dictionary.id("a"), is(0));
+    assertThat(dictionary.id("c"), is(2));
+    assertThat(dictionary.size(), is(3));
+    assertThat(dictionary.invert(String.class, null, 3), is(new String[]{"a", "b", "c"}));
+  }
+
+  @Test
+  public void invertWithPermutation() {
+    LabelDictionary<String> dictionary = new LabelDictionary<>();
+    dictionary.id("a");
+    dictionary.id("b");
+    dictionary.id("c");
+    assertThat(dictionary.invert(String.class, new int[]{2, 0, 1}, 3), is(new String[]{"b", "c", "a"}));
+  }
+
+  @Test
+  public void concurrentIdsAreDenseAndConsistent() throws InterruptedException {
+    int numLabels = 100000;
+    LabelDictionary<String> dictionary = new LabelDictionary<>(NUM_THREADS);
+    int[][] ids = new int[NUM_THREADS][numLabels];
+    ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+    for (int t = 0; t < NUM_THREADS; t++) {
+      int thread = t;
+      executor.submit(() -> {
+        for (int i = 0; i < numLabels; i++) {
+          int label = (i + thread * 7919) % numLabels;
+          ids[thread][label] = dictionary.id(String.valueOf(label));
+        }
+      });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(1, TimeUnit.MINUTES), is(true));
+    assertThat(dictionary.size(), is(numLabels));
+    String[] labels = dictionary.invert(String.class, null, numLabels);
+    Set<Integer> distinctIds = new HashSet<>();
+    for (int label = 0; label < numLabels; label++) {
+      int id = ids[0][label];
+      for (int t = 1; t < NUM_THREADS; t++) {
+        assertThat(ids[t][label], is(id));
+      }
+      distinctIds.add(id);
+      assertThat(labels[id], is(String.valueOf(label)));
+    }
+    assertThat(distinctIds.size(), is(numLabels));
+  }
+
+  @Test
+  public void invertDiscardsRemovedIds() {
+    LabelDictionary<String> dictionary = new LabelDictionary<>();
+    dictionary.id("a");
+    dictionary.id("b");
+    dictionary.id("c");
+    assertThat(dictionary.invert(String.class, new int[]{1, -1, 0}, 2), is(new String[]{"c", "a"}));
+  }
+
+  @Test
+  public void invertDiscardsOutOfRangeIds() {
+    LabelDictionary<String> dictionary = new LabelDictionary<>();
+    dictionary.id("a");
+    dictionary.id("b");
+    dictionary.id("c");
+    assertThat(dictionary.invert(String.class, null, 2), is(new String[]{"a", "b"}));
+    assertThat(dictionary.invert(String.class, new int[]{1, 0}, 2), is(new String[]{"b", "a"}));
+  }
+
+}
@@ -6,15 +6,24 @@
 package net.adeptropolis.frogspawn.graphs.labeled;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import net.adeptropolis.frogspawn.graphs.Edge;
 import net.adeptropolis.frogspawn.graphs.GraphTestBase;
 import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraph;
+import net.adeptropolis.frogspawn.graphs.implementations.GraphBuildSettings;
+import net.adeptropolis.frogspawn.graphs.implementations.GraphConstructionException;
+import net.adeptropolis.frogspawn.graphs.implementations.VertexOrdering;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
 
 public class LabeledGraphBuilderTest extends GraphTestBase {
 
@@ -31,6 +40,26 @@ public class LabeledGraphBuilderTest extends GraphTestBase {
     }
   }
 
+  @Test
+  public void rejectedEdgesDoNotBreakLabels() {
+    LabeledGraphBuilder<String> builder = new LabeledGraphBuilder<>(String.class).add("a", "b", 1);
+    assertThrows(GraphConstructionException.class, () -> builder.add("c", "d", 0.5));
+    LabeledGraph<String> labeledGraph = builder.build();
+    assertThat(labeledGraph.getGraph().order(), is(2));
+    assertThat(labeledGraph.getLabel(0), is("a"));
+    assertThat(labeledGraph.getLabel(1), is("b"));
+  }
+
+  @Test
+  public void rejectedEdgesDoNotBreakCompactLabels() {
+    LabeledGraphBuilder<String> builder = new LabeledGraphBuilder<>(String.class).add("a", "b", 1);
+    LabeledGraphBuilder<String> compactBuilder = new LabeledGraphBuilder<>(String.class).withCompactLabels().add("a", "b", 1);
+    assertThrows(GraphConstructionException.class, () -> builder.add("c", "d", 0.5));
+    assertThrows(GraphConstructionException.class, () -> compactBuilder.add("c", "d", 0.5));
+    String[] labels = builder.add("a", "e", 1).build().getLabels();
+    assertThat(compactBuilder.add("a", "e", 1).build().getLabels(), is(labels));
+  }
+
   @Test
   public void graph() {
     CompressedSparseGraph graph = new LabeledGraphBuilder<>(String.class)
@@ -52,4 +81,76 @@ public class LabeledGraphBuilderTest extends GraphTestBase {
 
   }
 
-}
\ No newline at end of file
+  @Test
+  public void vertexOrderingRemapsLabels() {
+    LabeledGraph<String> labeledGraph = new LabeledGraphBuilder<>(String.class)
+            .withSettings(GraphBuildSettings.builder().withVertexOrdering(VertexOrdering.REVERSE_CUTHILL_MCKEE).build())
+            .add("a", "b", 2)
+            .add("b", "c", 3)
+            .add("c", "d", 5)
+            .add("b", "d", 7)
+            .build();
+    Set<String> edges = Collections.synchronizedSet(new HashSet<>());
+    labeledGraph.getGraph().traverseParallel((u, v, weight) ->
+            edges.add(labeledGraph.getLabel(u) + labeledGraph.getLabel(v) + (int) weight));
+    assertThat(edges, is(ImmutableSet.of("ab2", "ba2", "bc3", "cb3", "cd5", "dc5", "bd7", "db7")));
+  }
+
+  @Test
+  public void concurrentBuilder() {
+    LabeledGraphBuilder<String> builder = LabeledGraphBuilder.concurrent(String.class);
+    IntStream.range(0, 10000).parallel().forEach(i -> builder.add("v" + i, "v" + ((i + 1) % 10000), 1));
+    LabeledGraph<String> labeledGraph = builder.build();
+    assertThat(labeledGraph.getGraph().order(), is(10000));
+    assertThat(labeledGraph.getGraph().size(), is(2 * 10000L));
+    Set<String> edges = Collections.synchronizedSet(new HashSet<>());
+    labeledGraph.getGraph().traverseParallel((u, v, weight) ->
+            edges.add(labeledGraph.getLabel(u) + "-" + labeledGraph.getLabel(v)));
+    for (int i = 0; i < 10000; i++) {
+      assertThat(edges.contains("v" + i + "-v" + ((i + 1) % 10000)), is(true));
+    }
+  }
+
+  @Test
+  public void pruningRemapsLabels() {
+    LabeledGraph<String> labeledGraph = new LabeledGraphBuilder<>(String.class)
+            .withSettings(GraphBuildSettings.builder().withMinDegree(2).withVertexOrdering(VertexOrdering.REVERSE_CUTHILL_MCKEE).build())
+            .add("leaf", "a", 1)
+            .add("a", "b", 2)
+            .add("b", "c", 3)
+            .add("c", "a", 5)
+            .build();
+    assertThat(labeledGraph.getGraph().order(), is(3));
+    assertThat(labeledGraph.getLabels().length, is(3));
+    Set<String> edges = Collections.synchronizedSet(new HashSet<>());
+    labeledGraph.getGraph().traverseParallel((u, v, weight) ->
+            edges.add(labeledGraph.getLabel(u) + labeledGraph.getLabel(v) + (int) weight));
+    assertThat(edges, is(ImmutableSet.of("ab2", "ba2", "bc3", "cb3", "ca5", "ac5")));
+  }
+
+  @Test
+  public void compactLabels() {
+    LabeledGraph<String> labeledGraph = new LabeledGraphBuilder<>(String.class)
+            .withCompactLabels()
+            .withSettings(GraphBuildSettings.builder().withVertexOrdering(VertexOrdering.REVERSE_CUTHILL_MCKEE).build())
+            .add("a", "b", 2)
+            .add("b", "c", 3)
+            .add("c", "d", 5)
+            .add("b", "d", 7)
+            .build();
+    assertThat(labeledGraph.hasCompactLabels(), is(true));
+    Set<String> edges = Collections.synchronizedSet(new HashSet<>());
+    labeledGraph.getGraph().traverseParallel((u, v, weight) ->
+            edges.add(labeledGraph.getLabel(u) + labeledGraph.getLabel(v) + (int) weight));
+    assertThat(edges, is(ImmutableSet.of("ab2", "ba2", "bc3", "cb3", "cd5", "dc5", "bd7", "db7")));
+    for (int i = 0; i < 4; i++) {
+      assertThat(labeledGraph.getLabels()[i], is(labeledGraph.getLabel(i)));
+    }
+  }
+
+  @Test
+  public void compactLabelsRequireStrings() {
+    assertThrows(GraphConstructionException.class, () -> new LabeledGraphBuilder<>(Integer.class).withCompactLabels());
+  }
+
+}
@@ -6,11 +6,23 @@
 package net.adeptropolis.frogspawn.graphs.labeled;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import net.adeptropolis.frogspawn.graphs.Edge;
 import net.adeptropolis.frogspawn.graphs.GraphTestBase;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -18,6 +30,9 @@ import static org.hamcrest.Matchers.is;
 
 public class LabeledGraphSourceTest {
 
+  @Rule
+  public TemporaryFolder tempDir = new TemporaryFolder();
+
   @Test
   public void tsv() {
     LabeledGraph<String> labeledGraph = LabeledGraphSource.fromTSV(Stream.of("2\t0\t1", "3\t1\t2"));
@@ -39,4 +54,86 @@ public class LabeledGraphSourceTest {
 
   }
 
-}
\ No newline at end of file
+  @Test
+  public void tsvFile() throws IOException {
+    Path path = tempDir.newFile("graph.tsv").toPath();
+    Random random = new Random(1337L);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      text.append(random.nextInt(10) + 1).append('.').append(random.nextInt(100)).append('\t')
+              .append("vertex").append(random.nextInt(1000)).append('\t')
+              .append("vertex").append(random.nextInt(1000))
+              .append(random.nextBoolean() ? "\n" : "\r\n");
+      if (random.nextInt(10) == 0) {
+        text.append("# comment\n");
+      }
+    }
+    Files.write(path, text.toString().getBytes(StandardCharsets.UTF_8));
+    LabeledGraph<String> expected = LabeledGraphSource.fromTSV(Files.lines(path));
+    LabeledGraph<String> actual = LabeledGraphSource.fromTSV(path, 1000, false);
+    assertThat(actual.getLabels(), is(expected.getLabels()));
+    GraphTestBase.CollectingEdgeConsumer expectedEdges = new GraphTestBase.CollectingEdgeConsumer();
+    expected.getGraph().traverseParallel(expectedEdges);
+    GraphTestBase.CollectingEdgeConsumer actualEdges = new GraphTestBase.CollectingEdgeConsumer();
+    actual.getGraph().traverseParallel(actualEdges);
+    assertThat(actualEdges.getEdges(), is(expectedEdges.getEdges()));
+  }
+
+  @Test
+  public void concurrentLabels() throws IOException {
+    Path path = tempDir.newFile("graph.tsv").toPath();
+    Random random = new Random(4711L);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      text.append(random.nextInt(10) + 1).append('\t')
+              .append("vertex").append(random.nextInt(1000)).append('\t')
+              .append("vertex").append(random.nextInt(1000)).append('\n');
+    }
+    Files.write(path, text.toString().getBytes(StandardCharsets.UTF_8));
+    LabeledGraph<String> expected = LabeledGraphSource.fromTSV(path, 1000, false);
+    LabeledGraph<String> actual = LabeledGraphSource.fromTSV(path, 1000, true);
+    assertThat(ImmutableSet.copyOf(actual.getLabels()), is(ImmutableSet.copyOf(expected.getLabels())));
+    assertThat(labeledEdges(actual), is(labeledEdges(expected)));
+  }
+
+  @Test
+  public void linesLongerThanOverhang() throws IOException {
+    Path path = tempDir.newFile("long.tsv").toPath();
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      text.append(i + 1).append('\t').append("vertex").append(i % 7).append('\t');
+      for (int j = 0; j < (i % 3) * 100000; j++) {
+        text.append((char) ('a' + j % 26));
+      }
+      text.append(i).append('\n');
+    }
+    Files.write(path, text.toString().getBytes(StandardCharsets.UTF_8));
+    LabeledGraph<String> expected = LabeledGraphSource.fromTSV(Files.lines(path));
+    LabeledGraph<String> actual = LabeledGraphSource.fromTSV(path, 50000, false);
+    assertThat(actual.getLabels(), is(expected.getLabels()));
+    assertThat(actual.getGraph().weights(), is(expected.getGraph().weights()));
+    assertThat(actual.getGraph().size(), is(expected.getGraph().size()));
+  }
+
+  @Test
+  public void binaryConversion() throws IOException {
+    Path tsv = tempDir.newFile("graph.tsv").toPath();
+    Files.write(tsv, "2\tfoo\tbar\n3.5\tbar\tbaz\n1\tqux\tfoo\n".getBytes(StandardCharsets.UTF_8));
+    File edgeFile = tempDir.newFile("graph.edges");
+    Path labelFile = tempDir.newFile("graph.labels").toPath();
+    LabeledGraphSource.convertTSV(tsv, edgeFile, labelFile, false);
+    LabeledGraph<String> expected = LabeledGraphSource.fromTSV(tsv);
+    LabeledGraph<String> actual = LabeledGraphSource.fromBinary(edgeFile, labelFile);
+    assertThat(actual.getLabels(), is(expected.getLabels()));
+    assertThat(actual.getGraph().weights(), is(expected.getGraph().weights()));
+    assertThat(actual.getGraph().size(), is(expected.getGraph().size()));
+  }
+
+  private static Set<String> labeledEdges(LabeledGraph<String> labeledGraph) {
+    Set<String> edges = Collections.synchronizedSet(new HashSet<>());
+    labeledGraph.getGraph().traverseParallel((u, v, weight) ->
+            edges.add(labeledGraph.getLabel(u) + "-" + labeledGraph.getLabel(v) + "-" + weight));
+    return edges;
+  }
+
+}
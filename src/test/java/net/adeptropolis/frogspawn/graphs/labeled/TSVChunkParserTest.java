@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) Florian Schaefer 2020.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.adeptropolis.frogspawn.graphs.labeled;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+public class TSVChunkParserTest {
+
+  private static final Pattern TSV_PATTERN = Pattern.compile("\\s*(?<weight>[0-9.]+)\t+(?<u>[^\t]+)\t+(?<v>.+)\\s*");
+  private static final String[] TOKENS = {"0", "1", "7", ".", "\t", "\t", "\t", "a", "b", " ", "é", "\u0085", "\u2028", "x1"};
+
+  @Test
+  public void simpleLines() {
+    TSVChunkParser parser = parse("2\tfoo\tbar\n0.5\t\tbaz\t\t qux \r\n\n3.25\tno right label\n");
+    assertThat(parser.size(), is(2));
+    assertThat(parser.leftLabel(0), is("foo"));
+    assertThat(parser.rightLabel(0), is("bar"));
+    assertThat(parser.weight(0), is(2.0));
+    assertThat(parser.leftLabel(1), is("baz"));
+    assertThat(parser.rightLabel(1), is(" qux "));
+    assertThat(parser.weight(1), is(0.5));
+  }
+
+  @Test
+  public void weightsMatchParseDouble() {
+    Random random = new Random(1337L);
+    for (int i = 0; i < 10000; i++) {
+      String weight = String.format("%d.%0" + (1 + random.nextInt(25)) + "d", random.nextInt(100000), Math.abs(random.nextLong()) % 1000000000L);
+      TSVChunkParser parser = parse(weight + "\tu\tv");
+      assertThat(weight, parser.weight(0), is(Double.parseDouble(weight)));
+    }
+  }
+
+  @Test
+  public void matchesRegex() {
+    Random random = new Random(4711L);
+    for (int i = 0; i < 100000; i++) {
+      StringBuilder line = new StringBuilder();
+      int numTokens = 1 + random.nextInt(12);
+      for (int j = 0; j < numTokens; j++) {
+        line.append(TOKENS[random.nextInt(TOKENS.length)]);
+      }
+      assertMatchesRegex(line.toString());
+    }
+  }
+
+  @Test
+  public void chunkBoundaries() {
+    String text = "1\ta\tb\n2\tc\td\r\n3\te\tf";
+    ByteBuffer buf = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    for (int split = 0; split <= text.length(); split++) {
+      int total = new TSVChunkParser(buf, 0, split).parse().size() + new TSVChunkParser(buf, split, text.length()).parse().size();
+      assertThat("Split at " + split, total, is(3));
+    }
+  }
+
+  @Test
+  public void labelsAreStoredOnce() {
+    TSVChunkParser parser = parse("1\tfoo\tbar\n2\tbar\tbaz\n3\tfoo\tbaz\n");
+    assertThat(parser.numLabels(), is(3));
+    assertThat(parser.label(0), is("foo"));
+    assertThat(parser.label(1), is("bar"));
+    assertThat(parser.label(2), is("baz"));
+    assertThat(parser.leftId(2), is(0));
+    assertThat(parser.rightId(2), is(2));
+  }
+
+  @Test
+  public void truncatedLastLine() {
+    ByteBuffer buf = ByteBuffer.wrap("1\ta\tb\n2\tc\td".getBytes(StandardCharsets.UTF_8));
+    assertThat(new TSVChunkParser(buf, 0, 4).parse().isTruncated(), is(false));
+    assertThat(new TSVChunkParser(buf, 0, 8).parse().isTruncated(), is(true));
+  }
+
+  private static void assertMatchesRegex(String line) {
+    Matcher matcher = TSV_PATTERN.matcher(line);
+    TSVChunkParser parser;
+    try {
+      parser = parse(line);
+    } catch (NumberFormatException e) {
+      assertThat(line, matcher.find(), is(true));
+      assertThrows(NumberFormatException.class, () -> Double.parseDouble(matcher.group("weight")));
+      return;
+    }
+    if (matcher.find()) {
+      assertThat(line, parser.size(), is(1));
+      assertThat(line, parser.leftLabel(0), is(matcher.group("u")));
+      assertThat(line, parser.rightLabel(0), is(matcher.group("v")));
+      assertThat(line, parser.weight(0), is(Double.parseDouble(matcher.group("weight"))));
+    } else {
+      assertThat(line, parser.size(), is(0));
+    }
+  }
+
+  private static TSVChunkParser parse(String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    return new TSVChunkParser(ByteBuffer.wrap(bytes), 0, bytes.length).parse();
+  }
+
+}
@@ -5,13 +5,17 @@
 
 package net.adeptropolis.frogspawn.graphs.operators;
 
+import net.adeptropolis.frogspawn.graphs.Graph;
 import net.adeptropolis.frogspawn.graphs.GraphTestBase;
+import net.adeptropolis.frogspawn.helpers.Vectors;
 import org.junit.Test;
 
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
 
 public class SSNLOperatorTest extends GraphTestBase {
 
@@ -100,6 +104,41 @@ public class SSNLOperatorTest extends GraphTestBase {
     }
   }
 
+  @Test
+  public void fusedNormalization() {
+    verifyNormalization(K43);
+    verifyNormalization(bandedGraph(5000, 10));
+  }
+
+  private void verifyNormalization(Graph graph) {
+    SSNLOperator op = new SSNLOperator(graph);
+    double[] x = IntStream.range(0, graph.order()).mapToDouble(i -> Math.sin(i + 1)).toArray();
+    Vectors.normalize2(x);
+    double[] normalized = new double[graph.order()];
+    op.applyNormalized(x, normalized);
+    double[] expected = op.apply(x).clone();
+    Vectors.normalize2(expected);
+    for (int i = 0; i < graph.order(); i++) {
+      assertThat(normalized[i], closeTo(expected[i], 1E-9));
+    }
+  }
+
+  @Test
+  public void resultDoesNotDependOnParallelism() {
+    Graph graph = bandedGraph(5000, 10);
+    double[] x = IntStream.range(0, graph.order()).mapToDouble(i -> Math.cos(i + 1)).toArray();
+    Vectors.normalize2(x);
+    double[] expected = new double[graph.order()];
+    new SSNLOperator(graph).applyNormalized(x, expected);
+    for (int parallelism : new int[]{1, 4}) {
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      double[] result = new double[graph.order()];
+      pool.submit(() -> new SSNLOperator(graph).applyNormalized(x, result)).join();
+      pool.shutdown();
+      assertThat(result, is(expected));
+    }
+  }
+
   @Test
   public void reusability() {
     SSNLOperator op = new SSNLOperator(K12);
@@ -9,12 +9,19 @@ import net.adeptropolis.frogspawn.graphs.Edge;
 import net.adeptropolis.frogspawn.graphs.Graph;
 import net.adeptropolis.frogspawn.graphs.GraphTestBase;
 import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraph;
+import net.adeptropolis.frogspawn.graphs.implementations.CompressedSparseGraphBuilder;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -56,6 +63,157 @@ public class ParallelEdgeOpsTest extends GraphTestBase {
     assertThat("Fingerprint mismatch", traverseFingerprint(graph), is(bandedGraphFingerprint(20000, 100)));
   }
 
+  @Test
+  public void everyVertexIsProcessedByASingleTask() {
+    Graph graph = bandedGraph(20000, 10);
+    double[] weights = new double[graph.order()];
+    ParallelEdgeOps.traverse(graph, (u, v, weight) -> weights[u] += weight, TraversalMode.DEFAULT);
+    assertThat(weights, is(graph.weights()));
+  }
+
+  @Test
+  public void nestedTraversal() {
+    Graph graph = bandedGraph(5000, 20);
+    long expected = bandedGraphFingerprint(5000, 20);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    long[] fingerprints = pool.submit(() -> IntStream.range(0, 8).parallel().mapToLong(i -> {
+      AtomicLong fp = new AtomicLong();
+      ParallelEdgeOps.traverse(graph, (u, v, weight) -> fp.addAndGet((long) ((u * weight) % (v + 10))), TraversalMode.DEFAULT);
+      return fp.get();
+    }).toArray()).join();
+    pool.shutdown();
+    for (long fp : fingerprints) {
+      assertThat(fp, is(expected));
+    }
+  }
+
+  @Test
+  public void skewedDegreeTraversal() {
+    CompressedSparseGraphBuilder builder = CompressedSparseGraph.builder();
+    for (int v = 1; v < 50000; v++) {
+      builder.add(0, v, 1);
+      builder.add(v, (v % 49999) + 1, 1);
+    }
+    Graph graph = builder.build();
+    double[] weights = new double[graph.order()];
+    ParallelEdgeOps.traverse(graph, (u, v, weight) -> weights[u] += weight, TraversalMode.DEFAULT);
+    assertThat(weights, is(graph.weights()));
+  }
+
+  @Test
+  public void rowReduction() {
+    Graph graph = bandedGraph(20000, 10);
+    double[] rows = new double[graph.order()];
+    double total = ParallelEdgeOps.reduce(graph, new RowReducer() {
+      @Override
+      public double reduceRow(int u) {
+        return rows[u] == graph.weights()[u] ? rows[u] : Double.NaN;
+      }
+
+      @Override
+      public void accept(int u, int v, double weight) {
+        rows[u] += weight;
+      }
+    }, TraversalMode.DEFAULT);
+    assertThat(total, closeTo(graph.totalWeight(), 1E-6));
+  }
+
+  @Test
+  public void smallGraphRowReduction() {
+    Graph graph = completeGraph(10);
+    double total = ParallelEdgeOps.reduce(graph, new RowReducer() {
+      @Override
+      public double reduceRow(int u) {
+        return u;
+      }
+
+      @Override
+      public void accept(int u, int v, double weight) {
+      }
+    }, TraversalMode.DEFAULT);
+    assertThat(total, is(45.0));
+  }
+
+  @Test
+  public void reductionDoesNotDependOnParallelism() {
+    Graph graph = bandedGraph(50000, 10);
+    RowReducer reducer = new RowReducer() {
+      @Override
+      public double reduceRow(int u) {
+        return Math.sin(u) / (u + 1);
+      }
+
+      @Override
+      public void accept(int u, int v, double weight) {
+      }
+    };
+    double expected = ParallelEdgeOps.reduce(graph, reducer, TraversalMode.DEFAULT);
+    for (int parallelism : new int[]{1, 3, 16}) {
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      double reduction = pool.submit(() -> ParallelEdgeOps.reduce(graph, reducer, TraversalMode.DEFAULT)).join();
+      pool.shutdown();
+      assertThat(reduction, is(expected));
+    }
+  }
+
+  @Test
+  public void accumulation() {
+    Graph graph = bandedGraph(20000, 10);
+    WeightAccumulator acc = ParallelEdgeOps.accumulate(graph, WeightAccumulator::new, TraversalMode.DEFAULT);
+    assertThat(acc.edges, is(graph.size()));
+    assertThat(acc.weight, closeTo(graph.totalWeight(), 1E-6));
+  }
+
+  @Test
+  public void smallGraphAccumulation() {
+    Graph graph = completeGraph(10);
+    WeightAccumulator acc = ParallelEdgeOps.accumulate(graph, WeightAccumulator::new, TraversalMode.DEFAULT);
+    assertThat(acc.edges, is(90L));
+  }
+
+  @Test
+  public void accumulationDoesNotDependOnParallelism() {
+    Graph graph = bandedGraph(50000, 10);
+    double expected = ParallelEdgeOps.accumulate(graph, WeightAccumulator::new, TraversalMode.DEFAULT).checksum;
+    for (int parallelism : new int[]{1, 3, 16}) {
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      double checksum = pool.submit(() -> ParallelEdgeOps.accumulate(graph, WeightAccumulator::new, TraversalMode.DEFAULT).checksum).join();
+      pool.shutdown();
+      assertThat(checksum, is(expected));
+    }
+  }
+
+  @Test
+  public void balancedSplitPoint() {
+    LongBuffer costs = LongBuffer.wrap(new long[]{0, 1000, 1001, 1002, 1003, 1004, 1005, 1006});
+    assertThat(ParallelEdgeOps.balancedSplitPoint(costs, 0, 7, 1, 2), is(1));
+    assertThat(ParallelEdgeOps.balancedSplitPoint(costs, 1, 7, 1, 2), is(4));
+    assertThat(ParallelEdgeOps.balancedSplitPoint(costs, 1, 7, 1, 3), is(3));
+    assertThat(ParallelEdgeOps.balancedSplitPoint(LongBuffer.wrap(new long[]{0, 1, 2, 3, 1000}), 0, 4, 1, 2), is(3));
+    assertThat(ParallelEdgeOps.balancedSplitPoint(LongBuffer.wrap(new long[]{0, 1, 2}), 0, 2, 1, 2), is(1));
+  }
+
+  @Test
+  public void balancedTasksOnSkewedDegrees() {
+    CompressedSparseGraphBuilder builder = CompressedSparseGraph.builder();
+    int n = 100000;
+    for (int u = 0; u < n; u++) {
+      int degree = 1 + 200 / (u % 500 + 1);
+      for (int k = 0; k < degree; k++) {
+        builder.addDirected(u, (int) ((u * 7919L + k * 104729L) % n), 1);
+      }
+    }
+    Graph graph = builder.build();
+    List<Long> workloads = new ArrayList<>();
+    ParallelEdgeOps.rootTask(graph, consumer, null, null, TraversalMode.DEFAULT).collectLeafWorkloads(workloads);
+    assertThat(workloads.size(), greaterThan(64));
+    assertThat(workloads.stream().mapToLong(x -> x).sum(), is(graph.size()));
+    double mean = (double) graph.size() / workloads.size();
+    for (long workload : workloads) {
+      assertThat(workload / mean, closeTo(1, 0.05));
+    }
+  }
+
   @Test
   public void lowerTriangularTraversal() {
     Graph graph = completeGraph(150);
@@ -64,5 +222,26 @@ public class ParallelEdgeOpsTest extends GraphTestBase {
     assertThat(edgeCount.get(), is(75 * 149));
   }
 
-}
+  private static class WeightAccumulator implements EdgeAccumulator<WeightAccumulator> {
+
+    private long edges = 0;
+    private double weight = 0;
+    private double checksum = 0;
+
+    @Override
+    public void accept(int u, int v, double weight) {
+      edges++;
+      this.weight += weight;
+      checksum += Math.sin(u) * weight / (v + 1);
+    }
+
+    @Override
+    public void merge(WeightAccumulator other) {
+      edges += other.edges;
+      weight += other.weight;
+      checksum += other.checksum;
+    }
 
+  }
+
+}
@@ -31,6 +31,32 @@ public class ParallelVertexOpsTest extends GraphTestBase {
     verify(g);
   }
 
+  @Test
+  public void reduction() {
+    assertThat(ParallelVertexOps.reduce(completeGraph(10), u -> u), is(45.0));
+    Graph circle = largeCircle(150000);
+    assertThat(ParallelVertexOps.reduce(circle, u -> u), is((circle.order() - 1.0) * circle.order() / 2));
+  }
+
+  @Test
+  public void rangeReduction() {
+    assertThat(ParallelVertexOps.reduceRanges(completeGraph(10), (from, to) -> to - from), is(10.0));
+    Graph circle = largeCircle(150000);
+    boolean[] visited = new boolean[circle.order()];
+    double sum = ParallelVertexOps.reduceRanges(circle, (from, to) -> {
+      double rangeSum = 0;
+      for (int u = from; u < to; u++) {
+        visited[u] = true;
+        rangeSum += u;
+      }
+      return rangeSum;
+    });
+    assertThat(sum, is((circle.order() - 1.0) * circle.order() / 2));
+    for (boolean v : visited) {
+      assertThat(v, is(true));
+    }
+  }
+
   private void verify(Graph g) {
     Set<Integer> vertices = Collections.synchronizedSet(new HashSet<>());
     ParallelVertexOps.traverse(g, vertices::add);